@@ -0,0 +1,116 @@
+package Benchmarks;
+
+import IndexerEngine.indexer.DocumentLengths;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.tokenizers.ComplexTokenizer;
+import IndexerEngine.tokenizers.Tokenizer;
+import SearchEngine.Evaluation.Evaluation;
+import SearchEngine.IndexReader.IndexBinaryReader;
+import SearchEngine.IndexReader.IndexReader;
+import SearchEngine.IndexReader.IndexTermFreqReader;
+import SearchEngine.IndexReader.IndexWtNormReader;
+import SearchEngine.QueryProcessing.BM25Retrieval;
+import SearchEngine.QueryProcessing.RankedRetrieval;
+import SearchEngine.QueryProcessing.Retrieval;
+import SearchEngine.ScoringAlgorithms.BM25Score;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * <h2>BM25 Comparison</h2>
+ * Compares the effectiveness and the latency of the BM25 score, over a term frequency index and the document
+ * lengths saved alongside it, with the cosine score, over the weighted index of the same corpus. The queries are
+ * retrieved by both models in the same run, each with its own evaluation, and the system metrics are reported side
+ * by side, with every retrieved document evaluated.
+ */
+public class BM25Comparison {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("BM25Comparison").build()
+                .defaultHelp(true).description("Compares the BM25 and the cosine scores");
+
+        parser.addArgument("<freqIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Term frequency index file");
+
+        parser.addArgument("<weightedIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Weighted index file");
+
+        parser.addArgument("<queriesFile>").type(Arguments.fileType().verifyIsFile())
+                .help("File with one query per line");
+
+        parser.addArgument("<stopWordsFile>").type(Arguments.fileType().verifyIsFile())
+                .help("stopwords file to use in the complex tokenizer");
+
+        parser.addArgument("<queriesRelevanceFile>").type(Arguments.fileType().verifyIsFile())
+                .help("File that contains the relevant documents for each query");
+
+        parser.addArgument("--relevance").metavar("r").type(Integer.class).setDefault(4)
+                .help("number of relevance levels to use in the gold standard");
+
+        parser.addArgument("--k1").type(Double.class).setDefault(BM25Score.DEFAULT_K1)
+                .help("saturation of the term frequency of the BM25 score");
+
+        parser.addArgument("--b").type(Double.class).setDefault(BM25Score.DEFAULT_B)
+                .help("weight of the length normalization of the BM25 score");
+
+        parser.addArgument("--binaryIndex").action(Arguments.storeTrue())
+                .help("the index files are in the binary format");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        boolean binaryIndex = ns.getBoolean("binaryIndex");
+        IndexReader freqReader = binaryIndex ? new IndexBinaryReader() : new IndexTermFreqReader();
+        IndexReader weightedReader = binaryIndex ? new IndexBinaryReader() : new IndexWtNormReader();
+        Indexer freq = freqReader.readIndex(ns.getString("<freqIndexFile>"));
+        Indexer weighted = weightedReader.readIndex(ns.getString("<weightedIndexFile>"));
+        Tokenizer tokenizer = new ComplexTokenizer(ns.getString("<stopWordsFile>"));
+
+        List<String> queries = null;
+        DocumentLengths documentLengths = null;
+        try {
+            queries = Files.readAllLines(Paths.get(ns.getString("<queriesFile>")));
+            documentLengths = DocumentLengths.load(ns.getString("<freqIndexFile>"), freq);
+        } catch (IOException e) {
+            System.err.println("Error reading the queries or the document lengths " + e.getMessage());
+            System.exit(1);
+        }
+
+        String relevanceFile = ns.getString("<queriesRelevanceFile>");
+        BM25Score bm25 = new BM25Score(freq, documentLengths, ns.getDouble("k1"), ns.getDouble("b"));
+        Evaluation[] evaluations = {new Evaluation(relevanceFile), new Evaluation(relevanceFile)};
+        Retrieval[] retrievals = {
+                new RankedRetrieval(weighted, tokenizer, evaluations[0]),
+                new BM25Retrieval(freq, tokenizer, evaluations[1], bm25)
+        };
+        String[] names = {"cosineScore", "bm25"};
+
+        // both models are warmed up before the queries are retrieved and their latencies stored
+        for (Retrieval retrieval : retrievals) {
+            for (int i = 0; i < queries.size(); i++)
+                retrieval.search(i + 1, queries.get(i));
+        }
+        for (Retrieval retrieval : retrievals) {
+            for (int i = 0; i < queries.size(); i++)
+                retrieval.retrieve(i + 1, queries.get(i));
+        }
+
+        System.out.println("Queries: " + queries.size() + ", documents: " + documentLengths.size() +
+                String.format(", average length: %.2f", documentLengths.getAverageLength()));
+        System.out.printf("%-12s | %-8s | %-8s | %-8s | %-20s | %s\n", "Scoring", "MAP", "MAP@10", "MRR",
+                "Median latency (ms)", "Queries per second");
+
+        for (int i = 0; i < retrievals.length; i++) {
+            retrievals[i].calculateMeasures(0.0, ns.getInt("relevance"));
+            Evaluation evaluation = evaluations[i];
+            System.out.printf("%-12s | %-8.5f | %-8.5f | %-8.5f | %-20.3f | %.1f\n", names[i], evaluation.getMap(),
+                    evaluation.getMap10(), evaluation.getMrr(), evaluation.getMedianQueryLatency(),
+                    evaluation.getQueryThroughput());
+        }
+    }
+}
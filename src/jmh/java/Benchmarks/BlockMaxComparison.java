@@ -0,0 +1,249 @@
+package Benchmarks;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.PostingCursor;
+import IndexerEngine.indexer.PostingList;
+import IndexerEngine.tokenizers.ComplexTokenizer;
+import IndexerEngine.tokenizers.Tokenizer;
+import SearchEngine.IndexReader.IndexWtNormReader;
+import SearchEngine.QueryProcessing.Query;
+import SearchEngine.ScoringAlgorithms.CosineScore;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Comparator.comparingInt;
+
+/**
+ * <h2>Block Max Comparison</h2>
+ * Measures the skip entries of the postings lists. The postings lists of each pair of the 10 terms with higher
+ * document frequency are intersected with a linear merge, that visits every posting, and with the cursors moved by
+ * {@link PostingCursor#advance(int)}, that skips whole blocks of postings. Then the queries are scored with the
+ * exhaustive cosine scoring, with the WAND top k scoring and with the block-max WAND top k scoring, checking that
+ * the three rank the same k documents for every query.
+ */
+public class BlockMaxComparison {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("BlockMaxComparison").build()
+                .defaultHelp(true).description("Compares postings traversals with and without skip entries");
+
+        parser.addArgument("<indexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Weighted index file in the text format");
+
+        parser.addArgument("<queriesFile>").type(Arguments.fileType().verifyIsFile())
+                .help("File with one query per line");
+
+        parser.addArgument("<stopWordsFile>").type(Arguments.fileType().verifyIsFile())
+                .help("stopwords file to use in the complex tokenizer");
+
+        parser.addArgument("--topK").metavar("k").type(Integer.class).setDefault(10)
+                .help("number of documents to retrieve");
+
+        parser.addArgument("--repetitions").metavar("n").type(Integer.class).setDefault(5)
+                .help("number of times each intersection and query is measured");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        int k = ns.getInt("topK");
+        int repetitions = ns.getInt("repetitions");
+        Indexer indexer = new IndexWtNormReader().readIndex(ns.getString("<indexFile>"));
+        Tokenizer tokenizer = new ComplexTokenizer(ns.getString("<stopWordsFile>"));
+
+        List<List<String>> queries = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(Paths.get(ns.getString("<queriesFile>"))))
+                queries.add(tokenizer.tokenize(line));
+        } catch (IOException e) {
+            System.err.println("Error reading queries file");
+            System.exit(1);
+        }
+
+        compareIntersections(indexer, repetitions);
+        compareTopK(indexer, queries, k, repetitions);
+    }
+
+    /**
+     * Intersects the postings lists of each pair of the 10 terms with higher document frequency
+     */
+    private static void compareIntersections(Indexer indexer, int repetitions) {
+        List<String> terms = indexer.getTerms().stream()
+                .sorted(comparingInt((String term) -> indexer.getDocFreq(term)).reversed())
+                .limit(10)
+                .collect(Collectors.toList());
+
+        double linearTime = 0.0;
+        double skipTime = 0.0;
+        long postings = 0;
+        long matches = 0;
+        int mismatches = 0;
+
+        for (int i = 0; i < terms.size(); i++) {
+            for (int j = i + 1; j < terms.size(); j++) {
+                PostingList first = indexer.getTermPostings(terms.get(i));
+                PostingList second = indexer.getTermPostings(terms.get(j));
+                int linearCount = 0;
+                int skipCount = 0;
+                double linearBest = Double.MAX_VALUE;
+                double skipBest = Double.MAX_VALUE;
+
+                for (int r = 0; r < repetitions; r++) {
+                    long start = System.nanoTime();
+                    linearCount = linearIntersection(first, second);
+                    linearBest = Math.min(linearBest, (System.nanoTime() - start) / 1e6);
+
+                    start = System.nanoTime();
+                    skipCount = skipIntersection(first, second);
+                    skipBest = Math.min(skipBest, (System.nanoTime() - start) / 1e6);
+                }
+
+                linearTime += linearBest;
+                skipTime += skipBest;
+                postings += first.size() + second.size();
+                matches += linearCount;
+                if (linearCount != skipCount)
+                    mismatches++;
+            }
+        }
+
+        System.out.println("Intersections of the pairs of the terms with higher document frequency: " + terms);
+        System.out.println("Postings: " + postings + ", documents in the intersections: " + matches);
+        System.out.printf("%-16s | %s\n", "Intersection", "Total latency (ms)");
+        System.out.printf("%-16s | %.3f\n", "linear merge", linearTime);
+        System.out.printf("%-16s | %.3f\n", "skip entries", skipTime);
+        System.out.println("Intersections with a different size: " + mismatches + "\n");
+    }
+
+    /**
+     * Intersects two postings lists moving the cursor behind to the next posting
+     *
+     * @return number of documents in both lists
+     */
+    private static int linearIntersection(PostingList first, PostingList second) {
+        PostingCursor a = first.cursor();
+        PostingCursor b = second.cursor();
+        int count = 0;
+
+        int docA = a.nextDoc();
+        int docB = b.nextDoc();
+        while (docA != PostingCursor.NO_MORE_DOCS && docB != PostingCursor.NO_MORE_DOCS) {
+            if (docA == docB) {
+                count++;
+                docA = a.nextDoc();
+                docB = b.nextDoc();
+            } else if (docA < docB) {
+                docA = a.nextDoc();
+            } else {
+                docB = b.nextDoc();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Intersects two postings lists advancing the cursor of the longer list to the documents of the shorter one
+     *
+     * @return number of documents in both lists
+     */
+    private static int skipIntersection(PostingList first, PostingList second) {
+        PostingCursor lead = first.size() <= second.size() ? first.cursor() : second.cursor();
+        PostingCursor other = first.size() <= second.size() ? second.cursor() : first.cursor();
+        int count = 0;
+
+        int docID = lead.nextDoc();
+        while (docID != PostingCursor.NO_MORE_DOCS) {
+            int otherDoc = other.advance(docID);
+            if (otherDoc == docID) {
+                count++;
+                docID = lead.nextDoc();
+            } else {
+                docID = lead.advance(otherDoc);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Scores the queries with the exhaustive, the WAND and the block-max WAND cosine scoring
+     */
+    private static void compareTopK(Indexer indexer, List<List<String>> queries, int k, int repetitions) {
+        CosineScore wand = new CosineScore(indexer);
+        wand.setBlockMaxPruning(false);
+        CosineScore blockMax = new CosineScore(indexer);
+
+        double[] exhaustiveTimes = new double[queries.size()];
+        double[] wandTimes = new double[queries.size()];
+        double[] blockMaxTimes = new double[queries.size()];
+        int mismatches = 0;
+
+        for (int q = 0; q < queries.size(); q++) {
+            List<String> terms = queries.get(q);
+            Query exhaustive = null;
+            Query wandTopK = null;
+            Query blockMaxTopK = null;
+            exhaustiveTimes[q] = Double.MAX_VALUE;
+            wandTimes[q] = Double.MAX_VALUE;
+            blockMaxTimes[q] = Double.MAX_VALUE;
+
+            for (int r = 0; r < repetitions; r++) {
+                long start = System.nanoTime();
+                exhaustive = new Query(q + 1);
+                wand.computeScores(exhaustive, terms);
+                exhaustiveTimes[q] = Math.min(exhaustiveTimes[q], (System.nanoTime() - start) / 1e6);
+
+                start = System.nanoTime();
+                wandTopK = new Query(q + 1);
+                wand.computeTopKScores(wandTopK, terms, k);
+                wandTimes[q] = Math.min(wandTimes[q], (System.nanoTime() - start) / 1e6);
+
+                start = System.nanoTime();
+                blockMaxTopK = new Query(q + 1);
+                blockMax.computeTopKScores(blockMaxTopK, terms, k);
+                blockMaxTimes[q] = Math.min(blockMaxTimes[q], (System.nanoTime() - start) / 1e6);
+            }
+
+            List<String> expected = ranking(exhaustive, k);
+            if (!expected.equals(ranking(wandTopK, k)) || !expected.equals(ranking(blockMaxTopK, k)))
+                mismatches++;
+        }
+
+        System.out.println("Queries: " + queries.size() + ", k: " + k);
+        System.out.printf("%-16s | %-22s | %s\n", "Scoring", "Median latency (ms)", "Total latency (ms)");
+        System.out.printf("%-16s | %-22.3f | %.1f\n", "exhaustive", median(exhaustiveTimes),
+                Arrays.stream(exhaustiveTimes).sum());
+        System.out.printf("%-16s | %-22.3f | %.1f\n", "WAND", median(wandTimes), Arrays.stream(wandTimes).sum());
+        System.out.printf("%-16s | %-22.3f | %.1f\n", "block-max WAND", median(blockMaxTimes),
+                Arrays.stream(blockMaxTimes).sum());
+        System.out.println("Queries with a different top " + k + ": " + mismatches);
+    }
+
+    /**
+     * Returns the k documents with higher score, ranked by decreasing score and then by increasing document id
+     *
+     * @param query scored query
+     * @param k number of documents
+     * @return ranked documents with the respective score
+     */
+    private static List<String> ranking(Query query, int k) {
+        List<String> ranking = new ArrayList<>();
+        for (int rank = 0; rank < Math.min(k, query.size()); rank++)
+            ranking.add(String.format("%d:%.6f", query.getDocID(rank), query.getScore(rank)));
+        return ranking;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted.length == 0 ? 0.0 : sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,116 @@
+package Benchmarks;
+
+import IndexerEngine.indexer.ImpactOrderedIndex;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.tokenizers.ComplexTokenizer;
+import IndexerEngine.tokenizers.Tokenizer;
+import SearchEngine.Evaluation.Evaluation;
+import SearchEngine.IndexReader.IndexBinaryReader;
+import SearchEngine.IndexReader.IndexWtNormReader;
+import SearchEngine.QueryProcessing.RankedRetrieval;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h2>Impact Budget Comparison</h2>
+ * Reports the tradeoff between quality and speed of the score-at-a-time scoring of an impact-ordered index. The
+ * queries are scored with the exhaustive cosine score over the weighted index and then over the impact-ordered
+ * index of the same corpus with each budget of postings, reporting the MAP, the MAP at rank 10 and the latency of
+ * each one, with every retrieved document evaluated.
+ */
+public class ImpactBudgetComparison {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("ImpactBudgetComparison").build()
+                .defaultHelp(true).description("Compares the score-at-a-time scoring with several budgets");
+
+        parser.addArgument("<weightedIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Weighted index file");
+
+        parser.addArgument("<impactIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Impact-ordered index file of the same corpus");
+
+        parser.addArgument("<queriesFile>").type(Arguments.fileType().verifyIsFile())
+                .help("File with one query per line");
+
+        parser.addArgument("<stopWordsFile>").type(Arguments.fileType().verifyIsFile())
+                .help("stopwords file to use in the complex tokenizer");
+
+        parser.addArgument("<queriesRelevanceFile>").type(Arguments.fileType().verifyIsFile())
+                .help("File that contains the relevant documents for each query");
+
+        parser.addArgument("--budgets").metavar("n").type(Integer.class).nargs("+")
+                .setDefault(Arrays.asList(100, 500, 1000, 5000, 20000, 0))
+                .help("maximum numbers of postings processed per query, 0 processes every posting");
+
+        parser.addArgument("--relevance").metavar("r").type(Integer.class).setDefault(4)
+                .help("number of relevance levels to use in the gold standard");
+
+        parser.addArgument("--binaryIndex").action(Arguments.storeTrue())
+                .help("the weighted index file is in the binary format");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        String weightedFile = ns.getString("<weightedIndexFile>");
+        Indexer weighted = ns.getBoolean("binaryIndex") ? new IndexBinaryReader().readIndex(weightedFile)
+                : new IndexWtNormReader().readIndex(weightedFile);
+        Tokenizer tokenizer = new ComplexTokenizer(ns.getString("<stopWordsFile>"));
+
+        List<String> queries = null;
+        ImpactOrderedIndex impactIndex = null;
+        try {
+            queries = Files.readAllLines(Paths.get(ns.getString("<queriesFile>")));
+            impactIndex = ImpactOrderedIndex.read(ns.getString("<impactIndexFile>"));
+        } catch (IOException e) {
+            System.err.println("Error reading the queries or the impact-ordered index " + e.getMessage());
+            System.exit(1);
+        }
+
+        String relevanceFile = ns.getString("<queriesRelevanceFile>");
+        int relevance = ns.getInt("relevance");
+
+        System.out.println("Queries: " + queries.size() + ", terms: " + impactIndex.size());
+        System.out.printf("%-24s | %-8s | %-8s | %-20s | %s\n", "Scoring", "MAP", "MAP@10", "Median latency (ms)",
+                "Queries per second");
+
+        Evaluation evaluation = new Evaluation(relevanceFile);
+        RankedRetrieval exhaustive = new RankedRetrieval(weighted, tokenizer, evaluation);
+        run(exhaustive, queries);
+        print("exhaustive cosine", exhaustive, evaluation, relevance);
+
+        List<Integer> budgets = ns.getList("budgets");
+        for (int budget : budgets) {
+            evaluation = new Evaluation(relevanceFile);
+            RankedRetrieval impact = new RankedRetrieval(impactIndex, tokenizer, evaluation, budget);
+            run(impact, queries);
+            print(budget == 0 ? "impact, every posting" : "impact, budget " + budget, impact, evaluation,
+                    relevance);
+        }
+    }
+
+    /**
+     * Retrieves the queries after scoring them once to warm up the retrieval
+     */
+    private static void run(RankedRetrieval retrieval, List<String> queries) {
+        for (int i = 0; i < queries.size(); i++)
+            retrieval.search(i + 1, queries.get(i));
+        for (int i = 0; i < queries.size(); i++)
+            retrieval.retrieve(i + 1, queries.get(i));
+    }
+
+    /**
+     * Calculates and prints the system metrics of a retrieval
+     */
+    private static void print(String name, RankedRetrieval retrieval, Evaluation evaluation, int relevance) {
+        retrieval.calculateMeasures(0.0, relevance);
+        System.out.printf("%-24s | %-8.5f | %-8.5f | %-20.3f | %.1f\n", name, evaluation.getMap(),
+                evaluation.getMap10(), evaluation.getMedianQueryLatency(), evaluation.getQueryThroughput());
+    }
+}
@@ -0,0 +1,111 @@
+package Benchmarks;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.PostingList;
+import SearchEngine.IndexReader.IndexBinaryReader;
+import SearchEngine.IndexReader.IndexReader;
+import SearchEngine.IndexReader.IndexTermFreqReader;
+import SearchEngine.IndexReader.IndexWtNormReader;
+import SearchEngine.IndexReader.MappedIndexReader;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * <h2>Index Format Comparison</h2>
+ * Compares the size and the load time of the same index saved in the text and in the binary index format, also
+ * opening the binary file memory-mapped, and checks that both files load the same postings.
+ */
+public class IndexFormatComparison {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("IndexFormatComparison").build()
+                .defaultHelp(true).description("Compares the text and binary index formats");
+
+        parser.addArgument("<indexer>").metavar("<indexer>").choices("freq", "weighted")
+                .help("The indexer type of the text index file");
+
+        parser.addArgument("<textIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Index file in the text format");
+
+        parser.addArgument("<binaryIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Index file in the binary format");
+
+        parser.addArgument("--repetitions").metavar("n").type(Integer.class).setDefault(10)
+                .help("number of times each index is loaded");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        String textFile = ns.getString("<textIndexFile>");
+        String binaryFile = ns.getString("<binaryIndexFile>");
+        int repetitions = ns.getInt("repetitions");
+        IndexReader textReader = ns.getString("<indexer>").equals("freq") ? new IndexTermFreqReader()
+                : new IndexWtNormReader();
+        IndexReader binaryReader = new IndexBinaryReader();
+
+        long textSize = new File(textFile).length();
+        long binarySize = new File(binaryFile).length();
+
+        double textTime = medianLoadTime(textReader, textFile, repetitions);
+        double binaryTime = medianLoadTime(binaryReader, binaryFile, repetitions);
+        double mappedTime = medianLoadTime(new MappedIndexReader(), binaryFile, repetitions);
+
+        System.out.printf("%-8s | %-12s | %s\n", "Format", "Size (bytes)", "Median load time (ms)");
+        System.out.printf("%-8s | %-12d | %.2f\n", "text", textSize, textTime);
+        System.out.printf("%-8s | %-12d | %.2f\n", "binary", binarySize, binaryTime);
+        System.out.printf("%-8s | %-12d | %.2f\n", "mapped", binarySize, mappedTime);
+        System.out.printf("Binary size ratio: %.3f, load speedup: %.2fx\n", (double) binarySize / textSize,
+                textTime / binaryTime);
+
+        boolean same = sameIndex(textReader.readIndex(textFile), binaryReader.readIndex(binaryFile))
+                && sameIndex(textReader.readIndex(textFile), new MappedIndexReader().readIndex(binaryFile));
+        System.out.println("Indexes have the same postings: " + same);
+    }
+
+    /**
+     * Loads the index several times and returns the median load time
+     *
+     * @param reader index reader
+     * @param filename index filename
+     * @param repetitions number of loads
+     * @return median load time in ms
+     */
+    static double medianLoadTime(IndexReader reader, String filename, int repetitions) {
+        double[] times = new double[repetitions];
+        for (int i = 0; i < repetitions; i++) {
+            long start = System.nanoTime();
+            reader.readIndex(filename);
+            times[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(times);
+        return times[repetitions / 2];
+    }
+
+    /**
+     * Checks that two indexes have the same terms and postings
+     *
+     * @param first an index
+     * @param second another index
+     * @return true if the indexes have the same number of documents, terms and postings
+     */
+    static boolean sameIndex(Indexer first, Indexer second) {
+        if (first.getN_docs() != second.getN_docs() || first.size() != second.size())
+            return false;
+
+        for (String term : first.getTerms()) {
+            PostingList postings = first.getTermPostings(term);
+            PostingList other = second.getTermPostings(term);
+            if (other == null || postings.size() != other.size())
+                return false;
+
+            for (int i = 0; i < postings.size(); i++) {
+                if (postings.getDocID(i) != other.getDocID(i) || postings.encodedValue(i) != other.encodedValue(i))
+                    return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,216 @@
+package Benchmarks;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <h2>Load Generator</h2>
+ * Sends the queries of a file to a running search server from several concurrent clients during a fixed time,
+ * each client sending a new query as soon as the previous one is answered, and reports the throughput and the
+ * latency percentiles seen by the clients and reported by the server.
+ */
+public class LoadGenerator {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("LoadGenerator").build()
+                .defaultHelp(true).description("Measures the throughput of a search server under sustained load");
+
+        parser.addArgument("<queriesFile>").type(Arguments.fileType().verifyIsFile())
+                .help("File with one query per line");
+
+        parser.addArgument("--url").setDefault("http://localhost:8080")
+                .help("address of the search server");
+
+        parser.addArgument("--clients").metavar("n").type(Integer.class).setDefault(4)
+                .help("number of concurrent clients");
+
+        parser.addArgument("--duration").metavar("s").type(Integer.class).setDefault(10)
+                .help("seconds the load is sustained");
+
+        parser.addArgument("--warmup").metavar("s").type(Integer.class).setDefault(2)
+                .help("seconds of load before the measurements start");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        List<String> queries = null;
+        try {
+            queries = Files.readAllLines(Paths.get(ns.getString("<queriesFile>")));
+        } catch (IOException e) {
+            System.err.println("Error reading queries file");
+            System.exit(1);
+        }
+
+        String url = ns.getString("url");
+        int clients = ns.getInt("clients");
+
+        if (ns.getInt("warmup") > 0)
+            runClients(url, queries, clients, ns.getInt("warmup") * 1000L);
+
+        long start = System.nanoTime();
+        List<ClientResult> results = runClients(url, queries, clients, ns.getInt("duration") * 1000L);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        LatencyList clientLatencies = new LatencyList();
+        LatencyList serverLatencies = new LatencyList();
+        long errors = 0;
+        for (ClientResult result : results) {
+            clientLatencies.addAll(result.clientLatencies);
+            serverLatencies.addAll(result.serverLatencies);
+            errors += result.errors;
+        }
+
+        System.out.println("Clients: " + clients + ", duration (s): " + String.format("%.1f", elapsedSeconds));
+        System.out.println("Requests: " + clientLatencies.size + ", errors: " + errors);
+        System.out.printf("Throughput (queries/s): %.1f\n", clientLatencies.size / elapsedSeconds);
+        System.out.printf("%-8s | %-8s | %-8s | %-8s | %-8s | %s\n", "Latency", "mean", "p50", "p95", "p99", "max");
+        printLatencies("client", clientLatencies);
+        printLatencies("server", serverLatencies);
+    }
+
+    /**
+     * Runs the clients until the time ends
+     *
+     * @param url address of the search server
+     * @param queries text of the queries
+     * @param clients number of concurrent clients
+     * @param durationMillis time each client sends queries
+     * @return results of each client
+     */
+    private static List<ClientResult> runClients(String url, List<String> queries, int clients,
+                                                 long durationMillis) {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<ClientResult>> futures = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + durationMillis;
+
+        for (int i = 0; i < clients; i++) {
+            int firstQuery = i;
+            futures.add(executor.submit(() -> runClient(url, queries, firstQuery, clients, deadline)));
+        }
+
+        List<ClientResult> results = new ArrayList<>();
+        try {
+            for (Future<ClientResult> future : futures)
+                results.add(future.get());
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error running the clients " + e);
+            System.exit(1);
+        } finally {
+            executor.shutdown();
+        }
+        return results;
+    }
+
+    /**
+     * Sends queries one after the other, starting in a given query and skipping the queries of the other clients
+     */
+    private static ClientResult runClient(String url, List<String> queries, int firstQuery, int step,
+                                          long deadline) {
+        ClientResult result = new ClientResult();
+        int next = firstQuery;
+
+        while (System.currentTimeMillis() < deadline) {
+            String query = queries.get(next % queries.size());
+            next += step;
+
+            long start = System.nanoTime();
+            try {
+                double serverLatency = search(url, query);
+                result.clientLatencies.add((System.nanoTime() - start) / 1e6);
+                result.serverLatencies.add(serverLatency);
+            } catch (IOException e) {
+                result.errors++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends a query to the server, reading the whole response so the connection can be reused
+     *
+     * @param url address of the search server
+     * @param query text of the query
+     * @return latency reported by the server in ms
+     * @throws IOException if the request fails or the server does not answer with success
+     */
+    private static double search(String url, String query) throws IOException {
+        URL searchUrl = new URL(url + "/search?q=" + URLEncoder.encode(query, "UTF-8"));
+        HttpURLConnection connection = (HttpURLConnection) searchUrl.openConnection();
+
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            InputStream error = connection.getErrorStream();
+            if (error != null)
+                error.close();
+            throw new IOException("HTTP " + connection.getResponseCode());
+        }
+
+        double serverLatency = 0.0;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line = in.readLine();
+            if (line != null && line.startsWith("latency "))
+                serverLatency = Double.parseDouble(line.substring("latency ".length()));
+            while (in.readLine() != null) {
+                // consume the results
+            }
+        }
+        return serverLatency;
+    }
+
+    private static void printLatencies(String name, LatencyList latencies) {
+        double[] sorted = Arrays.copyOf(latencies.values, latencies.size);
+        Arrays.sort(sorted);
+        System.out.printf("%-8s | %-8.3f | %-8.3f | %-8.3f | %-8.3f | %.3f\n", name,
+                Arrays.stream(sorted).average().orElse(0.0), percentile(sorted, 0.50), percentile(sorted, 0.95),
+                percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0)
+            return 0.0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static class ClientResult {
+        final LatencyList clientLatencies = new LatencyList();
+        final LatencyList serverLatencies = new LatencyList();
+        long errors;
+    }
+
+    /**
+     * Growable list of latencies in ms
+     */
+    private static class LatencyList {
+        double[] values = new double[1024];
+        int size;
+
+        void add(double latency) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = latency;
+        }
+
+        void addAll(LatencyList other) {
+            for (int i = 0; i < other.size; i++)
+                add(other.values[i]);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package Benchmarks;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.PositionalPostingList;
+import SearchEngine.IndexReader.IndexBinaryReader;
+import SearchEngine.IndexReader.IndexPositionalReader;
+import SearchEngine.IndexReader.IndexTermFreqReader;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.File;
+
+/**
+ * <h2>Positional Index Comparison</h2>
+ * Reports the size overhead of storing the positions of the terms, comparing a positional index with the term
+ * frequency index of the same corpus, both in the text and in the binary index format. Also reports the size of
+ * the encoded positions kept in memory and checks that both indexes have the same postings.
+ */
+public class PositionalIndexComparison {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("PositionalIndexComparison").build()
+                .defaultHelp(true).description("Compares the size of the positional and term frequency indexes");
+
+        parser.addArgument("<freqTextIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Term frequency index file in the text format");
+
+        parser.addArgument("<freqBinaryIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Term frequency index file in the binary format");
+
+        parser.addArgument("<positionalTextIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Positional index file in the text format");
+
+        parser.addArgument("<positionalBinaryIndexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Positional index file in the binary format");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        long freqText = new File(ns.getString("<freqTextIndexFile>")).length();
+        long freqBinary = new File(ns.getString("<freqBinaryIndexFile>")).length();
+        long positionalText = new File(ns.getString("<positionalTextIndexFile>")).length();
+        long positionalBinary = new File(ns.getString("<positionalBinaryIndexFile>")).length();
+
+        Indexer freq = new IndexTermFreqReader().readIndex(ns.getString("<freqTextIndexFile>"));
+        Indexer positional = new IndexPositionalReader().readIndex(ns.getString("<positionalTextIndexFile>"));
+        Indexer positionalFromBinary = new IndexBinaryReader().readIndex(ns.getString("<positionalBinaryIndexFile>"));
+
+        long positions = 0;
+        long positionBytes = 0;
+        for (String term : positional.getTerms()) {
+            PositionalPostingList postings = (PositionalPostingList) positional.getTermPostings(term);
+            for (int i = 0; i < postings.size(); i++)
+                positions += postings.getTermFreq(i);
+            positionBytes += postings.positionsSize();
+        }
+
+        System.out.printf("%-8s | %-20s | %-20s | %s\n", "Format", "Term freq (bytes)", "Positional (bytes)",
+                "Overhead");
+        System.out.printf("%-8s | %-20d | %-20d | %.2fx\n", "text", freqText, positionalText,
+                (double) positionalText / freqText);
+        System.out.printf("%-8s | %-20d | %-20d | %.2fx\n", "binary", freqBinary, positionalBinary,
+                (double) positionalBinary / freqBinary);
+        System.out.printf("Positions: %d, encoded in memory in %d bytes, %.2f bytes per position\n", positions,
+                positionBytes, positions == 0 ? 0.0 : (double) positionBytes / positions);
+
+        boolean same = IndexFormatComparison.sameIndex(freq, positional)
+                && IndexFormatComparison.sameIndex(freq, positionalFromBinary)
+                && samePositions(positional, positionalFromBinary);
+        System.out.println("Indexes have the same postings: " + same);
+    }
+
+    /**
+     * Checks that two positional indexes have the same positions, the postings are compared by
+     * {@link IndexFormatComparison#sameIndex(Indexer, Indexer)}
+     *
+     * @param first a positional index
+     * @param second another positional index with the same postings
+     * @return true if every posting has the same positions
+     */
+    private static boolean samePositions(Indexer first, Indexer second) {
+        int[] positions = null;
+        int[] other = null;
+
+        for (String term : first.getTerms()) {
+            PositionalPostingList postings = (PositionalPostingList) first.getTermPostings(term);
+            PositionalPostingList otherPostings = (PositionalPostingList) second.getTermPostings(term);
+
+            for (int i = 0; i < postings.size(); i++) {
+                positions = postings.getPositions(i, positions);
+                other = otherPostings.getPositions(i, other);
+                for (int p = 0; p < postings.getTermFreq(i); p++) {
+                    if (positions[p] != other[p])
+                        return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+package Benchmarks;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.PostingList;
+import SearchEngine.IndexReader.IndexReader;
+import SearchEngine.IndexReader.IndexTermFreqReader;
+import SearchEngine.IndexReader.IndexWtNormReader;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h2>Postings Footprint Comparison</h2>
+ * Compares the heap used by the postings of an index kept in primitive arrays with the heap used by the same
+ * postings kept as one object per posting in linked lists, the representation used before the postings lists.
+ */
+public class PostingsFootprintComparison {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("PostingsFootprintComparison").build()
+                .defaultHelp(true).description("Compares the heap footprint of the postings representations");
+
+        parser.addArgument("<indexer>").metavar("<indexer>").choices("freq", "weighted")
+                .help("The indexer type of the index file");
+
+        parser.addArgument("<indexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Index file in the text format");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        boolean termFreq = ns.getString("<indexer>").equals("freq");
+        IndexReader reader = termFreq ? new IndexTermFreqReader() : new IndexWtNormReader();
+
+        long baseline = usedHeap();
+        Indexer indexer = reader.readIndex(ns.getString("<indexFile>"));
+        long arraysHeap = usedHeap() - baseline;
+
+        long postings = 0;
+        Map<String, List<ObjectPosting>> objectIndex = new HashMap<>();
+        baseline = usedHeap();
+        for (String term : indexer.getTerms()) {
+            PostingList postingList = indexer.getTermPostings(term);
+            List<ObjectPosting> list = new LinkedList<>();
+
+            for (int i = 0; i < postingList.size(); i++) {
+                list.add(termFreq ? new ObjectPostingTermFreq(postingList.getDocID(i), postingList.getTermFreq(i))
+                        : new ObjectPostingWtNorm(postingList.getDocID(i), postingList.getWeight(i)));
+            }
+
+            objectIndex.put(term, list);
+            postings += postingList.size();
+        }
+        long objectsHeap = usedHeap() - baseline;
+
+        System.out.println("Terms: " + indexer.size() + ", postings: " + postings);
+        System.out.printf("%-24s | %-12s | %s\n", "Representation", "Heap (bytes)", "Bytes per posting");
+        System.out.printf("%-24s | %-12d | %.1f\n", "primitive arrays", arraysHeap, (double) arraysHeap / postings);
+        System.out.printf("%-24s | %-12d | %.1f\n", "objects in LinkedList", objectsHeap,
+                (double) objectsHeap / postings);
+
+        // keep both structures reachable until the measurements are done
+        System.out.println("Reduction: " + String.format("%.2fx", (double) objectsHeap / arraysHeap)
+                + (objectIndex.size() == indexer.size() ? "" : " (term count mismatch)"));
+    }
+
+    /**
+     * Returns the heap in use after requesting garbage collections
+     *
+     * @return used heap in bytes
+     */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * One object per posting, as the postings were represented before
+     */
+    private static class ObjectPosting {
+        protected int docID;
+
+        ObjectPosting(int docID) {
+            this.docID = docID;
+        }
+    }
+
+    private static class ObjectPostingTermFreq extends ObjectPosting {
+        private int termFreq;
+
+        ObjectPostingTermFreq(int docID, int termFreq) {
+            super(docID);
+            this.termFreq = termFreq;
+        }
+    }
+
+    private static class ObjectPostingWtNorm extends ObjectPosting {
+        private double wt_norm;
+
+        ObjectPostingWtNorm(int docID, double wt_norm) {
+            super(docID);
+            this.wt_norm = wt_norm;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package Benchmarks;
+
+import IndexerEngine.corpusReaders.CorpusReader;
+import IndexerEngine.corpusReaders.CranfieldReader;
+import IndexerEngine.documents.Document;
+import IndexerEngine.tokenizers.StemCache;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+import org.tartarus.snowball.ext.englishStemmer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <h2>Stem Cache Comparison</h2>
+ * Compares the throughput of stemming the tokens of a corpus with the stemmer alone and through stem caches of
+ * several capacities, shared by several threads, reporting the hit rate of each cache.
+ */
+public class StemCacheComparison {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("StemCacheComparison").build()
+                .defaultHelp(true).description("Compares stemming with and without a stem cache");
+
+        parser.addArgument("<directoryForFiles>").type(Arguments.fileType().verifyIsDirectory())
+                .help("Corpus directory");
+
+        parser.addArgument("--capacities").metavar("n").type(Integer.class).nargs("+")
+                .setDefault(Arrays.asList(1000, 10000, 100000))
+                .help("capacities of the caches compared");
+
+        parser.addArgument("--threads").metavar("n").type(Integer.class).setDefault(1)
+                .help("number of threads stemming the tokens, sharing the cache");
+
+        parser.addArgument("--repetitions").metavar("n").type(Integer.class).setDefault(5)
+                .help("number of times the tokens are stemmed, each time with an empty cache");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        List<String> tokens = new ArrayList<>();
+        File[] files = new File(ns.getString("<directoryForFiles>")).listFiles(File::isFile);
+        Arrays.sort(files);
+        CorpusReader reader = new CranfieldReader();
+        for (File file : files) {
+            Document document = reader.read(file.toString());
+            if (document == null)
+                continue;
+            // the tokens of the complex tokenizer before stemming, stopwords included
+            for (String token : document.getText().toLowerCase().split("[^\\p{Alnum}]+")) {
+                for (String part : token.split("(?<=\\d)(?=\\D)|(?=\\d)(?<=\\D)")) {
+                    if (!part.isEmpty())
+                        tokens.add(part);
+                }
+            }
+        }
+
+        int nThreads = ns.getInt("threads");
+        int repetitions = ns.getInt("repetitions");
+
+        System.out.println("Tokens: " + tokens.size() + ", threads: " + nThreads);
+        System.out.printf("%-16s | %-20s | %s\n", "Stemming", "Tokens per second", "Hit rate");
+
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < repetitions; r++)
+            best = Math.min(best, stemAll(tokens, nThreads, null));
+        System.out.printf("%-16s | %-20.0f | %s\n", "no cache", tokens.size() / best, "-");
+
+        for (int capacity : ns.<Integer>getList("capacities")) {
+            best = Double.MAX_VALUE;
+            StemCache cache = null;
+            for (int r = 0; r < repetitions; r++) {
+                cache = new StemCache(capacity);
+                best = Math.min(best, stemAll(tokens, nThreads, cache));
+            }
+            System.out.printf("%-16s | %-20.0f | %.3f\n", "cache " + capacity, tokens.size() / best,
+                    cache.getHitRate());
+        }
+    }
+
+    /**
+     * Stems all the tokens, dividing them by the threads
+     *
+     * @param tokens tokens to stem
+     * @param nThreads number of threads
+     * @param cache stem cache, null to use the stemmer alone
+     * @return time in seconds
+     */
+    private static double stemAll(List<String> tokens, int nThreads, StemCache cache) {
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        List<Future<Integer>> results = new ArrayList<>();
+        int chunk = (tokens.size() + nThreads - 1) / nThreads;
+
+        long start = System.nanoTime();
+        for (int t = 0; t < nThreads; t++) {
+            List<String> part = tokens.subList(Math.min(tokens.size(), t * chunk),
+                    Math.min(tokens.size(), (t + 1) * chunk));
+            results.add(executor.submit(() -> {
+                englishStemmer stemmer = new englishStemmer();
+                int length = 0;
+                for (String token : part) {
+                    if (cache != null) {
+                        length += cache.stem(token).length();
+                    } else {
+                        stemmer.setCurrent(token);
+                        stemmer.stem();
+                        length += stemmer.getCurrent().length();
+                    }
+                }
+                return length;
+            }));
+        }
+
+        try {
+            for (Future<Integer> result : results)
+                result.get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error stemming tokens " + e);
+            System.exit(1);
+        } finally {
+            executor.shutdown();
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
@@ -0,0 +1,137 @@
+package Benchmarks;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.TermDictionary;
+import SearchEngine.IndexReader.MappedIndexReader;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * <h2>Term Dictionary Comparison</h2>
+ * Compares the heap used and the lookup latency of the terms of an index kept in a hash map from each term to the
+ * position of its entry, as the mapped index kept them, with the same terms kept in front-coded dictionaries with
+ * several block sizes and the positions in an array by term id. The lookups are made for the indexed terms in a
+ * random order and for the same number of terms that are not indexed.
+ */
+public class TermDictionaryComparison {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("TermDictionaryComparison").build()
+                .defaultHelp(true).description("Compares the hash map and the front-coded term dictionaries");
+
+        parser.addArgument("<indexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Index file in the binary format");
+
+        parser.addArgument("--blockSizes").metavar("n").type(Integer.class).nargs("+")
+                .setDefault(Arrays.asList(4, 8, 16, 32, 64))
+                .help("numbers of terms of each block of the front-coded dictionaries");
+
+        parser.addArgument("--lookups").metavar("n").type(Integer.class).setDefault(1000000)
+                .help("minimum number of lookups of each measurement, the terms are looked up several times");
+
+        parser.addArgument("--repetitions").metavar("n").type(Integer.class).setDefault(5)
+                .help("number of times the measurements are repeated, the median is reported");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        Indexer indexer = new MappedIndexReader().readIndex(ns.getString("<indexFile>"));
+        List<String> terms = new ArrayList<>(indexer.getTerms());
+        int repetitions = ns.getInt("repetitions");
+        int lookups = ns.getInt("lookups");
+
+        // the lookups are made with copies of the terms, as the terms of a query are new strings
+        Random random = new Random(42);
+        List<String> hits = new ArrayList<>();
+        for (String term : terms)
+            hits.add(new String(term.toCharArray()));
+        Collections.shuffle(hits, random);
+        List<String> misses = new ArrayList<>();
+        for (String term : hits)
+            misses.add(term + (char) ('a' + random.nextInt(26)) + "#");
+
+        long baseline = PostingsFootprintComparison.usedHeap();
+        Map<String, Integer> hashMap = new HashMap<>();
+        for (int i = 0; i < terms.size(); i++)
+            hashMap.put(new String(terms.get(i).toCharArray()), i);
+        long hashMapHeap = PostingsFootprintComparison.usedHeap() - baseline;
+
+        System.out.println("Terms: " + terms.size() + ", lookups per measurement: " + lookups);
+        System.out.printf("%-20s | %-12s | %-14s | %-18s | %s\n", "Dictionary", "Heap (bytes)", "Bytes per term",
+                "Lookup hit (ns)", "Lookup miss (ns)");
+        Lookup hashMapLookup = term -> {
+            Integer offset = hashMap.get(term);
+            return offset == null ? -1 : offset;
+        };
+        print("hash map", hashMapHeap, terms.size(), lookupTime(hashMapLookup, hits, lookups, repetitions),
+                lookupTime(hashMapLookup, misses, lookups, repetitions));
+
+        List<Integer> blockSizes = ns.getList("blockSizes");
+        for (int blockSize : blockSizes) {
+            baseline = PostingsFootprintComparison.usedHeap();
+            TermDictionary dictionary = TermDictionary.ofSorted(terms, blockSize);
+            int[] offsets = new int[terms.size()];
+            long dictionaryHeap = PostingsFootprintComparison.usedHeap() - baseline;
+
+            print("front-coded, " + blockSize, dictionaryHeap, dictionary.size(),
+                    lookupTime(term -> offsets[dictionary.getTermID(term)], hits, lookups, repetitions),
+                    lookupTime(dictionary::getTermID, misses, lookups, repetitions));
+        }
+
+        // keep the hash map reachable until every dictionary is measured
+        if (hashMap.size() != terms.size())
+            System.out.println("Term count mismatch");
+    }
+
+    /**
+     * Returns the median time of a lookup over several repetitions of the lookups of a list of terms
+     *
+     * @param lookup lookup of a term
+     * @param terms terms looked up
+     * @param lookups minimum number of lookups of each repetition
+     * @param repetitions number of repetitions
+     * @return median time per lookup in nanoseconds
+     */
+    private static double lookupTime(Lookup lookup, List<String> terms, int lookups, int repetitions) {
+        int rounds = Math.max(1, (lookups + terms.size() - 1) / terms.size());
+        long checksum = 0;
+
+        // the first repetition warms up the lookup and is not measured
+        double[] times = new double[repetitions];
+        for (int r = -1; r < repetitions; r++) {
+            long start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                for (String term : terms)
+                    checksum += lookup.find(term);
+            }
+            if (r >= 0)
+                times[r] = (double) (System.nanoTime() - start) / ((long) rounds * terms.size());
+        }
+        Arrays.sort(times);
+
+        // the checksum keeps the lookups from being optimized away
+        if (checksum == Long.MIN_VALUE)
+            System.out.println(checksum);
+        return times[repetitions / 2];
+    }
+
+    private static void print(String name, long heap, int terms, double hitTime, double missTime) {
+        System.out.printf("%-20s | %-12d | %-14.1f | %-18.1f | %.1f\n", name, heap, (double) heap / terms, hitTime,
+                missTime);
+    }
+
+    /**
+     * Lookup of a term in a dictionary
+     */
+    private interface Lookup {
+        int find(String term);
+    }
+}
@@ -0,0 +1,126 @@
+package Benchmarks;
+
+import IndexerEngine.corpusReaders.CorpusReader;
+import IndexerEngine.corpusReaders.CranfieldReader;
+import IndexerEngine.documents.Document;
+import IndexerEngine.tokenizers.ComplexTokenizer;
+import IndexerEngine.tokenizers.FastComplexTokenizer;
+import IndexerEngine.tokenizers.Tokenizer;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <h2>Tokenizer Comparison</h2>
+ * Checks that the fast complex tokenizer generates the same tokens as the complex tokenizer, token for token, for
+ * the documents of a corpus, the queries and random texts, and compares the time both take to tokenize the corpus.
+ */
+public class TokenizerComparison {
+    // characters of the random texts: letters, digits, separators, punctuation and non ASCII letters
+    private static final String RANDOM_CHARACTERS = "aAbBeEiIsStTzZ0159 \t\n.,-/()'_\u00e9\u00fc\u00df\u03a9";
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("TokenizerComparison").build()
+                .defaultHelp(true).description("Compares the complex and the fast complex tokenizers");
+
+        parser.addArgument("<directoryForFiles>").type(Arguments.fileType().verifyIsDirectory())
+                .help("Corpus directory");
+
+        parser.addArgument("<stopwordsFile>").type(Arguments.fileType().verifyIsFile())
+                .help("stopwords file to use in the tokenizers");
+
+        parser.addArgument("--queries").type(Arguments.fileType().verifyIsFile())
+                .help("file with one query per line to compare as well");
+
+        parser.addArgument("--randomTexts").metavar("n").type(Integer.class).setDefault(100000)
+                .help("number of random texts to compare");
+
+        parser.addArgument("--repetitions").metavar("n").type(Integer.class).setDefault(5)
+                .help("number of times the corpus is tokenized by each tokenizer");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        Tokenizer complex = new ComplexTokenizer(ns.getString("<stopwordsFile>"));
+        Tokenizer fast = new FastComplexTokenizer(ns.getString("<stopwordsFile>"));
+
+        List<String> texts = new ArrayList<>();
+        File[] files = new File(ns.getString("<directoryForFiles>")).listFiles(File::isFile);
+        Arrays.sort(files);
+        CorpusReader reader = new CranfieldReader();
+        for (File file : files) {
+            Document document = reader.read(file.toString());
+            if (document != null)
+                texts.add(document.getText());
+        }
+        int nDocuments = texts.size();
+
+        if (ns.getString("queries") != null) {
+            try {
+                texts.addAll(Files.readAllLines(Paths.get(ns.getString("queries"))));
+            } catch (IOException e) {
+                System.err.println("Error reading queries file");
+                System.exit(1);
+            }
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < ns.getInt("randomTexts"); i++) {
+            char[] text = new char[random.nextInt(40)];
+            for (int j = 0; j < text.length; j++)
+                text[j] = RANDOM_CHARACTERS.charAt(random.nextInt(RANDOM_CHARACTERS.length()));
+            texts.add(new String(text));
+        }
+
+        int mismatches = 0;
+        long tokens = 0;
+        for (String text : texts) {
+            List<String> expected = complex.tokenize(text);
+            List<String> actual = fast.tokenize(text);
+            tokens += expected.size();
+            if (!expected.equals(actual)) {
+                if (mismatches == 0)
+                    System.out.println("First mismatch for \"" + text + "\": " + expected + " != " + actual);
+                mismatches++;
+            }
+        }
+
+        List<String> corpus = texts.subList(0, nDocuments);
+        double complexTime = bestTime(complex, corpus, ns.getInt("repetitions"));
+        double fastTime = bestTime(fast, corpus, ns.getInt("repetitions"));
+
+        System.out.println("Texts compared: " + texts.size() + ", tokens: " + tokens + ", mismatches: " + mismatches);
+        System.out.printf("%-14s | %s\n", "Tokenizer", "Corpus time (ms)");
+        System.out.printf("%-14s | %.1f\n", "complex", complexTime);
+        System.out.printf("%-14s | %.1f\n", "fastComplex", fastTime);
+        System.out.printf("Speedup: %.2fx\n", complexTime / fastTime);
+    }
+
+    /**
+     * Tokenizes the texts several times and returns the lowest time
+     *
+     * @param tokenizer tokenizer to measure
+     * @param texts texts to tokenize
+     * @param repetitions number of times the texts are tokenized
+     * @return lowest time in ms
+     */
+    private static double bestTime(Tokenizer tokenizer, List<String> texts, int repetitions) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < repetitions; i++) {
+            long start = System.nanoTime();
+            for (String text : texts)
+                tokenizer.tokenize(text);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+}
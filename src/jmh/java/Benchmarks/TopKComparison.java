@@ -0,0 +1,118 @@
+package Benchmarks;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.tokenizers.ComplexTokenizer;
+import IndexerEngine.tokenizers.Tokenizer;
+import SearchEngine.IndexReader.IndexWtNormReader;
+import SearchEngine.QueryProcessing.Query;
+import SearchEngine.ScoringAlgorithms.CosineScore;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h2>Top K Comparison</h2>
+ * Compares the latency of the exhaustive cosine scoring, which scores every document with a query term, with the
+ * top k scoring that skips the documents that can not enter the top k, and checks that both rank the same k
+ * documents for every query.
+ */
+public class TopKComparison {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("TopKComparison").build()
+                .defaultHelp(true).description("Compares the exhaustive and the top k cosine scoring");
+
+        parser.addArgument("<indexFile>").type(Arguments.fileType().verifyIsFile())
+                .help("Weighted index file in the text format");
+
+        parser.addArgument("<queriesFile>").type(Arguments.fileType().verifyIsFile())
+                .help("File with one query per line");
+
+        parser.addArgument("<stopWordsFile>").type(Arguments.fileType().verifyIsFile())
+                .help("stopwords file to use in the complex tokenizer");
+
+        parser.addArgument("--topK").metavar("k").type(Integer.class).setDefault(10)
+                .help("number of documents to retrieve");
+
+        parser.addArgument("--repetitions").metavar("n").type(Integer.class).setDefault(5)
+                .help("number of times each query is scored");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        int k = ns.getInt("topK");
+        int repetitions = ns.getInt("repetitions");
+        Indexer indexer = new IndexWtNormReader().readIndex(ns.getString("<indexFile>"));
+        Tokenizer tokenizer = new ComplexTokenizer(ns.getString("<stopWordsFile>"));
+        CosineScore score = new CosineScore(indexer);
+
+        List<List<String>> queries = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(Paths.get(ns.getString("<queriesFile>"))))
+                queries.add(tokenizer.tokenize(line));
+        } catch (IOException e) {
+            System.err.println("Error reading queries file");
+            System.exit(1);
+        }
+
+        double[] exhaustiveTimes = new double[queries.size()];
+        double[] topKTimes = new double[queries.size()];
+        int mismatches = 0;
+
+        for (int q = 0; q < queries.size(); q++) {
+            List<String> terms = queries.get(q);
+            Query exhaustive = null;
+            Query topK = null;
+            exhaustiveTimes[q] = Double.MAX_VALUE;
+            topKTimes[q] = Double.MAX_VALUE;
+
+            for (int r = 0; r < repetitions; r++) {
+                long start = System.nanoTime();
+                exhaustive = new Query(q + 1);
+                score.computeScores(exhaustive, terms);
+                exhaustiveTimes[q] = Math.min(exhaustiveTimes[q], (System.nanoTime() - start) / 1e6);
+
+                start = System.nanoTime();
+                topK = new Query(q + 1);
+                score.computeTopKScores(topK, terms, k);
+                topKTimes[q] = Math.min(topKTimes[q], (System.nanoTime() - start) / 1e6);
+            }
+
+            if (!ranking(exhaustive, k).equals(ranking(topK, k)))
+                mismatches++;
+        }
+
+        System.out.println("Queries: " + queries.size() + ", k: " + k);
+        System.out.printf("%-12s | %-22s | %s\n", "Scoring", "Median latency (ms)", "Total latency (ms)");
+        System.out.printf("%-12s | %-22.3f | %.1f\n", "exhaustive", median(exhaustiveTimes),
+                Arrays.stream(exhaustiveTimes).sum());
+        System.out.printf("%-12s | %-22.3f | %.1f\n", "top " + k, median(topKTimes), Arrays.stream(topKTimes).sum());
+        System.out.println("Queries with a different top " + k + ": " + mismatches);
+    }
+
+    /**
+     * Returns the k documents with higher score, ranked by decreasing score and then by increasing document id
+     *
+     * @param query scored query
+     * @param k number of documents
+     * @return ranked documents with the respective score
+     */
+    private static List<String> ranking(Query query, int k) {
+        List<String> ranking = new ArrayList<>();
+        for (int rank = 0; rank < Math.min(k, query.size()); rank++)
+            ranking.add(String.format("%d:%.6f", query.getDocID(rank), query.getScore(rank)));
+        return ranking;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted.length == 0 ? 0.0 : sorted[sorted.length / 2];
+    }
+}
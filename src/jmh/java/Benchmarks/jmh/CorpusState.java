@@ -0,0 +1,152 @@
+package Benchmarks.jmh;
+
+import IndexerEngine.corpusReaders.CorpusReader;
+import IndexerEngine.corpusReaders.CranfieldReader;
+import IndexerEngine.documents.CranfieldDocument;
+import IndexerEngine.documents.Document;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.IndexerTermFreq;
+import IndexerEngine.indexer.IndexerWtNorm;
+import IndexerEngine.tokenizers.ComplexTokenizer;
+import IndexerEngine.tokenizers.Tokenizer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Corpus shared by the benchmarks: the documents, their tokens and the tokenized queries.
+ *
+ * <p>With {@code -p corpus=synthetic} (the default) {@code documents} documents are generated with a fixed seed,
+ * drawing words from a Zipf distribution over a vocabulary that includes the words of the queries, so the corpus
+ * can be scaled up, for example {@code -p documents=1400,14000,140000}. Any other value is the directory of the
+ * Cranfield collection, for example {@code -p corpus=/data/cranfield}.</p>
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+    private static final long SEED = 42;
+
+    @Param({"synthetic"})
+    public String corpus;
+
+    @Param({"1400"})
+    public int documents;
+
+    @Param({"stop.txt"})
+    public String stopWords;
+
+    @Param({"cranfield.queries.txt"})
+    public String queries;
+
+    protected List<Document> corpusDocuments;
+    protected List<List<String>> documentTokens;
+    protected List<List<String>> queryTerms;
+    protected Tokenizer tokenizer;
+
+    @Setup(Level.Trial)
+    public void loadCorpus() throws IOException {
+        tokenizer = new ComplexTokenizer(stopWords);
+        List<String> queryLines = Files.readAllLines(Paths.get(queries));
+
+        corpusDocuments = corpus.equals("synthetic") ? generate(documents, queryLines) : read(corpus);
+
+        documentTokens = new ArrayList<>(corpusDocuments.size());
+        for (Document document : corpusDocuments)
+            documentTokens.add(tokenizer.tokenize(document.getText()));
+
+        queryTerms = new ArrayList<>(queryLines.size());
+        for (String line : queryLines)
+            queryTerms.add(tokenizer.tokenize(line));
+    }
+
+    /**
+     * Indexes the tokens of the corpus
+     *
+     * @param weighted if the index is weighted or has term frequencies
+     * @return index of the corpus
+     */
+    protected Indexer buildIndex(boolean weighted) {
+        Indexer indexer = weighted ? new IndexerWtNorm() : new IndexerTermFreq();
+        for (int i = 0; i < corpusDocuments.size(); i++)
+            indexer.index(documentTokens.get(i), corpusDocuments.get(i).getId());
+        return indexer;
+    }
+
+    private static List<Document> read(String directory) {
+        File[] files = new File(directory).listFiles(File::isFile);
+        if (files == null)
+            throw new IllegalArgumentException("The corpus directory " + directory + " does not exist");
+        Arrays.sort(files);
+
+        CorpusReader reader = new CranfieldReader();
+        List<Document> documents = new ArrayList<>();
+        for (File file : files) {
+            Document document = reader.read(file.toString());
+            if (document != null)
+                documents.add(document);
+        }
+        return documents;
+    }
+
+    /**
+     * Generates documents with 30 to 250 words drawn from a Zipf distribution. The vocabulary grows with the
+     * number of documents, as in real collections, and contains the words of the queries.
+     */
+    private static List<Document> generate(int nDocuments, List<String> queryLines) {
+        Random random = new Random(SEED);
+
+        Set<String> words = new LinkedHashSet<>();
+        for (String line : queryLines)
+            words.addAll(Arrays.asList(line.toLowerCase().split("[^\\p{Alnum}]+")));
+        words.remove("");
+
+        int vocabularySize = Math.max(words.size() * 2, (int) (40 * Math.pow(nDocuments * 140, 0.5)));
+        while (words.size() < vocabularySize)
+            words.add(randomWord(random));
+
+        List<String> vocabulary = new ArrayList<>(words);
+        Collections.shuffle(vocabulary, random);
+
+        double[] cumulative = new double[vocabulary.size()];
+        double sum = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+
+        List<Document> documents = new ArrayList<>(nDocuments);
+        StringBuilder text = new StringBuilder();
+        for (int id = 1; id <= nDocuments; id++) {
+            text.setLength(0);
+            int length = 30 + random.nextInt(221);
+            for (int i = 0; i < length; i++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                text.append(vocabulary.get(rank < 0 ? -rank - 1 : rank));
+                text.append(random.nextInt(20) == 0 ? ", " : " ");
+            }
+            text.append(random.nextInt(100)).append(".").append(random.nextInt(10)).append("mm");
+            documents.add(new CranfieldDocument(id, text.toString()));
+        }
+        return documents;
+    }
+
+    private static String randomWord(Random random) {
+        char[] word = new char[3 + random.nextInt(8)];
+        for (int i = 0; i < word.length; i++)
+            word[i] = (char) ('a' + random.nextInt(26));
+        return new String(word);
+    }
+}
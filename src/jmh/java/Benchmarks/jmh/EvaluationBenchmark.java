@@ -0,0 +1,64 @@
+package Benchmarks.jmh;
+
+import SearchEngine.Evaluation.Evaluation;
+import SearchEngine.QueryProcessing.Query;
+import SearchEngine.ScoringAlgorithms.CosineScore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to evaluate the cosine score results of all the queries, computing the query and the system metrics
+ * as the searcher does for each threshold and relevance level, without printing them
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluationBenchmark extends CorpusState {
+    @Param({"cranfield.query.relevance.txt"})
+    public String relevance;
+
+    private Evaluation evaluation;
+    private List<int[]> documentsRetrieved;
+
+    @Setup(Level.Trial)
+    public void scoreQueries() {
+        evaluation = new Evaluation(relevance);
+        CosineScore score = new CosineScore(buildIndex(true));
+
+        documentsRetrieved = new ArrayList<>(queryTerms.size());
+        for (int i = 0; i < queryTerms.size(); i++) {
+            Query query = new Query(i + 1);
+            score.computeScores(query, queryTerms.get(i));
+
+            int[] documents = new int[query.size()];
+            for (int rank = 0; rank < query.size(); rank++)
+                documents[rank] = query.getDocID(rank);
+            documentsRetrieved.add(documents);
+        }
+    }
+
+    @Benchmark
+    public List<Double> evaluate() {
+        evaluation.setN_ratings(4);
+        for (int i = 0; i < documentsRetrieved.size(); i++)
+            evaluation.calculateQueryMeasures(i + 1, documentsRetrieved.get(i));
+        evaluation.calculateSystemMeasures();
+        List<Double> points = evaluation.averageRecallPrecision();
+        evaluation.reset();
+        return points;
+    }
+}
@@ -0,0 +1,46 @@
+package Benchmarks.jmh;
+
+import IndexerEngine.indexer.Indexer;
+import SearchEngine.IndexReader.IndexWtNormReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to read and parse a weighted index file of the corpus in the text format
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexLoadBenchmark extends CorpusState {
+    private File indexFile;
+
+    @Setup(Level.Trial)
+    public void saveIndex() throws IOException {
+        indexFile = File.createTempFile("index", ".txt");
+        buildIndex(true).saveToFile(indexFile.toString(), tokenizer.getClass().getSimpleName());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteIndex() {
+        indexFile.delete();
+    }
+
+    @Benchmark
+    public Indexer readIndex() {
+        return new IndexWtNormReader().readIndex(indexFile.toString());
+    }
+}
@@ -0,0 +1,31 @@
+package Benchmarks.jmh;
+
+import IndexerEngine.indexer.Indexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to index the already tokenized documents of the corpus with the term frequency or the weighted indexer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexingBenchmark extends CorpusState {
+    @Param({"freq", "weighted"})
+    public String indexer;
+
+    @Benchmark
+    public Indexer index() {
+        return buildIndex(indexer.equals("weighted"));
+    }
+}
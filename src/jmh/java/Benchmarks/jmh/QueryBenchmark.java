@@ -0,0 +1,54 @@
+package Benchmarks.jmh;
+
+import SearchEngine.QueryProcessing.Query;
+import SearchEngine.ScoringAlgorithms.CosineScore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to score one query with the cosine score, exhaustively and keeping only the 10 documents with higher
+ * score, going through the queries
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark extends CorpusState {
+    private CosineScore score;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void createIndex() {
+        score = new CosineScore(buildIndex(true));
+    }
+
+    @Benchmark
+    public Query cosineScore() {
+        Query query = nextQuery();
+        score.computeScores(query, queryTerms.get(query.getQuery_id() - 1));
+        return query;
+    }
+
+    @Benchmark
+    public Query cosineScoreTop10() {
+        Query query = nextQuery();
+        score.computeTopKScores(query, queryTerms.get(query.getQuery_id() - 1), 10);
+        return query;
+    }
+
+    private Query nextQuery() {
+        if (nextQuery == queryTerms.size())
+            nextQuery = 0;
+        return new Query(++nextQuery);
+    }
+}
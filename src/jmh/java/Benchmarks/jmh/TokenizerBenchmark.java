@@ -0,0 +1,31 @@
+package Benchmarks.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to tokenize one document with the complex tokenizer, going through the documents of the corpus
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark extends CorpusState {
+    private int nextDocument;
+
+    @Benchmark
+    public List<String> tokenize() {
+        if (nextDocument == corpusDocuments.size())
+            nextDocument = 0;
+        return tokenizer.tokenize(corpusDocuments.get(nextDocument++).getText());
+    }
+}
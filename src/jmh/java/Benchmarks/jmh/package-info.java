@@ -0,0 +1,6 @@
+package Benchmarks.jmh;
+
+/**
+ * Package that contains the JMH benchmarks of the tokenizer, indexers, index reader, cosine score and evaluation,
+ * built with the jmh profile: mvn -P jmh package, then java -jar target/benchmarks.jar
+ */
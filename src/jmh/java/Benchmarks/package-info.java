@@ -0,0 +1,7 @@
+package Benchmarks;
+
+/**
+ * Package that contains programs that measure and compare the performance of the indexer and searcher structures,
+ * built with the jmh profile like the JMH benchmarks: mvn -P jmh package, then
+ * java -cp target/benchmarks.jar Benchmarks.&lt;program&gt;
+ */
@@ -1,26 +1,60 @@
 import IndexerEngine.corpusReaders.CorpusReader;
 import IndexerEngine.corpusReaders.CranfieldReader;
+import IndexerEngine.corpusReaders.DocIdRecordingReader;
+import IndexerEngine.corpusReaders.TrecDocumentIds;
+import IndexerEngine.corpusReaders.TrecReader;
+import IndexerEngine.indexer.DocNoTable;
 import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.IndexerPositional;
 import IndexerEngine.indexer.IndexerTermFreq;
 import IndexerEngine.indexer.IndexerWtNorm;
+import IndexerEngine.indexer.SegmentManifest;
 import IndexerEngine.tokenizers.ComplexTokenizer;
+import IndexerEngine.tokenizers.FastComplexTokenizer;
+import IndexerEngine.tokenizers.StemCache;
 import IndexerEngine.tokenizers.Tokenizer;
 import Pipelines.DocumentIndexerPipeline;
+import Pipelines.ParallelDocumentIndexerPipeline;
+import Pipelines.SpimiDocumentIndexerPipeline;
+import Pipelines.StagedDocumentIndexerPipeline;
+import SearchEngine.IndexReader.SegmentedIndexReader;
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.MutuallyExclusiveGroup;
 import net.sourceforge.argparse4j.inf.Namespace;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * <h2>Document IndexerEngine.indexer</h2>
  * Receives as arguments:
  * <p>the choice of the type of the indexer</p>
- * <p>The directory containing the IndexerEngine.documents</p>
+ * <p>The directory containing the IndexerEngine.documents, or a single corpus file</p>
  * <p>The filename that contains the stopwords</p>
  * <p>The output file name to store de index results</p>
+ * Optionally, the number of threads used to index the documents, the number of threads of each stage of a
+ * pipeline where reading, tokenizing and indexing are connected by bounded queues, or the memory budget of the
+ * in-memory index, after which blocks are flushed to disk and merged at the end, the format of the index file,
+ * the tokenizer implementation, the capacity of the stem cache shared by the tokenizers and the format of the
+ * corpus files, one cranfield document per file or TREC-style files with many documents, optionally compressed
+ * with gzip. The documents of TREC-style files are numbered by file and position and a table with their DOCNO is
+ * saved alongside the index.
+ * In the incremental mode the output file is the manifest of a segmented index and only the corpus files not yet
+ * indexed or modified since they were indexed are indexed, into a new segment whose documents replace their
+ * previous copies. The documents previously read from a modified file, and from a file removed from the corpus,
+ * are deleted
  *
  * @author Ana Filipa Tavares 76629
  * @author Andreia Machado 76501
@@ -33,45 +67,238 @@ public class DocumentIndexer {
                 .defaultHelp(true).description("A simple indexer");
 
         parser.addArgument("<indexer>").metavar("<indexer>").choices("freq",
-                "weighted").setDefault("weighted").help("The indexer type to construct given the " +
+                "weighted", "positional").setDefault("weighted").help("The indexer type to construct given the " +
                 "following choices:\nfreq - term frequency indexer.\nweighted - " +
-                "weighted tf-idf indexer (lnc)");
+                "weighted tf-idf indexer (lnc)\npositional - term frequency indexer with the positions of the " +
+                "terms, for phrase and proximity queries");
 
-        parser.addArgument("<directoryForFiles>").type(Arguments.fileType().verifyIsDirectory())
-                .help("Corpus directory");
+        parser.addArgument("<directoryForFiles>").type(Arguments.fileType().verifyExists())
+                .help("Corpus directory or corpus file");
 
         parser.addArgument("<stopwordsFile>").type(Arguments.fileType().verifyIsFile())
                 .help("stopwords file to use in the complex tokenizer");
 
         parser.addArgument("<outputFile>").help("Output file to save results");
 
-        Namespace ns = parser.parseArgsOrFail(args);
+        parser.addArgument("--format").choices("text", "binary", "impact").setDefault("text")
+                .help("format of the index file: text, compact binary with delta and variable byte encoded " +
+                        "postings or impact, a weighted index with the weights quantized to 8 bits and the " +
+                        "postings ordered by impact, scored score-at-a-time by the searcher");
+
+        parser.addArgument("--corpusFormat").choices("cranfield", "trec").setDefault("cranfield")
+                .help("format of the corpus files: cranfield, one document per file, or trec, files with many " +
+                        "<DOC> elements read as a stream, compressed with gzip if the name ends in .gz");
+
+        parser.addArgument("--tokenizer").choices("complex", "fastComplex").setDefault("complex")
+                .help("tokenizer used: complex or fastComplex, a single pass implementation that generates the " +
+                        "same tokens. The tokenizer name is saved in the index file so the searcher uses the same");
+
+        parser.addArgument("--incremental")
+                .action(Arguments.storeTrue())
+                .help("the output file is the manifest of a segmented index, created if it does not exist, and " +
+                        "only the corpus files not yet indexed or modified are indexed into a new segment, " +
+                        "replacing the previous copies of their documents");
+
+        parser.addArgument("--stemCache")
+                .metavar("n").type(Integer.class)
+                .help("maximum number of stems kept in the cache shared by the tokenizers, 0 disables the cache, " +
+                        "by default " + StemCache.DEFAULT_CAPACITY + ". When given, the statistics of the cache " +
+                        "are printed");
+
+        MutuallyExclusiveGroup indexingMode = parser.addMutuallyExclusiveGroup();
+
+        indexingMode.addArgument("--threads")
+                .metavar("n").type(Integer.class)
+                .setDefault(1)
+                .help("number of threads used to read, tokenize and index the documents");
+
+        indexingMode.addArgument("--memoryBudget")
+                .metavar("mb").type(Integer.class)
+                .help("memory budget in MB of the in-memory index, when reached the index is flushed to a " +
+                        "temporary segment and all segments are merged at the end");
+
+        indexingMode.addArgument("--stages")
+                .metavar("readers", "tokenizers", "indexers").type(Integer.class).nargs(3)
+                .help("index with a pipeline of three stages connected by bounded queues, with the number of " +
+                        "threads reading the corpus files, tokenizing the documents and indexing the tokens");
+
+        parser.addArgument("--queueCapacity")
+                .metavar("n").type(Integer.class)
+                .setDefault(1024)
+                .help("capacity of the queues between the stages of the pipeline used with --stages");
 
-        CorpusReader corpusReader = new CranfieldReader();
+        Namespace ns = parser.parseArgsOrFail(args);
 
         String indexerType = ns.getString("<indexer>");
         File directory = new File(ns.getString("<directoryForFiles>"));
         String stopwordsFilename = ns.getString("<stopwordsFile>");
-        Indexer indexer = null;
+        int nThreads = ns.getInt("threads");
+        Integer memoryBudget = ns.getInt("memoryBudget");
+        List<Integer> stages = ns.getList("stages");
+        String outputFile = ns.getString("<outputFile>");
+        String format = ns.getString("format");
+        Supplier<Indexer> indexerFactory = null;
+
+        if (format.equals("impact") && (!indexerType.equals("weighted") || ns.getBoolean("incremental")
+                || memoryBudget != null)) {
+            System.err.println("The impact format can only be used with the weighted indexer, without " +
+                    "--incremental and --memoryBudget");
+            System.exit(1);
+        }
+
+        // in the incremental mode the index is saved as a new segment of the manifest given as output file
+        boolean incremental = ns.getBoolean("incremental");
+        SegmentManifest manifest = null;
+        FileChannel manifestLock = null;
+        File[] newFiles = null;
+        List<String> removedFiles = null;
+        String segmentName = null;
+
+        if (incremental) {
+            manifestLock = SegmentManifest.lock(outputFile);
+            manifest = Files.exists(Paths.get(outputFile)) ? SegmentManifest.read(outputFile)
+                    : new SegmentManifest(indexerType, format);
+
+            if (!manifest.getIndexerType().equals(indexerType) || !manifest.getFormat().equals(format)) {
+                System.err.println("The segments of " + outputFile + " are " + manifest.getIndexerType() +
+                        " indexes in the " + manifest.getFormat() + " format");
+                System.exit(1);
+            }
+
+            // new files and files modified since they were indexed, whose documents replace the previous copies
+            File[] files = directory.isFile() ? new File[]{directory} : directory.listFiles(File::isFile);
+            SegmentManifest indexed = manifest;
+            newFiles = Arrays.stream(files).filter(file -> !Long.valueOf(file.lastModified())
+                    .equals(indexed.getFiles().get(file.getAbsolutePath()))).toArray(File[]::new);
+            // files indexed before that are no longer in the corpus, whose documents are deleted
+            removedFiles = manifest.getFiles().keySet().stream().filter(path -> !new File(path).exists())
+                    .collect(Collectors.toList());
+
+            if (newFiles.length == 0) {
+                int deleted = 0;
+                for (String path : removedFiles)
+                    deleted += manifest.removeFile(path);
+                if (!removedFiles.isEmpty())
+                    manifest.save(outputFile);
+                manifestLock.close();
+                System.out.println("No new or modified files to index, removed files: " + removedFiles.size() +
+                        ", deleted documents: " + deleted + ", segments: " + manifest.getSegments().size());
+                return;
+            }
+
+            segmentName = manifest.newSegmentName(outputFile);
+            outputFile = SegmentManifest.segmentPath(outputFile, segmentName);
+        }
 
 
+        // the documents of TREC-style files are numbered by file and position, with their DOCNO saved in a table
+        TrecDocumentIds trecDocIds = null;
+        if (ns.getString("corpusFormat").equals("trec")) {
+            File[] files = newFiles != null ? newFiles
+                    : directory.isFile() ? new File[]{directory} : directory.listFiles(File::isFile);
+            trecDocIds = new TrecDocumentIds(files, incremental ? manifest.getNextDocID() : 1);
+        }
+
+        TrecDocumentIds docIds = trecDocIds;
+        Supplier<CorpusReader> readerFactory = docIds != null ? () -> new TrecReader(docIds) : CranfieldReader::new;
+
+        // in the incremental mode the documents read from each file are recorded in the manifest
+        Map<String, BitSet> docIDsByFile = new ConcurrentHashMap<>();
+        Supplier<CorpusReader> corpusReaderFactory = incremental
+                ? () -> new DocIdRecordingReader(readerFactory.get(), docIDsByFile) : readerFactory;
+        CorpusReader corpusReader = corpusReaderFactory.get();
+
         switch (indexerType){
             case "freq":
-                indexer = new IndexerTermFreq();
+                indexerFactory = IndexerTermFreq::new;
                 break;
 
             case "weighted":
-                indexer = new IndexerWtNorm();
+                indexerFactory = IndexerWtNorm::new;
+                break;
+
+            case "positional":
+                indexerFactory = IndexerPositional::new;
                 break;
         }
 
-        Tokenizer tokenizer = new ComplexTokenizer(stopwordsFilename);
+        boolean fastTokenizer = ns.getString("tokenizer").equals("fastComplex");
+        // the statistics of the stem cache are only printed when its capacity is given
+        Integer stemCacheCapacity = ns.getInt("stemCache");
+        int capacity = stemCacheCapacity != null ? stemCacheCapacity : StemCache.DEFAULT_CAPACITY;
+        StemCache stemCache = capacity > 0 ? new StemCache(capacity) : null;
+        Supplier<Tokenizer> tokenizerFactory = () -> {
+            Tokenizer tokenizer = fastTokenizer ? new FastComplexTokenizer(stopwordsFilename)
+                    : new ComplexTokenizer(stopwordsFilename);
+            tokenizer.setStemCache(stemCache);
+            return tokenizer;
+        };
 
-        DocumentIndexerPipeline indexerPipeline = new DocumentIndexerPipeline(directory, corpusReader, tokenizer,
-                indexer, ns.getString("<outputFile>"));
+        DocumentIndexerPipeline indexerPipeline;
+        if (memoryBudget != null) {
+            indexerPipeline = new SpimiDocumentIndexerPipeline(directory, corpusReader, tokenizerFactory.get(),
+                    indexerFactory.get(), outputFile, memoryBudget * 1024L * 1024L);
+        }
 
+        else if (stages != null) {
+            if (stages.get(0) <= 0 || stages.get(1) <= 0 || stages.get(2) <= 0 || ns.getInt("queueCapacity") <= 0) {
+                System.err.println("--stages and --queueCapacity must be greater than 0");
+                System.exit(1);
+            }
+            indexerPipeline = new StagedDocumentIndexerPipeline(directory, corpusReaderFactory, tokenizerFactory,
+                    indexerFactory, outputFile, stages.get(0), stages.get(1), stages.get(2),
+                    ns.getInt("queueCapacity"));
+        }
+
+        else if (nThreads > 1) {
+            indexerPipeline = new ParallelDocumentIndexerPipeline(directory, corpusReaderFactory, tokenizerFactory,
+                    indexerFactory, outputFile, nThreads);
+        }
+
+        else {
+            indexerPipeline = new DocumentIndexerPipeline(directory, corpusReader, tokenizerFactory.get(),
+                    indexerFactory.get(), outputFile);
+        }
+
+        indexerPipeline.setBinaryFormat(format.equals("binary"));
+        indexerPipeline.setImpactOrdered(format.equals("impact"));
+        indexerPipeline.setSelectedFiles(newFiles);
         indexerPipeline.execute();
 
+        if (trecDocIds != null) {
+            try {
+                trecDocIds.getDocNos().save(DocNoTable.filename(outputFile));
+            } catch (IOException e) {
+                System.err.println("Unable to save the table of document numbers " + e);
+                System.exit(1);
+            }
+        }
+
+        if (incremental) {
+            Indexer segment = SegmentedIndexReader.segmentReader(manifest, false).readIndex(outputFile);
+            // the previous documents of the files indexed again or removed are deleted before adding the segment,
+            // which restores the ones read again
+            for (File file : newFiles)
+                manifest.removeFile(file.getAbsolutePath());
+            for (String path : removedFiles)
+                manifest.removeFile(path);
+            manifest.addSegment(segmentName, segment.getDocIDs());
+            for (File file : newFiles)
+                manifest.addFile(file.getAbsolutePath(), file.lastModified(),
+                        docIDsByFile.getOrDefault(file.getAbsolutePath(), new BitSet()));
+            if (trecDocIds != null)
+                manifest.setNextDocID(trecDocIds.getNextDocID());
+
+            String manifestFile = ns.getString("<outputFile>");
+            manifest.save(manifestFile);
+            manifestLock.close();
+            System.out.println("Segment " + segmentName + " added to " + manifestFile + ", segments: " +
+                    manifest.getSegments().size());
+        }
+
+        if (stemCache != null && stemCacheCapacity != null)
+            System.out.println(stemCache);
+
         long elapsedTime = System.currentTimeMillis() - start;
         System.out.println("Execution time in ms: " + elapsedTime);
     }
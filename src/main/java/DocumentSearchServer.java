@@ -0,0 +1,132 @@
+import IndexerEngine.tokenizers.StemCache;
+import SearchEngine.QueryProcessing.QueryResultCache;
+import SearchEngine.QueryProcessing.Retrieval;
+import SearchEngine.Server.SearchServer;
+
+import java.io.IOException;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+/**
+ * <h2>Document Search Server</h2>
+ * Loads the index file once and answers queries over HTTP until it is terminated. The documents added to or
+ * deleted from a segmented index while the server runs are only searched after it is restarted.
+ * The required arguments are:
+ * <p>The index filename</p>
+ * <p>The stopwords filename</p>
+ * <p>The choice of the scoring algorithm</p>
+ *
+ * The program are also optional arguments, that are:
+ * <p>the port to listen on, on the loopback address</p>
+ * <p>the number of threads answering requests</p>
+ * <p>the number of documents with higher score returned for each query</p>
+ * <p>the capacity of the stem cache of the tokenizer</p>
+ * <p>boolean value that indicates if the index file is in the binary index format and if it should be
+ * memory-mapped</p>
+ * <p>boolean value that indicates if the index file is the manifest of an index made of several segments</p>
+ *
+ * @author Ana Filipa Tavares 76629
+ * @author Andreia Machado 76501
+ */
+public class DocumentSearchServer {
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("DocumentSearchServer").build()
+                .defaultHelp(true).description("A search server that loads an index file once and answers " +
+                        "queries over HTTP with GET /search?q=<query>, GET /stats reports the request latencies");
+
+        parser.addArgument("<indexfile>").type(Arguments.fileType().verifyIsFile())
+                .help("Index file");
+
+        parser.addArgument("<stopwordsFile>").type(Arguments.fileType().verifyIsFile())
+                .help("stopwords file to use in the complex tokenizer");
+
+        parser.addArgument("<scoring_algorithm>").metavar("<scoring_algorithm>").choices("qwNumber",
+                "qwFrequency", "cosineScore", "bm25").help("The scoring algorithm to be used: qwNumber, qwFrequency, " +
+                "cosineScore or bm25");
+
+        parser.addArgument("--port")
+                .metavar("p").type(Integer.class)
+                .setDefault(8080)
+                .help("port to listen on");
+
+        parser.addArgument("--threads")
+                .metavar("n").type(Integer.class)
+                .setDefault(Runtime.getRuntime().availableProcessors())
+                .help("number of threads answering requests");
+
+        parser.addArgument("--topK")
+                .metavar("k").type(Integer.class)
+                .setDefault(10)
+                .help("number of documents with higher score returned for each query");
+
+        parser.addArgument("--stemCache")
+                .metavar("n").type(Integer.class)
+                .setDefault(StemCache.DEFAULT_CAPACITY)
+                .help("maximum number of stems kept in the cache of the tokenizer, 0 disables the cache");
+
+        parser.addArgument("--resultCache")
+                .metavar("n").type(Integer.class)
+                .setDefault(0)
+                .help("maximum number of queries whose results are cached, reused by the queries with the same " +
+                        "terms in any order, 0 disables the cache");
+
+        parser.addArgument("--resultCacheMemory")
+                .metavar("mb").type(Integer.class)
+                .setDefault(64)
+                .help("maximum memory in MB of the results cached with --resultCache");
+
+        parser.addArgument("--binaryIndex")
+                .action(Arguments.storeTrue())
+                .help("the index file is in the binary format, the index type is read from the file");
+
+        parser.addArgument("--mappedIndex")
+                .action(Arguments.storeTrue())
+                .help("memory-map the binary index file and decode the postings of a term only when needed " +
+                        "(implies --binaryIndex)");
+
+        parser.addArgument("--segmentedIndex")
+                .action(Arguments.storeTrue())
+                .help("the index file is the manifest of a segmented index written by DocumentIndexer " +
+                        "--incremental, the format of the segments is read from the manifest and binary segments " +
+                        "are memory-mapped with --mappedIndex");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        boolean mappedIndex = ns.getBoolean("mappedIndex");
+        boolean binaryIndex = ns.getBoolean("binaryIndex") || mappedIndex;
+        String scoring_algorithm = ns.getString("<scoring_algorithm>");
+        int topK = ns.getInt("topK");
+
+        if (topK <= 0) {
+            System.err.println("--topK must be greater than 0");
+            System.exit(1);
+        }
+
+        long start = System.currentTimeMillis();
+        Retrieval retrieval = DocumentSearcher.createRetrieval(ns.getString("<indexfile>"),
+                ns.getString("<stopwordsFile>"), scoring_algorithm, binaryIndex, mappedIndex,
+                ns.getBoolean("segmentedIndex"), "or", 0, scoring_algorithm.equals("cosineScore") ? topK : 0, null,
+                ns.getInt("stemCache") > 0 ? new StemCache(ns.getInt("stemCache")) : null);
+
+        if (ns.getInt("resultCache") > 0)
+            retrieval.setResultCache(new QueryResultCache(ns.getInt("resultCache"),
+                    ns.getInt("resultCacheMemory") * 1024L * 1024L));
+
+        SearchServer server = null;
+        try {
+            server = new SearchServer(retrieval, ns.getInt("port"), ns.getInt("threads"), topK);
+        } catch (IOException e) {
+            System.err.println("Error starting the server on port " + ns.getInt("port") + " " + e);
+            System.exit(1);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+
+        System.out.println("Index loaded in ms: " + (System.currentTimeMillis() - start));
+        System.out.println("Listening on port " + server.getPort());
+    }
+}
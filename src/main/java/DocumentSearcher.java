@@ -1,23 +1,39 @@
+import IndexerEngine.indexer.BinaryIndexFormat;
+import IndexerEngine.indexer.DocumentLengths;
+import IndexerEngine.indexer.ImpactOrderedIndex;
 import IndexerEngine.indexer.Indexer;
+import IndexerEngine.tokenizers.StemCache;
 import IndexerEngine.tokenizers.Tokenizer;
+import SearchEngine.IndexReader.IndexBinaryReader;
 import SearchEngine.IndexReader.IndexReader;
+import SearchEngine.IndexReader.MappedIndexReader;
+import SearchEngine.IndexReader.SegmentedIndexReader;
 import SearchEngine.IndexReader.IndexWtNormReader;
 import SearchEngine.QueryProcessing.QueryProcessor;
+import SearchEngine.QueryProcessing.QueryResultCache;
 import SearchEngine.QueryProcessing.RankedRetrieval;
 import SearchEngine.QueryProcessing.Retrieval;
 import SearchEngine.Evaluation.Evaluation;
 import SearchEngine.IndexReader.IndexTermFreqReader;
 import SearchEngine.QueryProcessing.DisjunctiveBooleanRetrieval;
+import SearchEngine.QueryProcessing.ConjunctiveBooleanRetrieval;
+import SearchEngine.QueryProcessing.PhraseRetrieval;
+import SearchEngine.QueryProcessing.BM25Retrieval;
+import SearchEngine.IndexReader.IndexPositionalReader;
+import SearchEngine.ScoringAlgorithms.BM25Score;
 import SearchEngine.ScoringAlgorithms.FrequencyOfQueryWords;
 import SearchEngine.ScoringAlgorithms.NumberOfQueryWords;
 import SearchEngine.ScoringAlgorithms.ScoringAlgorithm;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
 import java.util.List;
 
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.MutuallyExclusiveGroup;
 import net.sourceforge.argparse4j.inf.Namespace;
 
 /**
@@ -39,6 +55,21 @@ import net.sourceforge.argparse4j.inf.Namespace;
  * <p>a sequence of relevance level, where the relevant documents have the relevance level
  * less or equal that the relevance level defined by the user</p>
  * <p>boolean value that indicates if the user want to see the metrics value for each query</p>
+ * <p>boolean value that indicates if all the combinations of thresholds and relevance levels are evaluated in a
+ * single pass, printing a table with the system metrics of each one</p>
+ * <p>the number of documents with higher score to retrieve with the cosine score</p>
+ * <p>boolean value that indicates if only the documents with all the query terms are retrieved, with the
+ * qwNumber and qwFrequency scoring algorithms</p>
+ * <p>boolean value that indicates if the query is an exact phrase, or the size of a window where all the query
+ * terms must appear, searched in a positional index with the qwFrequency scoring algorithm</p>
+ * <p>boolean value that indicates if the index file is in the binary index format and if it should be
+ * memory-mapped, decoding the postings of each term only when needed</p>
+ * <p>boolean value that indicates if the index file is the manifest of an index made of several segments</p>
+ * <p>boolean value that indicates if the index file is an impact-ordered index, and the maximum number of postings
+ * processed per query with it</p>
+ * <p>the capacity of the stem cache of the tokenizer</p>
+ * <p>the number of threads used to retrieve the queries concurrently</p>
+ * <p>the maximum number of queries and of memory of the cache of the results of the queries</p>
  *
  * @author Ana Filipa Tavares 76629
  * @author Andreia Machado 76501
@@ -61,10 +92,11 @@ public class DocumentSearcher {
                 .help("stopwords file to use in the complex tokenizer");
 
         parser.addArgument("<scoring_algorithm>").metavar("<scoring_algorithm>").choices("qwNumber",
-                "qwFrequency","cosineScore").setDefault("qwNumber").help("The scoring algorithm to be used given the " +
-                "following choices:\nqwNumber - score based on number of query words in the document.\nqwFrequency - " +
-                "score based on frequency of query words in the document\ncosineScore - compute the cosine similarity score "+
-                "for the query vector and each document vector");
+                "qwFrequency","cosineScore","bm25").setDefault("qwNumber").help("The scoring algorithm to be used " +
+                "given the following choices:\nqwNumber - score based on number of query words in the document." +
+                "\nqwFrequency - score based on frequency of query words in the document\ncosineScore - compute the " +
+                "cosine similarity score for the query vector and each document vector\nbm25 - compute the BM25 " +
+                "score over a term frequency index, with the document lengths saved alongside the index");
 
         parser.addArgument("<outputfile>").help("Output file to save results");
 
@@ -94,6 +126,81 @@ public class DocumentSearcher {
                 .action(Arguments.storeTrue())
                 .help("displays not only system metrics but also for each query its metrics");
 
+        parser.addArgument("--sweep")
+                .action(Arguments.storeTrue())
+                .help("evaluates every combination of --relevance and thresholds in a single pass over the ranking " +
+                        "of each query and prints a table with the system metrics of each one");
+
+        parser.addArgument("--topK")
+                .metavar("k").type(Integer.class)
+                .setDefault(0)
+                .help("with cosineScore only retrieve the k documents with higher score for each query, " +
+                        "skipping documents that can not enter the top k, 0 retrieves every document with a score");
+
+        MutuallyExclusiveGroup queryModes = parser.addMutuallyExclusiveGroup();
+
+        queryModes.addArgument("--conjunctive")
+                .action(Arguments.storeTrue())
+                .help("with qwNumber or qwFrequency only retrieve the documents with all the query terms, " +
+                        "intersecting the postings lists");
+
+        queryModes.addArgument("--phrase")
+                .action(Arguments.storeTrue())
+                .help("with qwFrequency and a positional index only retrieve the documents with the query terms " +
+                        "as an exact phrase, scored by the number of occurrences of the phrase");
+
+        queryModes.addArgument("--proximity")
+                .metavar("w").type(Integer.class)
+                .help("with qwFrequency and a positional index only retrieve the documents with all the query " +
+                        "terms inside a window of w positions, scored by the number of such windows");
+
+        parser.addArgument("--binaryIndex")
+                .action(Arguments.storeTrue())
+                .help("the index file is in the binary format, the index type is read from the file");
+
+        parser.addArgument("--mappedIndex")
+                .action(Arguments.storeTrue())
+                .help("memory-map the binary index file and decode the postings of a term only when needed " +
+                        "(implies --binaryIndex)");
+
+        parser.addArgument("--impactIndex")
+                .action(Arguments.storeTrue())
+                .help("with cosineScore the index file is an impact-ordered index written by DocumentIndexer " +
+                        "--format impact, scored score-at-a-time");
+
+        parser.addArgument("--budget")
+                .metavar("n").type(Integer.class)
+                .setDefault(0)
+                .help("with --impactIndex the maximum number of postings processed per query, the postings " +
+                        "with the lowest contributions are left out, 0 processes every posting");
+
+        parser.addArgument("--segmentedIndex")
+                .action(Arguments.storeTrue())
+                .help("the index file is the manifest of a segmented index written by DocumentIndexer " +
+                        "--incremental, the format of the segments is read from the manifest and binary segments " +
+                        "are memory-mapped with --mappedIndex");
+
+        parser.addArgument("--stemCache")
+                .metavar("n").type(Integer.class)
+                .help("maximum number of stems kept in the cache of the tokenizer, 0 disables the cache, by default " +
+                        StemCache.DEFAULT_CAPACITY + ". When given, the statistics of the cache are printed");
+
+        parser.addArgument("--threads")
+                .metavar("n").type(Integer.class)
+                .setDefault(1)
+                .help("number of threads used to retrieve the queries concurrently");
+
+        parser.addArgument("--resultCache")
+                .metavar("n").type(Integer.class)
+                .setDefault(0)
+                .help("maximum number of queries whose results are cached, reused by the queries with the same " +
+                        "terms in any order, 0 disables the cache");
+
+        parser.addArgument("--resultCacheMemory")
+                .metavar("mb").type(Integer.class)
+                .setDefault(64)
+                .help("maximum memory in MB of the results cached with --resultCache");
+
         Namespace ns = parser.parseArgsOrFail(args);
 
         String index_file = ns.getString("<indexfile>");
@@ -107,6 +214,33 @@ public class DocumentSearcher {
         List<Double> variable_threshold = ns.getList("variableThreshold");
         List<Integer> relevances = ns.getList("relevance");
         Boolean displayQueryMetrics = ns.getBoolean("displayQueryMetrics");
+        boolean mappedIndex = ns.getBoolean("mappedIndex");
+        boolean binaryIndex = ns.getBoolean("binaryIndex") || mappedIndex;
+        boolean segmentedIndex = ns.getBoolean("segmentedIndex");
+        Integer proximity = ns.getInt("proximity");
+        String queryMode = ns.getBoolean("phrase") ? "phrase" : proximity != null ? "proximity"
+                : ns.getBoolean("conjunctive") ? "and" : "or";
+
+        if (queryMode.equals("and") && !scoring_algorithm.startsWith("qw")) {
+            String message = "--conjunctive can only be used with qwNumber or qwFrequency";
+            parser.handleError(new ArgumentParserException(message, parser));
+            System.exit(1);
+        }
+
+        if ((queryMode.equals("phrase") || queryMode.equals("proximity")) && !scoring_algorithm.equals("qwFrequency")
+                || (proximity != null && proximity <= 0)) {
+            String message = "--phrase and --proximity can only be used with qwFrequency and a window greater than 0";
+            parser.handleError(new ArgumentParserException(message, parser));
+            System.exit(1);
+        }
+
+        int topK = ns.getInt("topK");
+        if (topK < 0 || (topK > 0 && (!scoring_algorithm.equals("cosineScore") || ns.getBoolean("impactIndex")))) {
+            String message = "--topK can only be used with cosineScore, without --impactIndex, and a value greater " +
+                    "than 0";
+            parser.handleError(new ArgumentParserException(message, parser));
+            System.exit(1);
+        }
 
         Boolean default_evaluation = null;
 
@@ -130,6 +264,94 @@ public class DocumentSearcher {
             default_evaluation = false;
         }
 
+        Evaluation evaluation = new Evaluation(querieRelevanceFile);
+        // the statistics of the stem cache are only printed when its capacity is given
+        Integer stemCacheCapacity = ns.getInt("stemCache");
+        int capacity = stemCacheCapacity != null ? stemCacheCapacity : StemCache.DEFAULT_CAPACITY;
+        StemCache stemCache = capacity > 0 ? new StemCache(capacity) : null;
+        Retrieval retrieval;
+        if (ns.getBoolean("impactIndex")) {
+            if (!scoring_algorithm.equals("cosineScore") || binaryIndex || segmentedIndex || ns.getInt("budget") < 0) {
+                String message = "--impactIndex can only be used with cosineScore, without the other index " +
+                        "options and with a budget not lower than 0";
+                parser.handleError(new ArgumentParserException(message, parser));
+                System.exit(1);
+            }
+            retrieval = createImpactRetrieval(index_file, stopwordsFilename, ns.getInt("budget"), evaluation,
+                    stemCache);
+        } else {
+            retrieval = createRetrieval(index_file, stopwordsFilename, scoring_algorithm, binaryIndex, mappedIndex,
+                    segmentedIndex, queryMode, proximity == null ? 0 : proximity, topK, evaluation,
+                    stemCache);
+        }
+
+        if (ns.getInt("resultCache") > 0) {
+            QueryResultCache resultCache = new QueryResultCache(ns.getInt("resultCache"),
+                    ns.getInt("resultCacheMemory") * 1024L * 1024L);
+            retrieval.setResultCache(resultCache);
+            evaluation.setResultCache(resultCache);
+        }
+
+        QueryProcessor processor = new QueryProcessor(ns.getInt("threads"));
+        processor.processQueries(queries_file, retrieval, output_file);
+
+        long elapsedTime = System.currentTimeMillis() - start;
+
+        if (ns.getBoolean("sweep")) {
+            if (default_evaluation)
+                retrieval.evaluateSweep(Collections.singletonList(0.0), null, Collections.singletonList(4));
+            else
+                retrieval.evaluateSweep(fixed_threshold, variable_threshold, relevances);
+        }
+
+        else if (default_evaluation) {
+            retrieval.evaluateWithFixedThreshold(0.0, 4, displayQueryMetrics);
+        }
+
+        else {
+            for (int relevance: relevances) {
+
+                if (fixed_threshold != null) {
+                    for (double f_threshold: fixed_threshold) {
+                        retrieval.evaluateWithFixedThreshold(f_threshold, relevance, displayQueryMetrics);
+                    }
+                }
+
+                if (variable_threshold != null) {
+                    for (double v_threshold: variable_threshold) {
+                        retrieval.evaluateWithVariableThreshold(v_threshold, relevance, displayQueryMetrics);
+                    }
+                }
+            }
+        }
+
+        if (stemCache != null && stemCacheCapacity != null)
+            System.out.println(stemCache);
+        System.out.println("Execution time in ms: " + elapsedTime);
+    }
+
+    /**
+     * Reads the index file and creates the tokenizer used to build it and the retrieval model of the scoring
+     * algorithm. The program exits if the index can not be used with the scoring algorithm.
+     *
+     * @param index_file index filename
+     * @param stopwordsFilename stopwords filename used by the complex tokenizer
+     * @param scoring_algorithm qwNumber, qwFrequency, cosineScore or bm25
+     * @param binaryIndex if the index file is in the binary format
+     * @param mappedIndex if the binary index file is memory-mapped
+     * @param segmentedIndex if the index file is the manifest of a segmented index
+     * @param queryMode how the query terms are combined, or, and, phrase or proximity, ignored with the cosine
+     *                  and the BM25 scores
+     * @param window proximity window in positions, with the proximity query mode
+     * @param topK number of documents to retrieve with the cosine score, 0 retrieves every document with a score
+     * @param evaluation evaluation of the results
+     * @param stemCache cache of stems used by the tokenizer, null to stem every token
+     * @return retrieval model over the loaded index
+     */
+    static Retrieval createRetrieval(String index_file, String stopwordsFilename, String scoring_algorithm,
+                                     boolean binaryIndex, boolean mappedIndex, boolean segmentedIndex,
+                                     String queryMode, int window, int topK, Evaluation evaluation,
+                                     StemCache stemCache) {
         ScoringAlgorithm scoringAlgorithm = null;
         IndexReader indexReader = new IndexWtNormReader();
         
@@ -147,21 +369,104 @@ public class DocumentSearcher {
             case "cosineScore":
                 break;
 
+            case "bm25":
+                indexReader = new IndexTermFreqReader();
+                break;
+
             default:
                 System.err.println("Scoring algorithm not recognized");
                 System.exit(1);
                 break;
         }
         
+        boolean positional = queryMode.equals("phrase") || queryMode.equals("proximity");
+        if (positional)
+            indexReader = new IndexPositionalReader();
+
+        if (segmentedIndex)
+            indexReader = new SegmentedIndexReader(mappedIndex);
+        else if (mappedIndex)
+            indexReader = new MappedIndexReader();
+        else if (binaryIndex)
+            indexReader = new IndexBinaryReader();
+
         Indexer indexer = indexReader.readIndex(index_file);
 
-        String tokenizerClassName = indexer.getTokenizerName();
+        if ((binaryIndex || segmentedIndex) && (indexer.getIndexType() == BinaryIndexFormat.TYPE_WT_NORM)
+                != scoring_algorithm.equals("cosineScore")) {
+            System.err.println("The index type of " + index_file + " can not be used with " + scoring_algorithm);
+            System.exit(1);
+        }
+
+        if (positional && indexer.getIndexType() != BinaryIndexFormat.TYPE_POSITIONAL) {
+            System.err.println("The index " + index_file + " has no positions, it must be built with the " +
+                    "positional indexer");
+            System.exit(1);
+        }
+
+        Tokenizer tokenizer = createTokenizer(indexer.getTokenizerName(), stopwordsFilename, stemCache);
+        
+        if (scoring_algorithm.equals("bm25")) {
+            try {
+                BM25Score score = new BM25Score(indexer, DocumentLengths.load(index_file, indexer));
+                return new BM25Retrieval(indexer, tokenizer, evaluation, score);
+            } catch (IOException e) {
+                System.err.println("Error reading the document lengths of " + index_file + " " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (positional)
+            return new PhraseRetrieval(indexer, tokenizer, evaluation, queryMode.equals("phrase") ? 0 : window);
+        if (!scoring_algorithm.equals("cosineScore") && queryMode.equals("and"))
+            return new ConjunctiveBooleanRetrieval(indexer, tokenizer, evaluation, scoringAlgorithm);
+        if (!scoring_algorithm.equals("cosineScore"))
+            return new DisjunctiveBooleanRetrieval(indexer, tokenizer, evaluation, scoringAlgorithm);
+
+        return new RankedRetrieval(indexer, tokenizer, evaluation, topK);
+    }
+
+    /**
+     * Reads an impact-ordered index file and creates the tokenizer used to build it and the ranked retrieval
+     * that scores the queries score-at-a-time
+     *
+     * @param index_file impact-ordered index filename
+     * @param stopwordsFilename stopwords filename used by the complex tokenizer
+     * @param budget maximum number of postings processed per query, 0 processes every posting
+     * @param evaluation evaluation of the results
+     * @param stemCache cache of stems used by the tokenizer, null to stem every token
+     * @return retrieval model over the loaded index
+     */
+    static Retrieval createImpactRetrieval(String index_file, String stopwordsFilename, int budget,
+                                           Evaluation evaluation, StemCache stemCache) {
+        ImpactOrderedIndex index = null;
+        try {
+            index = ImpactOrderedIndex.read(index_file);
+        } catch (IOException e) {
+            System.err.println("Error reading impact-ordered index " + e.getMessage());
+            System.exit(1);
+        }
+
+        Tokenizer tokenizer = createTokenizer(index.getTokenizerName(), stopwordsFilename, stemCache);
+        return new RankedRetrieval(index, tokenizer, evaluation, budget);
+    }
+
+    /**
+     * Creates the tokenizer used to build an index from its class name
+     *
+     * @param tokenizerClassName tokenizer class name saved in the index file
+     * @param stopwordsFilename stopwords filename used by the complex tokenizer
+     * @param stemCache cache of stems used by the tokenizer, null to stem every token
+     * @return the tokenizer
+     */
+    private static Tokenizer createTokenizer(String tokenizerClassName, String stopwordsFilename,
+                                             StemCache stemCache) {
         Tokenizer tokenizer = null;
         Class tokenizerClass;
 
         try {
             tokenizerClass = Class.forName(Tokenizer.class.getPackage().getName() + "." + tokenizerClassName);
             tokenizer = (Tokenizer) tokenizerClass.getConstructor(String.class).newInstance(stopwordsFilename);
+            tokenizer.setStemCache(stemCache);
 
         } catch (ClassNotFoundException | NoSuchMethodException e) {
             System.err.println("The tokenizer " + tokenizerClassName + " doesn't exist.");
@@ -171,44 +476,7 @@ public class DocumentSearcher {
             System.err.println("Tokenizer instantiation failed " + tokenizerClassName + e);
             System.exit(1);
         }
-        
-        Evaluation evaluation = new Evaluation(querieRelevanceFile);
-        Retrieval retrieval;
-        if (!scoring_algorithm.equals("cosineScore"))
-            retrieval = new DisjunctiveBooleanRetrieval(indexer, tokenizer, evaluation, scoringAlgorithm);
-
-        else {
-            retrieval = new RankedRetrieval(indexer, tokenizer, evaluation);
-        }
-
-        QueryProcessor processor = new QueryProcessor();
-        processor.processQueries(queries_file, retrieval, output_file);
-
-        long elapsedTime = System.currentTimeMillis() - start;
-
-        if (default_evaluation) {
-            retrieval.evaluateWithFixedThreshold(0.0, 4, displayQueryMetrics);
-        }
-
-        else {
-            for (int relevance: relevances) {
-
-                if (fixed_threshold != null) {
-                    for (double f_threshold: fixed_threshold) {
-                        retrieval.evaluateWithFixedThreshold(f_threshold, relevance, displayQueryMetrics);
-                    }
-                }
-
-                if (variable_threshold != null) {
-                    for (double v_threshold: variable_threshold) {
-                        retrieval.evaluateWithVariableThreshold(v_threshold, relevance, displayQueryMetrics);
-                    }
-                }
-            }
-        }
-
-        System.out.println("Execution time in ms: " + elapsedTime);
+        return tokenizer;
     }
 
 }
-
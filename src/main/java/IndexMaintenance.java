@@ -0,0 +1,303 @@
+import IndexerEngine.indexer.DocNoTable;
+import IndexerEngine.indexer.DocumentLengths;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.SegmentManifest;
+import IndexerEngine.indexer.SegmentMerger;
+import SearchEngine.IndexReader.IndexBinaryReader;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import net.sourceforge.argparse4j.inf.Subparsers;
+
+/**
+ * <h2>Index Maintenance</h2>
+ * Maintenance commands over a segmented index created with the incremental mode of the document indexer.
+ * The required arguments are:
+ * <p>The command: merge, that merges all the segments into a single segment purging the replaced and deleted
+ * documents, delete, that deletes documents, or compact, that merges the segments only when the fraction of
+ * replaced and deleted documents reaches a threshold</p>
+ * <p>The manifest filename of the segmented index</p>
+ * <p>The ids of the documents to delete, with the delete command</p>
+ *
+ * The segments are merged without holding the lock of the manifest, so documents can be added while the merge
+ * runs. The manifest is then updated in a single step replacing the merged segments by the new one, keeping the
+ * segments added in the meantime. The files of the merged segments are deleted by the next merge, as a searcher
+ * that read the previous manifest may still be opening them.
+ *
+ * @author Ana Filipa Tavares 76629
+ * @author Andreia Machado 76501
+ */
+public class IndexMaintenance {
+    public static void main(String[] args) throws IOException {
+        long start = System.currentTimeMillis();
+
+        ArgumentParser parser = ArgumentParsers.newFor("IndexMaintenance").build()
+                .defaultHelp(true).description("Maintenance of a segmented index");
+
+        Subparsers commands = parser.addSubparsers().dest("command").help("maintenance command");
+
+        Subparser merge = commands.addParser("merge").defaultHelp(true)
+                .help("merge all the segments into a single segment, purging the replaced and deleted documents");
+        merge.addArgument("<manifest>").type(Arguments.fileType().verifyIsFile())
+                .help("manifest file of the segmented index");
+
+        Subparser delete = commands.addParser("delete").defaultHelp(true)
+                .help("delete documents, which are skipped by the searcher until they are purged by a merge");
+        delete.addArgument("<manifest>").type(Arguments.fileType().verifyIsFile())
+                .help("manifest file of the segmented index");
+        delete.addArgument("<docID>").type(Integer.class).nargs("+")
+                .help("ids of the documents to delete");
+
+        Subparser compact = commands.addParser("compact").defaultHelp(true)
+                .help("merge all the segments if the fraction of replaced and deleted documents reaches the " +
+                        "threshold");
+        compact.addArgument("<manifest>").type(Arguments.fileType().verifyIsFile())
+                .help("manifest file of the segmented index");
+        compact.addArgument("--threshold")
+                .metavar("r").type(Double.class)
+                .setDefault(0.2)
+                .help("fraction of the stored documents that are replaced or deleted from which the segments " +
+                        "are merged");
+
+        Namespace ns = parser.parseArgsOrFail(args);
+
+        String manifestFile = ns.getString("<manifest>");
+
+        switch (ns.getString("command")) {
+            case "merge":
+                mergeSegments(manifestFile, 0.0);
+                break;
+
+            case "delete":
+                deleteDocuments(manifestFile, ns.getList("<docID>"));
+                break;
+
+            case "compact":
+                mergeSegments(manifestFile, ns.getDouble("threshold"));
+                break;
+        }
+
+        long elapsedTime = System.currentTimeMillis() - start;
+        System.out.println("Execution time in ms: " + elapsedTime);
+    }
+
+    /**
+     * Marks documents as deleted in the manifest
+     *
+     * @param manifestFile manifest filename
+     * @param docIDs ids of the documents to delete
+     * @throws IOException if the manifest can not be read or written
+     */
+    private static void deleteDocuments(String manifestFile, List<Integer> docIDs) throws IOException {
+        FileChannel lock = SegmentManifest.lock(manifestFile);
+        try {
+            SegmentManifest manifest = SegmentManifest.read(manifestFile);
+            BitSet indexed = manifest.indexedDocs();
+            int deleted = 0;
+
+            for (int docID : docIDs) {
+                if (!indexed.get(docID)) {
+                    System.err.println("The document " + docID + " is not indexed");
+                } else if (!manifest.getDeletedDocs().get(docID)) {
+                    manifest.getDeletedDocs().set(docID);
+                    deleted++;
+                }
+            }
+
+            manifest.save(manifestFile);
+            System.out.println(String.format(Locale.ROOT, "Deleted %d documents, removed ratio %.3f", deleted,
+                    manifest.removedRatio()));
+        } finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * Merges all the segments listed in the manifest into a new segment without the replaced and deleted documents
+     *
+     * @param manifestFile manifest filename
+     * @param threshold fraction of the stored documents that are replaced or deleted from which the segments are
+     *                  merged, 0 to always merge
+     * @throws IOException if the manifest or the segments can not be read or written
+     */
+    private static void mergeSegments(String manifestFile, double threshold) throws IOException {
+        SegmentManifest manifest;
+        String segmentName;
+        List<String> superseded;
+
+        // reserve the name of the merged segment and take the segments superseded by the previous merge, whose
+        // files are no longer read by a searcher
+        FileChannel lock = SegmentManifest.lock(manifestFile);
+        try {
+            manifest = SegmentManifest.read(manifestFile);
+            double removedRatio = manifest.removedRatio();
+
+            if ((manifest.getSegments().size() < 2 && removedRatio == 0.0) || removedRatio < threshold) {
+                System.out.println(String.format(Locale.ROOT, "Nothing to merge, segments: %d, removed ratio %.3f",
+                        manifest.getSegments().size(), removedRatio));
+                return;
+            }
+
+            segmentName = manifest.newSegmentName(manifestFile);
+            superseded = new ArrayList<>(manifest.getSupersededSegments());
+            manifest.getSupersededSegments().clear();
+            manifest.save(manifestFile);
+        } finally {
+            lock.close();
+        }
+
+        for (String segment : superseded)
+            deleteSegmentFiles(SegmentManifest.segmentPath(manifestFile, segment));
+
+        List<String> merged = manifest.getSegments();
+        List<String> paths = manifest.segmentPaths(manifestFile);
+        List<BitSet> removedDocs = manifest.removedDocs();
+        String output = SegmentManifest.segmentPath(manifestFile, segmentName);
+
+        BitSet liveDocs = new BitSet();
+        for (int i = 0; i < merged.size(); i++) {
+            BitSet live = (BitSet) manifest.getSegmentDocs(merged.get(i)).clone();
+            live.andNot(removedDocs.get(i));
+            liveDocs.or(live);
+        }
+
+        if (manifest.getFormat().equals("binary")) {
+            IndexBinaryReader reader = new IndexBinaryReader();
+            Indexer indexer = reader.readIndex(paths.get(0));
+            indexer.removeDocuments(removedDocs.get(0));
+
+            for (int i = 1; i < paths.size(); i++) {
+                Indexer segment = reader.readIndex(paths.get(i));
+                segment.removeDocuments(removedDocs.get(i));
+                indexer.merge(segment);
+            }
+
+            indexer.saveToBinaryFile(output, indexer.getTokenizerName());
+        } else {
+            new SegmentMerger().merge(paths, removedDocs, output, readTokenizerName(paths.get(0)));
+        }
+
+        if (!manifest.getIndexerType().equals("weighted"))
+            mergeDocumentLengths(paths, removedDocs, output);
+        mergeDocNoTables(paths, removedDocs, output);
+
+        // replace the merged segments, which are consecutive, keeping the segments added during the merge. Their
+        // files are deleted by the next merge, a searcher may have read the manifest before it is saved
+        lock = SegmentManifest.lock(manifestFile);
+        try {
+            SegmentManifest current = SegmentManifest.read(manifestFile);
+            List<String> segments = current.getSegments();
+            int position = segments.indexOf(merged.get(0));
+
+            if (position < 0 || position + merged.size() > segments.size()
+                    || !segments.subList(position, position + merged.size()).equals(merged)) {
+                deleteSegmentFiles(output);
+                System.err.println("The segments of " + manifestFile + " were changed during the merge");
+                System.exit(1);
+            }
+
+            current.replaceSegments(position, merged.size(), segmentName, liveDocs);
+            current.save(manifestFile);
+
+            System.out.println(String.format(Locale.ROOT, "Merged %d segments into %s, segments: %d, " +
+                    "removed ratio %.3f", merged.size(), segmentName, segments.size(), current.removedRatio()));
+        } finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * Deletes the file of a segment and the tables saved alongside it
+     *
+     * @param path segment filename
+     * @throws IOException if a file can not be deleted
+     */
+    private static void deleteSegmentFiles(String path) throws IOException {
+        Files.deleteIfExists(Paths.get(path));
+        Files.deleteIfExists(Paths.get(DocumentLengths.filename(path)));
+        Files.deleteIfExists(Paths.get(DocNoTable.filename(path)));
+    }
+
+    /**
+     * Saves the document lengths of the merged segment, joining the tables saved alongside the segments without
+     * the removed documents. When a segment has no table none is saved, the searcher computes it from the index.
+     *
+     * @param paths segment filenames
+     * @param removedDocs documents removed from each segment
+     * @param output merged segment filename
+     * @throws IOException if a table can not be read or written
+     */
+    private static void mergeDocumentLengths(List<String> paths, List<BitSet> removedDocs, String output)
+            throws IOException {
+        DocumentLengths merged = new DocumentLengths();
+
+        for (int i = 0; i < paths.size(); i++) {
+            String filename = DocumentLengths.filename(paths.get(i));
+            if (!Files.exists(Paths.get(filename)))
+                return;
+
+            DocumentLengths segment = DocumentLengths.read(filename);
+            segment.remove(removedDocs.get(i));
+            merged.addAll(segment);
+        }
+
+        merged.save(DocumentLengths.filename(output));
+    }
+
+    /**
+     * Saves the DOCNO of the documents of the merged segment, joining the tables saved alongside the segments of
+     * TREC-style files without the removed documents. When no segment has a table none is saved.
+     *
+     * @param paths segment filenames
+     * @param removedDocs documents removed from each segment
+     * @param output merged segment filename
+     * @throws IOException if a table can not be read or written
+     */
+    private static void mergeDocNoTables(List<String> paths, List<BitSet> removedDocs, String output)
+            throws IOException {
+        DocNoTable merged = null;
+
+        for (int i = 0; i < paths.size(); i++) {
+            String filename = DocNoTable.filename(paths.get(i));
+            if (!Files.exists(Paths.get(filename)))
+                continue;
+
+            DocNoTable segment = DocNoTable.read(filename);
+            segment.remove(removedDocs.get(i));
+            if (merged == null)
+                merged = new DocNoTable();
+            merged.addAll(segment);
+        }
+
+        if (merged != null)
+            merged.save(DocNoTable.filename(output));
+    }
+
+    /**
+     * Reads the tokenizer name from the header of a segment in the text index format
+     *
+     * @param segment segment filename
+     * @return tokenizer class name
+     * @throws IOException if the segment can not be read
+     */
+    private static String readTokenizerName(String segment) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(segment))) {
+            String header = reader.readLine();
+            return header == null ? "" : header.split(" ")[0];
+        }
+    }
+}
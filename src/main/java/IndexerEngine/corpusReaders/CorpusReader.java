@@ -2,6 +2,8 @@ package IndexerEngine.corpusReaders;
 
 import IndexerEngine.documents.Document;
 
+import java.util.function.Consumer;
+
 public interface CorpusReader {
 
     /**
@@ -13,4 +15,16 @@ public interface CorpusReader {
 
     Document read(String file);
 
+    /**
+     * Reads a file and passes each document it contains to the consumer, as soon as it is parsed. By default a
+     * file contains one document.
+     *
+     * @param file name of the file to be read/parsed
+     * @param consumer receives the documents of the file in order
+     */
+    default void readDocuments(String file, Consumer<Document> consumer) {
+        Document document = read(file);
+        if (document != null)
+            consumer.accept(document);
+    }
 }
@@ -0,0 +1,53 @@
+package IndexerEngine.corpusReaders;
+
+import IndexerEngine.documents.Document;
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Corpus reader that records the ids of the documents read from each file and passes the documents on unchanged.
+ * The incremental indexer keeps them in the manifest of the segmented index, to delete the previous documents of
+ * a file that is indexed again or removed from the corpus. The readers of several threads can share the map.
+ */
+public class DocIdRecordingReader implements CorpusReader {
+    private final CorpusReader reader;
+    private final Map<String, BitSet> docIDs;
+
+    /**
+     * Creates a reader that records the documents read by another reader
+     *
+     * @param reader reader of the corpus files
+     * @param docIDs map from the absolute path of each file read to the ids of its documents, safe for concurrent
+     *               use when shared by several readers
+     */
+    public DocIdRecordingReader(CorpusReader reader, Map<String, BitSet> docIDs) {
+        this.reader = reader;
+        this.docIDs = docIDs;
+    }
+
+    @Override
+    public Document read(String file) {
+        Document document = reader.read(file);
+        if (document != null)
+            record(file, document.getId());
+        return document;
+    }
+
+    @Override
+    public void readDocuments(String file, Consumer<Document> consumer) {
+        reader.readDocuments(file, document -> {
+            record(file, document.getId());
+            consumer.accept(document);
+        });
+    }
+
+    private void record(String file, int docID) {
+        BitSet fileDocIDs = docIDs.computeIfAbsent(new File(file).getAbsolutePath(), path -> new BitSet());
+        synchronized (fileDocIDs) {
+            fileDocIDs.set(docID);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package IndexerEngine.corpusReaders;
+
+import IndexerEngine.indexer.DocNoTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Document ids of the TREC-style files of a corpus, given by file and position: the files are taken in the order
+ * of their paths and the documents of each file in the order they appear, from a first id. The files are scanned
+ * once before they are indexed to count their documents, so the ids do not depend on the order in which the
+ * threads of the indexer read the files, and are unique whatever the DOCNO of the documents. The readers record
+ * the DOCNO of each document parsed in a table, saved alongside the index.
+ *
+ * @see TrecReader#countDocuments(String)
+ */
+public class TrecDocumentIds {
+    private final Map<String, Integer> firstDocIDs;
+    private final int nextDocID;
+    private final DocNoTable docNos;
+
+    /**
+     * Counts the documents of the corpus files and gives each file a range of document ids
+     *
+     * @param files corpus files
+     * @param firstDocID id of the first document of the first file
+     * @throws IOException if a file can not be read
+     */
+    public TrecDocumentIds(File[] files, int firstDocID) throws IOException {
+        File[] ordered = files.clone();
+        Arrays.sort(ordered, Comparator.comparing(File::getAbsolutePath));
+
+        this.firstDocIDs = new HashMap<>();
+        int docID = firstDocID;
+        for (File file : ordered) {
+            firstDocIDs.put(file.getAbsolutePath(), docID);
+            docID += TrecReader.countDocuments(file.toString());
+        }
+
+        this.nextDocID = docID;
+        this.docNos = new DocNoTable();
+    }
+
+    /**
+     * Returns the id of the first document of a file, the id of the document at position p of the file is this
+     * id plus p - 1
+     *
+     * @param filename corpus file
+     * @return document id
+     * @throws IllegalArgumentException if the file was not counted
+     */
+    public int firstDocID(String filename) {
+        Integer docID = firstDocIDs.get(new File(filename).getAbsolutePath());
+        if (docID == null)
+            throw new IllegalArgumentException("The documents of " + filename + " were not counted");
+        return docID;
+    }
+
+    /**
+     * Returns the id following the ids of the documents of every file
+     *
+     * @return next document id
+     */
+    public int getNextDocID() {
+        return nextDocID;
+    }
+
+    /**
+     * Returns the DOCNO of the documents parsed
+     *
+     * @return table of document numbers
+     */
+    public DocNoTable getDocNos() {
+        return docNos;
+    }
+}
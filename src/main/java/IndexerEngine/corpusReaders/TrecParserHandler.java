@@ -0,0 +1,109 @@
+package IndexerEngine.corpusReaders;
+
+import IndexerEngine.documents.Document;
+import IndexerEngine.documents.TrecDocument;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.function.Consumer;
+
+/**
+ * Handler that parses the {@code <DOC>} elements of a TREC-style file, creating a document at the end of each one.
+ * As in the cranfield files, the text of a document is the concatenation of its title (TITLE or HEADLINE) and its
+ * TEXT. The document id is given by the reader before each DOC element is parsed, the DOCNO is kept in the
+ * document.
+ */
+
+public class TrecParserHandler extends DefaultHandler {
+    private final Consumer<Document> consumer;
+    private int docId;
+
+    private String docNo;
+    private final StringBuilder title;
+    private final StringBuilder body;
+    private StringBuilder field;                // builder of the field being read, null outside a field
+    private int fieldDepth;                     // depth of nested elements inside the field being read
+
+    /**
+     * Creates a handler that passes the documents parsed to a consumer
+     *
+     * @param consumer receives each document as soon as it is parsed
+     */
+    public TrecParserHandler(Consumer<Document> consumer) {
+        this.consumer = consumer;
+        this.title = new StringBuilder();
+        this.body = new StringBuilder();
+    }
+
+    /**
+     * Receive notification of the start of a document, each DOC element is parsed on its own. The state left by a
+     * DOC element that could not be parsed is discarded.
+     */
+    @Override
+    public void startDocument() throws SAXException {
+        field = null;
+        fieldDepth = 0;
+    }
+
+    /**
+     * Receive notification of the start of an element, starting to store the data of the fields needed
+     */
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        if (field != null) {
+            fieldDepth++;
+            return;
+        }
+
+        if (qName.equalsIgnoreCase("DOC")) {
+            docNo = null;
+            title.setLength(0);
+            body.setLength(0);
+        } else if (qName.equalsIgnoreCase("DOCNO")) {
+            field = new StringBuilder();
+        } else if (qName.equalsIgnoreCase("TITLE") || qName.equalsIgnoreCase("HEADLINE")) {
+            field = title;
+        } else if (qName.equalsIgnoreCase("TEXT")) {
+            field = body;
+        }
+    }
+
+    /**
+     * Receive notification of character data, appended to the field being read
+     */
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (field != null)
+            field.append(ch, start, length);
+    }
+
+    /**
+     * Receive notification of the end of an element, creating the document at the end of a DOC element
+     */
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        if (field != null) {
+            if (fieldDepth > 0) {
+                fieldDepth--;
+                return;
+            }
+            if (qName.equalsIgnoreCase("DOCNO"))
+                docNo = field.toString().trim();
+            field = null;
+            return;
+        }
+
+        if (qName.equalsIgnoreCase("DOC"))
+            consumer.accept(new TrecDocument(docId, docNo, title.toString() + body));
+    }
+
+    /**
+     * Sets the id of the document of the next DOC element
+     *
+     * @param docId document id
+     */
+    public void setDocId(int docId) {
+        this.docId = docId;
+    }
+}
@@ -0,0 +1,283 @@
+package IndexerEngine.corpusReaders;
+
+import IndexerEngine.documents.Document;
+import IndexerEngine.documents.TrecDocument;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * This class reads a file of a TREC-style corpus, a sequence of {@code <DOC>} elements without a root element,
+ * optionally compressed with gzip when the filename ends in {@code .gz}. The file is read as a stream and split in
+ * its {@code <DOC>} elements, each one parsed on its own and passed on as soon as its {@code </DOC>} is read, so the
+ * memory used does not depend on the size of the file. A document that is not well-formed XML is reported and
+ * skipped, the next documents are still read. Bare {@code &} and SGML entities such as {@code &hyph;}, common in
+ * TREC text, are accepted: the first is read as a literal {@code &} and the second as a space.
+ * <p>The documents are numbered by their position in the file or, when the reader is given the document ids of
+ * the corpus, by file and position in the corpus, with their DOCNO recorded in its table.</p>
+ *
+ * @see TrecParserHandler
+ * @see TrecDocumentIds
+ */
+
+public class TrecReader implements CorpusReader {
+    private static final Pattern DOC_START = Pattern.compile("<DOC[\\s>]", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DOC_END = Pattern.compile("</DOC\\s*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern XML_REFERENCE = Pattern.compile("&(amp|lt|gt|quot|apos|#[0-9]+|#x[0-9a-fA-F]+);");
+    private static final Pattern SGML_ENTITY = Pattern.compile("&[A-Za-z][A-Za-z0-9.-]*;");
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SAXParser saxParser;
+    private TrecDocumentIds docIds;
+
+    /**
+     * Creates a reader that numbers the documents of each file from 1, by their position in the file
+     */
+    public TrecReader() {
+        this(null);
+    }
+
+    /**
+     * Creates a reader that numbers the documents by file and position in the corpus, shared by the readers of
+     * several threads, and records their DOCNO
+     *
+     * @param docIds document ids of the corpus files, null to number the documents of each file from 1
+     */
+    public TrecReader(TrecDocumentIds docIds) {
+        this.docIds = docIds;
+        createSaxParser();
+    }
+
+    private void createSaxParser() {
+        try {
+            this.saxParser = SAXParserFactory.newInstance().newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            System.err.println("Unable to create document parser");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the first document of a file
+     *
+     * @param filename name of the file to be read/parsed
+     * @return the first document of the file or null if it has none or occurs an error while reading
+     */
+    @Override
+    public Document read(String filename) {
+        Document[] first = new Document[1];
+        try {
+            parse(filename, document -> {
+                first[0] = document;
+                throw new StopParsingException();
+            });
+        } catch (StopParsingException e) {
+            return first[0];
+        } catch (IOException e) {
+            System.err.println("Unable to read file: " + filename);
+        }
+        return first[0];
+    }
+
+    /**
+     * Reads a file passing each document to the consumer as soon as it is parsed
+     *
+     * @param filename name of the file to be read/parsed
+     * @param consumer receives the documents of the file in order
+     */
+    @Override
+    public void readDocuments(String filename, Consumer<Document> consumer) {
+        try {
+            parse(filename, consumer);
+        } catch (IOException e) {
+            System.err.println("Unable to read file: " + filename);
+        }
+    }
+
+    /**
+     * Counts the documents of a file, the DOC elements read by {@link #readDocuments}, including the ones that are
+     * not well-formed
+     *
+     * @param filename name of the file
+     * @return number of documents
+     * @throws IOException if the file can not be read
+     */
+    public static int countDocuments(String filename) throws IOException {
+        try (BufferedReader reader = open(filename)) {
+            DocumentSplitter splitter = new DocumentSplitter(reader);
+            int count = 0;
+            while (splitter.next() != null)
+                count++;
+            return count;
+        }
+    }
+
+    private void parse(String filename, Consumer<Document> consumer) throws IOException {
+        int firstDocId = docIds == null ? 1 : docIds.firstDocID(filename);
+        TrecParserHandler handler = new TrecParserHandler(docIds == null ? consumer : document -> {
+            if (((TrecDocument) document).getDocNo() != null)
+                docIds.getDocNos().set(document.getId(), ((TrecDocument) document).getDocNo());
+            consumer.accept(document);
+        });
+
+        try (BufferedReader reader = open(filename)) {
+            DocumentSplitter splitter = new DocumentSplitter(reader);
+            String document;
+            for (int position = 1; (document = splitter.next()) != null; position++) {
+                handler.setDocId(firstDocId + position - 1);
+                try {
+                    saxParser.parse(new InputSource(new StringReader(escapeEntities(document))), handler);
+                } catch (SAXException e) {
+                    System.err.println("Unable to parse document " + position + " of " + filename + ", skipped: " +
+                            e.getMessage());
+                }
+            }
+
+            if (splitter.hasUnterminatedDocument())
+                System.err.println("Unable to parse the last document of " + filename + ", skipped: missing </DOC>");
+        }
+    }
+
+    private static BufferedReader open(String filename) throws IOException {
+        InputStream file = new FileInputStream(filename);
+        try {
+            if (filename.endsWith(".gz"))
+                file = new GZIPInputStream(file, BUFFER_SIZE);
+            return new BufferedReader(new InputStreamReader(file, StandardCharsets.UTF_8), BUFFER_SIZE);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Makes the text of a document acceptable to the XML parser: the references predefined by XML are kept, the
+     * SGML entities are replaced by a space and any other {@code &} is escaped
+     *
+     * @param document text of a DOC element
+     * @return the text with every {@code &} starting a valid XML reference
+     */
+    static String escapeEntities(String document) {
+        int ampersand = document.indexOf('&');
+        if (ampersand < 0)
+            return document;
+
+        StringBuilder escaped = new StringBuilder(document.length() + 16);
+        Matcher xmlReference = XML_REFERENCE.matcher(document);
+        Matcher sgmlEntity = SGML_ENTITY.matcher(document);
+        int copied = 0;
+
+        for (; ampersand >= 0; ampersand = document.indexOf('&', ampersand + 1)) {
+            escaped.append(document, copied, ampersand);
+
+            xmlReference.region(ampersand, document.length());
+            sgmlEntity.region(ampersand, document.length());
+            if (xmlReference.lookingAt()) {
+                escaped.append(document, ampersand, xmlReference.end());
+                copied = xmlReference.end();
+            } else if (sgmlEntity.lookingAt()) {
+                escaped.append(' ');
+                copied = sgmlEntity.end();
+            } else {
+                escaped.append("&amp;");
+                copied = ampersand + 1;
+            }
+            ampersand = copied - 1;
+        }
+
+        return escaped.append(document, copied, document.length()).toString();
+    }
+
+    /**
+     * Splits the text of a file in its {@code <DOC>} elements, keeping in memory only the text of the document
+     * being read. Text outside the DOC elements is ignored.
+     */
+    private static class DocumentSplitter {
+        private final BufferedReader reader;
+        private final StringBuilder buffer;
+        private final char[] chunk;
+        private final Matcher start;
+        private final Matcher end;
+        private boolean endOfFile;
+
+        DocumentSplitter(BufferedReader reader) {
+            this.reader = reader;
+            this.buffer = new StringBuilder();
+            this.chunk = new char[BUFFER_SIZE];
+            this.start = DOC_START.matcher(buffer);
+            this.end = DOC_END.matcher(buffer);
+        }
+
+        /**
+         * Returns the next DOC element, from its start tag to its end tag
+         *
+         * @return text of the document, null at the end of the file
+         * @throws IOException if the file can not be read
+         */
+        String next() throws IOException {
+            int searchFrom = 0;
+
+            while (true) {
+                end.reset(buffer);
+                if (end.find(searchFrom)) {
+                    start.reset(buffer);
+                    String document = start.find() && start.start() < end.start()
+                            ? buffer.substring(start.start(), end.end()) : null;
+                    buffer.delete(0, end.end());
+                    searchFrom = 0;
+
+                    // an end tag without a start tag is ignored like the rest of the text outside the documents
+                    if (document != null)
+                        return document;
+                    continue;
+                }
+
+                if (endOfFile)
+                    return null;
+
+                // the end tag may be split between the text already read and the next chunk
+                searchFrom = Math.max(0, buffer.length() - 16);
+                int read = reader.read(chunk);
+                if (read < 0)
+                    endOfFile = true;
+                else
+                    buffer.append(chunk, 0, read);
+            }
+        }
+
+        /**
+         * Returns whether the file ended inside a document, after its start tag and before its end tag
+         *
+         * @return true if the last document has no end tag
+         */
+        boolean hasUnterminatedDocument() {
+            start.reset(buffer);
+            return endOfFile && start.find();
+        }
+    }
+
+    /**
+     * Thrown by the consumer to stop parsing after the first document
+     */
+    private static class StopParsingException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        StopParsingException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package IndexerEngine.documents;
+
+/**
+ * Document representation of a DOC element of a TREC-style corpus file
+ */
+
+public class TrecDocument extends Document {
+    private String docNo;
+
+    /**
+     * Creates a new instance of TrecDocument
+     *
+     * @param id    the document id
+     * @param docNo the document number in the collection, which may not be numeric
+     * @param text  the document text (concatenation of title and text)
+     */
+    public TrecDocument(int id, String docNo, String text) {
+        super(id, text);
+        this.docNo = docNo;
+    }
+
+    /**
+     * Returns the document number in the collection
+     *
+     * @return the DOCNO of the document
+     */
+    public String getDocNo() {
+        return docNo;
+    }
+}
@@ -0,0 +1,186 @@
+package IndexerEngine.indexer;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and variable byte codec of the binary index format.
+ * <p>The file starts with a header: magic number, format version, index type, tokenizer class name and number of
+ * documents. It is followed by one entry per term, in alphabetic order: the term, its document frequency, the
+ * length in bytes of its postings and the postings themselves. Each posting is the gap to the previous document id
+ * and the term frequency or the weight quantized to {@link #WEIGHT_SCALE}, both variable byte encoded. In a
+ * positional index the term frequency of a posting is followed by the gaps between the positions of the term in the
+ * document, also variable byte encoded.</p>
+ * <p>The positional postings were added in version 2, the version of the positional indexes. The other indexes are
+ * still written with version 1, which they share with the readers that do not know positional postings, and a
+ * reader rejects a file of a later version or of a type it does not know instead of decoding its postings.</p>
+ */
+public final class BinaryIndexFormat {
+    public static final int MAGIC = 0x52494258;                 // "RIBX"
+    public static final int VERSION = 2;
+    public static final int VERSION_WITHOUT_POSITIONS = 1;
+
+    public static final byte TYPE_TERM_FREQ = 0;
+    public static final byte TYPE_WT_NORM = 1;
+    public static final byte TYPE_POSITIONAL = 2;
+
+    // weights are stored with the same 5 decimal places precision as the text index
+    public static final double WEIGHT_SCALE = 100000.0;
+
+    private BinaryIndexFormat() {
+    }
+
+    /**
+     * Returns the version of the format written for a type of index, the first version that has its postings
+     *
+     * @param indexType type of the index
+     * @return format version
+     */
+    public static int version(byte indexType) {
+        return indexType == TYPE_POSITIONAL ? VERSION : VERSION_WITHOUT_POSITIONS;
+    }
+
+    /**
+     * Returns whether a version of the format has the postings of a type of index and can be read
+     *
+     * @param version format version of the file
+     * @param indexType type of the index of the file
+     * @return true if the postings can be decoded by {@link #readPostings}
+     */
+    public static boolean isSupported(int version, byte indexType) {
+        return version >= VERSION_WITHOUT_POSITIONS && version <= VERSION && (indexType == TYPE_TERM_FREQ ||
+                indexType == TYPE_WT_NORM || indexType == TYPE_POSITIONAL) && version >= version(indexType);
+    }
+
+    /**
+     * Quantizes a normalized weight to an integer
+     *
+     * @param weight weight normalized
+     * @return quantized weight
+     */
+    public static int quantizeWeight(double weight) {
+        return (int) Math.round(weight * WEIGHT_SCALE);
+    }
+
+    /**
+     * Restores a weight from its quantized value
+     *
+     * @param quantized quantized weight
+     * @return weight normalized
+     */
+    public static double dequantizeWeight(int quantized) {
+        return quantized / WEIGHT_SCALE;
+    }
+
+    /**
+     * Decodes the postings of a term from the current position of a buffer
+     *
+     * @param buffer input buffer positioned at the first posting
+     * @param indexType type of the index
+     * @param docFreq number of postings
+     * @return list of postings
+     */
+    public static PostingList readPostings(ByteBuffer buffer, byte indexType, int docFreq) {
+        int docID = 0;
+
+        if (indexType == TYPE_TERM_FREQ) {
+            TermFreqPostingList postings = new TermFreqPostingList();
+            postings.ensureCapacity(docFreq);
+            for (int i = 0; i < docFreq; i++) {
+                docID += readVByte(buffer);
+                postings.add(docID, readVByte(buffer));
+            }
+            return postings;
+        }
+
+        if (indexType == TYPE_POSITIONAL) {
+            PositionalPostingList postings = new PositionalPostingList();
+            postings.ensureCapacity(docFreq);
+            int[] positions = new int[16];
+            for (int i = 0; i < docFreq; i++) {
+                docID += readVByte(buffer);
+                int termFreq = readVByte(buffer);
+                if (termFreq > positions.length)
+                    positions = new int[termFreq];
+
+                int position = 0;
+                for (int p = 0; p < termFreq; p++) {
+                    position += readVByte(buffer);
+                    positions[p] = position;
+                }
+                postings.add(docID, positions, termFreq);
+            }
+            return postings;
+        }
+
+        WtNormPostingList postings = new WtNormPostingList();
+        postings.ensureCapacity(docFreq);
+        for (int i = 0; i < docFreq; i++) {
+            docID += readVByte(buffer);
+            postings.add(docID, dequantizeWeight(readVByte(buffer)));
+        }
+        return postings;
+    }
+
+    /**
+     * Writes a non negative integer using variable byte encoding, 7 bits per byte with the high bit set on the
+     * last byte
+     *
+     * @param out output stream
+     * @param value value to be encoded
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeVByte(OutputStream out, int value) throws IOException {
+        while (value >= 0x80) {
+            out.write(value & 0x7F);
+            value >>>= 7;
+        }
+        out.write(value | 0x80);
+    }
+
+    /**
+     * Reads a variable byte encoded integer from the current position of a buffer
+     *
+     * @param buffer input buffer
+     * @return decoded value
+     */
+    public static int readVByte(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        while (((b = buffer.get() & 0xFF) & 0x80) == 0) {
+            value |= b << shift;
+            shift += 7;
+        }
+        return value | ((b & 0x7F) << shift);
+    }
+
+    /**
+     * Reads a string written with {@link java.io.DataOutput#writeUTF(String)}
+     *
+     * @param buffer input buffer
+     * @return decoded string
+     * @throws IOException if the string is malformed
+     */
+    public static String readUTF(ByteBuffer buffer) throws IOException {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        for (byte b : bytes) {
+            if (b <= 0) {
+                // only the ASCII range has the same representation in modified UTF-8 and UTF-8
+                byte[] withLength = new byte[length + 2];
+                withLength[0] = (byte) (length >>> 8);
+                withLength[1] = (byte) length;
+                System.arraycopy(bytes, 0, withLength, 2, length);
+                return DataInputStream.readUTF(new DataInputStream(new ByteArrayInputStream(withLength)));
+            }
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
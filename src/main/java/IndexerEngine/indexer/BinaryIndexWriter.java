@@ -0,0 +1,102 @@
+package IndexerEngine.indexer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes an index file in the binary format, one term at a time. Terms must be written in alphabetic order and
+ * the postings of each term ordered by document id.
+ *
+ * @see BinaryIndexFormat
+ */
+public class BinaryIndexWriter implements Closeable {
+    private DataOutputStream out;
+    private ByteArrayOutputStream postingsBuffer;
+
+    /**
+     * Creates the index file and writes its header
+     *
+     * @param filename output file name
+     * @param indexType type of the index, {@link BinaryIndexFormat#TYPE_TERM_FREQ},
+     *                  {@link BinaryIndexFormat#TYPE_WT_NORM} or {@link BinaryIndexFormat#TYPE_POSITIONAL}
+     * @param tokenizerName tokenizer class name
+     * @param n_docs number of documents indexed
+     * @throws IOException if the file can not be written
+     */
+    public BinaryIndexWriter(String filename, byte indexType, String tokenizerName, int n_docs) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16));
+        this.postingsBuffer = new ByteArrayOutputStream();
+
+        out.writeInt(BinaryIndexFormat.MAGIC);
+        out.writeInt(BinaryIndexFormat.version(indexType));
+        out.writeByte(indexType);
+        out.writeUTF(tokenizerName);
+        out.writeInt(n_docs);
+    }
+
+    /**
+     * Writes a term and its postings
+     *
+     * @param term term
+     * @param docIDs document ids ordered increasingly
+     * @param values term frequencies or quantized weights of each posting
+     * @param size number of postings
+     * @throws IOException if the file can not be written
+     */
+    public void writeTerm(String term, int[] docIDs, int[] values, int size) throws IOException {
+        postingsBuffer.reset();
+
+        int lastDocID = 0;
+        for (int i = 0; i < size; i++) {
+            BinaryIndexFormat.writeVByte(postingsBuffer, docIDs[i] - lastDocID);
+            BinaryIndexFormat.writeVByte(postingsBuffer, values[i]);
+            lastDocID = docIDs[i];
+        }
+
+        writeEntry(term, size);
+    }
+
+    /**
+     * Writes a term and its postings with positions, copying the positions already encoded in the list
+     *
+     * @param term term
+     * @param postings postings ordered by document id
+     * @throws IOException if the file can not be written
+     */
+    public void writeTerm(String term, PositionalPostingList postings) throws IOException {
+        postingsBuffer.reset();
+
+        int lastDocID = 0;
+        for (int i = 0; i < postings.size(); i++) {
+            BinaryIndexFormat.writeVByte(postingsBuffer, postings.getDocID(i) - lastDocID);
+            BinaryIndexFormat.writeVByte(postingsBuffer, postings.getTermFreq(i));
+            postings.writePositions(postingsBuffer, i);
+            lastDocID = postings.getDocID(i);
+        }
+
+        writeEntry(term, postings.size());
+    }
+
+    /**
+     * Writes the entry of a term with the postings encoded in the buffer
+     *
+     * @param term term
+     * @param size number of postings
+     * @throws IOException if the file can not be written
+     */
+    private void writeEntry(String term, int size) throws IOException {
+        out.writeUTF(term);
+        BinaryIndexFormat.writeVByte(out, size);
+        BinaryIndexFormat.writeVByte(out, postingsBuffer.size());
+        postingsBuffer.writeTo(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,131 @@
+package IndexerEngine.indexer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Table with the document number in the collection, the DOCNO, of each document of an index of a TREC-style
+ * corpus, whose document ids are given by the indexer. TREC relevance judgments are keyed by DOCNO, so the table
+ * matches them with the document ids of the results. The table is saved alongside the index, in a text file with
+ * the name of the index followed by {@link #EXTENSION}, with one line, docID DOCNO, per document in increasing
+ * document id. The documents can be added by several threads.
+ */
+public class DocNoTable {
+    public static final String EXTENSION = ".docnos";
+
+    private String[] docNos;
+    private BitSet docIDs;
+
+    public DocNoTable() {
+        this.docNos = new String[1024];
+        this.docIDs = new BitSet();
+    }
+
+    /**
+     * Returns the name of the file of the table saved alongside an index file
+     *
+     * @param indexFile index filename
+     * @return filename of the table
+     */
+    public static String filename(String indexFile) {
+        return indexFile + EXTENSION;
+    }
+
+    /**
+     * Reads a table saved with {@link #save(String)}
+     *
+     * @param filename filename of the table
+     * @return the table read
+     * @throws IOException if the file can not be read or has an invalid line
+     */
+    public static DocNoTable read(String filename) throws IOException {
+        DocNoTable table = new DocNoTable();
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                table.set(Integer.parseInt(line.substring(0, separator)), line.substring(separator + 1));
+            }
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IOException("Invalid line in the table of document numbers " + filename);
+        }
+        return table;
+    }
+
+    /**
+     * Saves the table to a file
+     *
+     * @param filename filename of the table
+     * @throws IOException if the file can not be written
+     */
+    public synchronized void save(String filename) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(filename),
+                StandardCharsets.UTF_8))) {
+            for (int docID = docIDs.nextSetBit(0); docID >= 0; docID = docIDs.nextSetBit(docID + 1))
+                writer.println(docID + " " + docNos[docID]);
+        }
+    }
+
+    /**
+     * Stores the DOCNO of a document, replacing the previous one
+     *
+     * @param docID document id
+     * @param docNo document number in the collection
+     */
+    public synchronized void set(int docID, String docNo) {
+        if (docID >= docNos.length)
+            docNos = Arrays.copyOf(docNos, Math.max(docID + 1, docNos.length * 2));
+
+        docNos[docID] = docNo;
+        docIDs.set(docID);
+    }
+
+    /**
+     * Adds the documents of another table, replacing the DOCNO of the documents present in both
+     *
+     * @param other table of document numbers
+     */
+    public synchronized void addAll(DocNoTable other) {
+        for (int docID = other.docIDs.nextSetBit(0); docID >= 0; docID = other.docIDs.nextSetBit(docID + 1))
+            set(docID, other.docNos[docID]);
+    }
+
+    /**
+     * Removes a set of documents
+     *
+     * @param removed documents removed
+     */
+    public synchronized void remove(BitSet removed) {
+        for (int docID = removed.nextSetBit(0); docID >= 0; docID = removed.nextSetBit(docID + 1)) {
+            if (docID < docNos.length)
+                docNos[docID] = null;
+        }
+        docIDs.andNot(removed);
+    }
+
+    /**
+     * Returns the DOCNO of a document
+     *
+     * @param docID document id
+     * @return document number in the collection, null if the document is not in the table
+     */
+    public synchronized String get(int docID) {
+        return docID < docNos.length ? docNos[docID] : null;
+    }
+
+    /**
+     * Returns the number of documents of the table
+     *
+     * @return number of documents
+     */
+    public synchronized int size() {
+        return docIDs.cardinality();
+    }
+}
@@ -0,0 +1,225 @@
+package IndexerEngine.indexer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Table with the length of each document, the number of terms indexed for it, and the average length, used to
+ * normalize the scores by the length of the documents. The table is saved alongside a term frequency index, in a
+ * file with the name of the index followed by {@link #EXTENSION}.
+ * <p>The file has a header, magic number, number of documents, sum of the lengths and average length, followed by
+ * one entry per document in increasing document id: the gap to the previous document id and the length, both
+ * variable byte encoded as in the {@link BinaryIndexFormat}.</p>
+ */
+public class DocumentLengths {
+    public static final int MAGIC = 0x5249444C;                 // "RIDL"
+    public static final String EXTENSION = ".lengths";
+
+    private int[] lengths;
+    private BitSet docIDs;
+    private long totalLength;
+
+    public DocumentLengths() {
+        this.lengths = new int[1024];
+        this.docIDs = new BitSet();
+        this.totalLength = 0;
+    }
+
+    /**
+     * Computes the length of the documents of a term frequency index, the sum of the term frequencies of their
+     * postings
+     *
+     * @param indexer term frequency index
+     * @return table with the length of each document of the index
+     */
+    public static DocumentLengths of(Indexer indexer) {
+        DocumentLengths documentLengths = new DocumentLengths();
+
+        for (String term : indexer.getTerms()) {
+            PostingList postings = indexer.getTermPostings(term);
+            for (int i = 0; i < postings.size(); i++)
+                documentLengths.add(postings.getDocID(i), postings.getTermFreq(i));
+        }
+        return documentLengths;
+    }
+
+    /**
+     * Returns the name of the file of the table saved alongside an index file
+     *
+     * @param indexFile index filename
+     * @return filename of the table
+     */
+    public static String filename(String indexFile) {
+        return indexFile + EXTENSION;
+    }
+
+    /**
+     * Reads the table saved alongside an index file or, if there is none, computes it from the index. For a
+     * segmented index the tables of the segments are joined in the order of the manifest, so the length of a
+     * replaced document is the one of its newest copy, and the deleted documents are removed.
+     *
+     * @param indexFile index filename, or the manifest filename of a segmented index
+     * @param indexer term frequency index read from the file
+     * @return table with the length of each document of the index
+     * @throws IOException if the file of a table or the manifest can not be read
+     */
+    public static DocumentLengths load(String indexFile, Indexer indexer) throws IOException {
+        if (indexer instanceof SegmentedIndexer) {
+            List<String> paths = SegmentManifest.read(indexFile).segmentPaths(indexFile);
+            List<Indexer> segments = ((SegmentedIndexer) indexer).getSegments();
+
+            DocumentLengths documentLengths = new DocumentLengths();
+            for (int i = 0; i < segments.size(); i++)
+                documentLengths.addAll(load(paths.get(i), segments.get(i)));
+            documentLengths.remove(indexer.getDeletedDocs());
+            return documentLengths;
+        }
+
+        if (Files.exists(Paths.get(filename(indexFile))))
+            return read(filename(indexFile));
+        return of(indexer);
+    }
+
+    /**
+     * Reads a table saved with {@link #save(String)}
+     *
+     * @param filename filename of the table
+     * @return the table read
+     * @throws IOException if the file can not be read or is not a table of document lengths
+     */
+    public static DocumentLengths read(String filename) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename)));
+
+        if (buffer.remaining() < 24 || buffer.getInt() != MAGIC)
+            throw new IOException("The file " + filename + " is not a table of document lengths");
+
+        int n_docs = buffer.getInt();
+        buffer.getLong();                                       // sum of the lengths, recomputed from the entries
+        buffer.getDouble();                                     // average length, idem
+
+        DocumentLengths documentLengths = new DocumentLengths();
+        int docID = 0;
+        for (int i = 0; i < n_docs; i++) {
+            docID += BinaryIndexFormat.readVByte(buffer);
+            documentLengths.set(docID, BinaryIndexFormat.readVByte(buffer));
+        }
+        return documentLengths;
+    }
+
+    /**
+     * Saves the table to a file
+     *
+     * @param filename filename of the table
+     * @throws IOException if the file can not be written
+     */
+    public void save(String filename) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(size());
+            out.writeLong(totalLength);
+            out.writeDouble(getAverageLength());
+
+            int lastDocID = 0;
+            for (int docID = docIDs.nextSetBit(0); docID >= 0; docID = docIDs.nextSetBit(docID + 1)) {
+                BinaryIndexFormat.writeVByte(out, docID - lastDocID);
+                BinaryIndexFormat.writeVByte(out, lengths[docID]);
+                lastDocID = docID;
+            }
+        }
+    }
+
+    /**
+     * Adds terms to the length of a document
+     *
+     * @param docID document id
+     * @param terms number of terms added
+     */
+    public void add(int docID, int terms) {
+        set(docID, get(docID) + terms);
+    }
+
+    /**
+     * Stores the length of a document, replacing the previous one
+     *
+     * @param docID document id
+     * @param length number of terms of the document
+     */
+    public void set(int docID, int length) {
+        if (docID >= lengths.length)
+            lengths = Arrays.copyOf(lengths, Math.max(docID + 1, lengths.length * 2));
+
+        totalLength += length - lengths[docID];
+        lengths[docID] = length;
+        docIDs.set(docID);
+    }
+
+    /**
+     * Adds the lengths of another table, replacing the lengths of the documents present in both
+     *
+     * @param other table of document lengths
+     */
+    public void addAll(DocumentLengths other) {
+        for (int docID = other.docIDs.nextSetBit(0); docID >= 0; docID = other.docIDs.nextSetBit(docID + 1))
+            set(docID, other.lengths[docID]);
+    }
+
+    /**
+     * Removes the lengths of a set of documents
+     *
+     * @param removed documents removed
+     */
+    public void remove(BitSet removed) {
+        for (int docID = removed.nextSetBit(0); docID >= 0; docID = removed.nextSetBit(docID + 1)) {
+            if (docIDs.get(docID)) {
+                totalLength -= lengths[docID];
+                lengths[docID] = 0;
+                docIDs.clear(docID);
+            }
+        }
+    }
+
+    /**
+     * Returns the length of a document
+     *
+     * @param docID document id
+     * @return number of terms of the document, 0 if the document is not in the table
+     */
+    public int get(int docID) {
+        return docID < lengths.length ? lengths[docID] : 0;
+    }
+
+    /**
+     * Returns the highest document id of the table
+     *
+     * @return highest document id, -1 if the table is empty
+     */
+    public int maxDocID() {
+        return docIDs.length() - 1;
+    }
+
+    /**
+     * Returns the number of documents of the table
+     *
+     * @return number of documents
+     */
+    public int size() {
+        return docIDs.cardinality();
+    }
+
+    /**
+     * Returns the average length of the documents
+     *
+     * @return average number of terms per document, 0 if the table is empty
+     */
+    public double getAverageLength() {
+        return size() == 0 ? 0.0 : (double) totalLength / size();
+    }
+}
@@ -0,0 +1,337 @@
+package IndexerEngine.indexer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Impact-ordered version of a weighted index, used to score the queries score-at-a-time. The weights are quantized
+ * to 8 bits, impacts from 1 to {@link #MAX_IMPACT}, uniformly over the highest weight of the index, and the
+ * postings of each term are grouped in segments of postings with the same impact, in decreasing order of impact,
+ * with the documents of a segment in increasing order.
+ * <p>The file has a header, magic number, format version, tokenizer class name, number of documents, weight of an
+ * impact of 1 and number of terms, followed by one entry per term, in alphabetic order: the term, its document
+ * frequency and number of segments and, for each segment, its impact, number of postings and the gaps between its
+ * document ids, variable byte encoded as in the {@link BinaryIndexFormat}.</p>
+ * <p>The index is read-only, the terms are kept in a {@link TermDictionary} and the postings by term id.</p>
+ */
+public class ImpactOrderedIndex {
+    public static final int MAGIC = 0x52494958;                 // "RIIX"
+    public static final int VERSION = 1;
+    public static final int MAX_IMPACT = 255;
+
+    private String tokenizerName;
+    private int n_docs;
+    private double impactWeight;
+    private TermDictionary dictionary;
+    private ImpactPostings[] postingsByTermID;
+
+    public ImpactOrderedIndex(String tokenizerName, int n_docs, double impactWeight, TermDictionary dictionary,
+                              ImpactPostings[] postingsByTermID) {
+        this.tokenizerName = tokenizerName;
+        this.n_docs = n_docs;
+        this.impactWeight = impactWeight;
+        this.dictionary = dictionary;
+        this.postingsByTermID = postingsByTermID;
+    }
+
+    /**
+     * Quantizes the weights of a weighted index and orders its postings by impact
+     *
+     * @param indexer weighted index
+     * @param tokenizerName tokenizer class name used to build the index
+     * @return impact-ordered index
+     */
+    public static ImpactOrderedIndex of(Indexer indexer, String tokenizerName) {
+        double maxWeight = 0.0;
+        for (String term : indexer.getTerms())
+            maxWeight = Math.max(maxWeight, ((WtNormPostingList) indexer.getTermPostings(term)).getMaxWeight());
+
+        double impactWeight = maxWeight == 0.0 ? 1.0 : maxWeight / MAX_IMPACT;
+        TermDictionary dictionary = TermDictionary.of(indexer.getTerms());
+        ImpactPostings[] postingsByTermID = new ImpactPostings[dictionary.size()];
+
+        int termID = 0;
+        for (String term : dictionary) {
+            PostingList postings = indexer.getTermPostings(term);
+            postings.sort();
+
+            int[] impacts = new int[postings.size()];
+            int[] counts = new int[MAX_IMPACT + 1];
+            for (int i = 0; i < postings.size(); i++) {
+                impacts[i] = quantize(postings.getWeight(i), impactWeight);
+                counts[impacts[i]]++;
+            }
+
+            // counting sort by decreasing impact, the documents of each impact stay in increasing order
+            int nSegments = 0;
+            for (int impact = MAX_IMPACT; impact >= 1; impact--) {
+                if (counts[impact] > 0)
+                    nSegments++;
+            }
+
+            ImpactPostings ordered = new ImpactPostings(nSegments, postings.size());
+            int[] next = new int[MAX_IMPACT + 1];
+            int offset = 0;
+            int segment = 0;
+            for (int impact = MAX_IMPACT; impact >= 1; impact--) {
+                if (counts[impact] == 0)
+                    continue;
+                ordered.impacts[segment] = (byte) impact;
+                ordered.segmentStarts[segment++] = offset;
+                next[impact] = offset;
+                offset += counts[impact];
+            }
+            ordered.segmentStarts[nSegments] = offset;
+
+            for (int i = 0; i < postings.size(); i++)
+                ordered.docIDs[next[impacts[i]]++] = postings.getDocID(i);
+
+            postingsByTermID[termID++] = ordered;
+        }
+
+        return new ImpactOrderedIndex(tokenizerName, indexer.getN_docs(), impactWeight, dictionary, postingsByTermID);
+    }
+
+    /**
+     * Quantizes a weight to an impact, a weight greater than 0 has at least an impact of 1
+     *
+     * @param weight weight normalized
+     * @param impactWeight weight of an impact of 1
+     * @return impact between 1 and {@link #MAX_IMPACT}
+     */
+    private static int quantize(double weight, double impactWeight) {
+        return Math.max(1, Math.min(MAX_IMPACT, (int) Math.round(weight / impactWeight)));
+    }
+
+    /**
+     * Reads an impact-ordered index saved with {@link #save(String)}
+     *
+     * @param filename index filename
+     * @return the index read
+     * @throws IOException if the file can not be read or is not an impact-ordered index
+     */
+    public static ImpactOrderedIndex read(String filename) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename)));
+
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC)
+            throw new IOException("The file " + filename + " is not an impact-ordered index");
+        if (buffer.getInt() != VERSION)
+            throw new IOException("Unsupported version of the impact-ordered index " + filename);
+
+        String tokenizerName = BinaryIndexFormat.readUTF(buffer);
+        int n_docs = buffer.getInt();
+        double impactWeight = buffer.getDouble();
+        int n_terms = buffer.getInt();
+
+        List<String> terms = new ArrayList<>(n_terms);
+        ImpactPostings[] postingsByTermID = new ImpactPostings[n_terms];
+        for (int t = 0; t < n_terms; t++) {
+            terms.add(BinaryIndexFormat.readUTF(buffer));
+            int docFreq = BinaryIndexFormat.readVByte(buffer);
+            int nSegments = BinaryIndexFormat.readVByte(buffer);
+
+            ImpactPostings postings = new ImpactPostings(nSegments, docFreq);
+            int offset = 0;
+            for (int s = 0; s < nSegments; s++) {
+                postings.impacts[s] = buffer.get();
+                postings.segmentStarts[s] = offset;
+
+                int count = BinaryIndexFormat.readVByte(buffer);
+                int docID = 0;
+                for (int i = 0; i < count; i++) {
+                    docID += BinaryIndexFormat.readVByte(buffer);
+                    postings.docIDs[offset++] = docID;
+                }
+            }
+            postings.segmentStarts[nSegments] = offset;
+            postingsByTermID[t] = postings;
+        }
+
+        TermDictionary dictionary = TermDictionary.ofSorted(terms, TermDictionary.DEFAULT_BLOCK_SIZE);
+        return new ImpactOrderedIndex(tokenizerName, n_docs, impactWeight, dictionary, postingsByTermID);
+    }
+
+    /**
+     * Saves the index to a file
+     *
+     * @param filename index filename
+     * @throws IOException if the file can not be written
+     */
+    public void save(String filename) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(tokenizerName);
+            out.writeInt(n_docs);
+            out.writeDouble(impactWeight);
+            out.writeInt(dictionary.size());
+
+            // the dictionary iterates the terms in alphabetic order, by term id
+            int termID = 0;
+            for (String term : dictionary) {
+                ImpactPostings postings = postingsByTermID[termID++];
+                out.writeUTF(term);
+                BinaryIndexFormat.writeVByte(out, postings.size());
+                BinaryIndexFormat.writeVByte(out, postings.segments());
+
+                for (int s = 0; s < postings.segments(); s++) {
+                    out.writeByte(postings.impacts[s]);
+                    BinaryIndexFormat.writeVByte(out, postings.end(s) - postings.start(s));
+
+                    int lastDocID = 0;
+                    for (int i = postings.start(s); i < postings.end(s); i++) {
+                        BinaryIndexFormat.writeVByte(out, postings.docIDs[i] - lastDocID);
+                        lastDocID = postings.docIDs[i];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the postings of a term
+     *
+     * @param term term
+     * @return postings ordered by impact, null if the term is not indexed
+     */
+    public ImpactPostings getTermPostings(String term) {
+        int termID = dictionary.getTermID(term);
+        return termID < 0 ? null : postingsByTermID[termID];
+    }
+
+    /**
+     * Returns the term id of a term, its position in the dictionary
+     *
+     * @param term term
+     * @return term id, -1 if the term is not indexed
+     */
+    public int getTermID(String term) {
+        return dictionary.getTermID(term);
+    }
+
+    /**
+     * Returns the postings of a term id returned by {@link #getTermID(String)}
+     *
+     * @param termID term id
+     * @return postings ordered by impact
+     */
+    public ImpactPostings getTermPostings(int termID) {
+        return postingsByTermID[termID];
+    }
+
+    /**
+     * Returns the number of documents with a term id returned by {@link #getTermID(String)}
+     *
+     * @param termID term id
+     * @return document frequency
+     */
+    public int getDocFreq(int termID) {
+        return postingsByTermID[termID].size();
+    }
+
+    /**
+     * Returns the number of documents with a term
+     *
+     * @param term term
+     * @return document frequency, 0 if the term is not indexed
+     */
+    public int getDocFreq(String term) {
+        ImpactPostings postings = getTermPostings(term);
+        return postings == null ? 0 : postings.size();
+    }
+
+    public Set<String> getTerms() {
+        return dictionary.asSet();
+    }
+
+    public String getTokenizerName() {
+        return tokenizerName;
+    }
+
+    public int getN_docs() {
+        return n_docs;
+    }
+
+    /**
+     * Returns the weight of an impact of 1, the weight of a posting is its impact multiplied by this value
+     *
+     * @return weight of an impact of 1
+     */
+    public double getImpactWeight() {
+        return impactWeight;
+    }
+
+    public int size() {
+        return dictionary.size();
+    }
+
+    /**
+     * Postings of a term grouped in segments of the same impact, in decreasing order of impact
+     */
+    public static final class ImpactPostings {
+        private final byte[] impacts;
+        private final int[] segmentStarts;      // offset of the first posting of each segment, and the end
+        private final int[] docIDs;
+
+        ImpactPostings(int nSegments, int size) {
+            this.impacts = new byte[nSegments];
+            this.segmentStarts = new int[nSegments + 1];
+            this.docIDs = new int[size];
+        }
+
+        /**
+         * Returns the number of segments
+         *
+         * @return number of distinct impacts of the postings
+         */
+        public int segments() {
+            return impacts.length;
+        }
+
+        /**
+         * Returns the impact of the postings of a segment
+         *
+         * @param segment position of the segment
+         * @return impact between 1 and {@link #MAX_IMPACT}
+         */
+        public int impact(int segment) {
+            return impacts[segment] & 0xFF;
+        }
+
+        /**
+         * Returns the position of the first posting of a segment
+         *
+         * @param segment position of the segment
+         * @return position of the first posting
+         */
+        public int start(int segment) {
+            return segmentStarts[segment];
+        }
+
+        /**
+         * Returns the position after the last posting of a segment
+         *
+         * @param segment position of the segment
+         * @return end of the segment
+         */
+        public int end(int segment) {
+            return segmentStarts[segment + 1];
+        }
+
+        public int getDocID(int i) {
+            return docIDs[i];
+        }
+
+        public int size() {
+            return docIDs.length;
+        }
+    }
+}
@@ -1,26 +1,43 @@
 package IndexerEngine.indexer;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * Abstract class that represents in a general way an indexer
+ * Abstract class that represents in a general way an indexer. The terms are interned in a {@link Vocabulary} that
+ * gives each one a term id and the lists of postings are kept in an array indexed by term id.
  * 
  */
 public abstract class Indexer {
-    protected Map<String, List<Posting>> invertedIndex;
+    // approximate heap cost of a posting (array slots plus growth slack) and of a new term entry
+    private static final long POSTING_BYTES = 10;
+    private static final long TERM_BYTES = 128;
+
+    protected Vocabulary vocabulary;
+    protected PostingList[] postingLists;       // by term id, null for the terms left without postings
+    protected int n_terms;
     protected int n_docs;
+    protected long n_postings;
     protected String tokenizerName;
+    protected BitSet deletedDocs;
 
     public Indexer() {
-        this.invertedIndex = new HashMap<>();
+        this.vocabulary = new Vocabulary();
+        this.postingLists = new PostingList[256];
+        this.n_terms = 0;
         this.n_docs = 0;
+        this.n_postings = 0;
         this.tokenizerName = "";
+        this.deletedDocs = new BitSet();
     }
 
     /**
@@ -31,14 +48,135 @@ public abstract class Indexer {
      */
     public abstract void index(List<String> terms, int docID);
 
+    /**
+     * Abstract method that should return the type of the index stored in the binary index format
+     *
+     * @return index type
+     * @see BinaryIndexFormat
+     */
+    public abstract byte getIndexType();
+
     /**
      * Add to the index structure a new entry
      *
      * @param term word that appear in the document
      * @param postings list of postings
      */
-    public void addToIndex(String term, List<Posting> postings) {
-        invertedIndex.put(term, postings);
+    public void addToIndex(String term, PostingList postings) {
+        setPostings(addTerm(term), postings);
+        n_postings += postings.size();
+    }
+
+    /**
+     * Returns the term id of a term, adding it to the vocabulary when it is new
+     *
+     * @param term term
+     * @return term id, with room for its list of postings
+     */
+    protected int addTerm(String term) {
+        int termID = vocabulary.add(term);
+        if (termID >= postingLists.length)
+            postingLists = Arrays.copyOf(postingLists, Math.max(termID + 1, postingLists.length * 2));
+        return termID;
+    }
+
+    /**
+     * Sets the list of postings of a term id returned by {@link #addTerm(String)}
+     *
+     * @param termID term id
+     * @param postings list of postings
+     */
+    protected void setPostings(int termID, PostingList postings) {
+        if (postingLists[termID] == null)
+            n_terms++;
+        postingLists[termID] = postings;
+    }
+
+    /**
+     * Merges a partial index built over a disjoint set of documents into this one. The postings of each term are
+     * appended to the existing list and are only ordered by document id when the index is saved.
+     *
+     * @param other partial index to be merged
+     */
+    public void merge(Indexer other) {
+        for (int otherID = 0; otherID < other.vocabulary.size(); otherID++) {
+            PostingList otherPostings = other.postingLists[otherID];
+            if (otherPostings == null)
+                continue;
+
+            int termID = addTerm(other.vocabulary.getTerm(otherID));
+            PostingList postings = postingLists[termID];
+
+            if (postings == null)
+                setPostings(termID, otherPostings);
+            else
+                postings.append(otherPostings);
+        }
+        n_docs += other.n_docs;
+        n_postings += other.n_postings;
+    }
+
+    /**
+     * Physically removes the postings of a set of documents of this index, dropping the terms left without
+     * postings, so the document frequencies and the number of documents no longer count them
+     *
+     * @param docIDs documents of this index to be removed
+     */
+    public void removeDocuments(BitSet docIDs) {
+        if (docIDs.isEmpty())
+            return;
+
+        for (int termID = 0; termID < vocabulary.size(); termID++) {
+            PostingList postings = postingLists[termID];
+            if (postings == null)
+                continue;
+            int size = postings.size();
+
+            postings.removeDocs(docIDs, 0);
+            n_postings -= size - postings.size();
+
+            // the term keeps its id, its postings are created again if it is indexed again
+            if (postings.size() == 0) {
+                postingLists[termID] = null;
+                n_terms--;
+            }
+        }
+        n_docs -= docIDs.cardinality();
+    }
+
+    /**
+     * Returns the documents with at least one posting in the index
+     *
+     * @return set of document ids
+     */
+    public BitSet getDocIDs() {
+        BitSet docIDs = new BitSet();
+        for (String term : getTerms()) {
+            PostingList postings = getTermPostings(term);
+            for (int i = 0; i < postings.size(); i++)
+                docIDs.set(postings.getDocID(i));
+        }
+        return docIDs;
+    }
+
+    /**
+     * Returns an estimate of the heap memory used by the index structure
+     *
+     * @return estimated memory used in bytes
+     */
+    public long estimatedMemoryUsage() {
+        return n_postings * POSTING_BYTES + n_terms * TERM_BYTES;
+    }
+
+    /**
+     * Removes all the terms and postings of the index and resets the number of documents processed
+     */
+    public void clear() {
+        vocabulary = new Vocabulary();
+        postingLists = new PostingList[256];
+        n_terms = 0;
+        n_docs = 0;
+        n_postings = 0;
     }
 
     /**
@@ -47,8 +185,117 @@ public abstract class Indexer {
      * @param term word to obtain the list of postings
      * @return list of postings of the term
      */
-    public List<Posting> getTermPostings(String term) {
-        return invertedIndex.get(term);
+    public PostingList getTermPostings(String term) {
+        int termID = getTermID(term);
+        return termID < 0 ? null : getTermPostings(termID);
+    }
+
+    /**
+     * Returns the term id of a term, so its postings and document frequency are looked up without hashing it again
+     *
+     * @param term word to obtain the term id
+     * @return term id, -1 if the term is not indexed
+     */
+    public int getTermID(String term) {
+        int termID = vocabulary.getTermID(term);
+        return termID >= 0 && postingLists[termID] != null ? termID : -1;
+    }
+
+    /**
+     * Returns the term with a term id
+     *
+     * @param termID term id
+     * @return term
+     */
+    public String getTerm(int termID) {
+        return vocabulary.getTerm(termID);
+    }
+
+    /**
+     * Get the list of postings of a term id returned by {@link #getTermID(String)}
+     *
+     * @param termID term id
+     * @return list of postings of the term
+     */
+    public PostingList getTermPostings(int termID) {
+        return postingLists[termID];
+    }
+
+    /**
+     * Returns the number of documents where a term id returned by {@link #getTermID(String)} appears
+     *
+     * @param termID term id
+     * @return document frequency of the term
+     */
+    public int getDocFreq(int termID) {
+        return postingLists[termID].size();
+    }
+
+    /**
+     * Returns the number of documents where the term appears
+     *
+     * @param term word to obtain the document frequency
+     * @return document frequency of the term, 0 if the term is not indexed
+     */
+    public int getDocFreq(String term) {
+        int termID = getTermID(term);
+        return termID < 0 ? 0 : getDocFreq(termID);
+    }
+
+    /**
+     * Returns the terms of the index
+     *
+     * @return set of the indexed terms
+     */
+    public Set<String> getTerms() {
+        return new AbstractSet<String>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && getTermID((String) o) >= 0;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int next = advance(0);
+
+                    private int advance(int termID) {
+                        while (termID < vocabulary.size() && postingLists[termID] == null)
+                            termID++;
+                        return termID;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < vocabulary.size();
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        String term = vocabulary.getTerm(next);
+                        next = advance(next + 1);
+                        return term;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return n_terms;
+            }
+        };
+    }
+
+    /**
+     * Returns the terms of the index that start with a prefix, every term of the vocabulary is scanned
+     *
+     * @param prefix prefix of the terms
+     * @return terms with the prefix in alphabetic order
+     */
+    public List<String> getTermsWithPrefix(String prefix) {
+        return getTerms().stream().filter(term -> term.startsWith(prefix)).sorted().collect(Collectors.toList());
     }
 
     /**
@@ -57,7 +304,7 @@ public abstract class Indexer {
      * @return the size of the IndexerEngine.indexer (the number of key-value mappings)
      */
     public int size() {
-        return invertedIndex.size();
+        return n_terms;
     }
 
     /**
@@ -67,7 +314,8 @@ public abstract class Indexer {
      */
     @Override
     public String toString() {
-        return invertedIndex.toString();
+        return getTerms().stream().map(term -> term + "=" + getTermPostings(term))
+                .collect(Collectors.joining(", ", "{", "}"));
     }
 
     /**
@@ -80,7 +328,7 @@ public abstract class Indexer {
     public void saveToFile(String filename, String tokenizerName) {
 
         try(PrintWriter writer = new PrintWriter(filename)) {
-            List<String> orderedKeys = invertedIndex.keySet().stream().sorted().collect(Collectors.toList());
+            List<String> orderedKeys = getTerms().stream().sorted().collect(Collectors.toList());
 
             writer.println(tokenizerName + " " + n_docs);
 
@@ -88,14 +336,16 @@ public abstract class Indexer {
 
                 StringBuilder builder = new StringBuilder(key).append(" ");
 
-                Collections.sort(invertedIndex.get(key));
+                PostingList postings = getTermPostings(key);
+                postings.sort();
 
-                invertedIndex.get(key).forEach(posting ->
-                        builder.append(posting.toString()).append(","));
+                for (int i = 0; i < postings.size(); i++) {
+                    if (i > 0)
+                        builder.append(",");
+                    postings.appendPosting(builder, i);
+                }
 
-                String postingList = builder.toString();
-                postingList = postingList.substring(0, postingList.length() - 1);
-                writer.println(postingList);
+                writer.println(builder);
             }
             writer.close();
         } catch (FileNotFoundException e) {
@@ -104,6 +354,43 @@ public abstract class Indexer {
 
     }
 
+    /**
+     * Save the resulting index to a file using the binary index format: terms in alphabetic order with their
+     * postings delta and variable byte encoded
+     *
+     * @param filename output file name
+     * @param tokenizerName tokenizer class name
+     * @see BinaryIndexFormat
+     */
+    public void saveToBinaryFile(String filename, String tokenizerName) {
+
+        try (BinaryIndexWriter writer = new BinaryIndexWriter(filename, getIndexType(), tokenizerName, n_docs)) {
+            List<String> orderedKeys = getTerms().stream().sorted().collect(Collectors.toList());
+            int[] values = new int[0];
+
+            for (String key : orderedKeys) {
+                PostingList postings = getTermPostings(key);
+                postings.sort();
+
+                if (postings instanceof PositionalPostingList) {
+                    writer.writeTerm(key, (PositionalPostingList) postings);
+                    continue;
+                }
+
+                if (postings.size() > values.length)
+                    values = new int[postings.size()];
+
+                for (int i = 0; i < postings.size(); i++)
+                    values[i] = postings.encodedValue(i);
+
+                writer.writeTerm(key, postings.docIDs, values, postings.size());
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to save index to file" + e);
+        }
+
+    }
+
     /**
      * Returns the number of documents processed
      * 
@@ -122,6 +409,25 @@ public abstract class Indexer {
         this.n_docs = n_docs;
     }
 
+    /**
+     * Returns the documents deleted from the index, whose postings are still stored but must be skipped when
+     * scoring. The document frequencies and the number of documents still count them until they are removed.
+     *
+     * @return set of deleted document ids
+     */
+    public BitSet getDeletedDocs() {
+        return deletedDocs;
+    }
+
+    /**
+     * Store or modify the documents deleted from the index
+     *
+     * @param deletedDocs set of deleted document ids
+     */
+    public void setDeletedDocs(BitSet deletedDocs) {
+        this.deletedDocs = deletedDocs;
+    }
+
     /**
      * Returns the tokenizer class name
      * 
@@ -0,0 +1,71 @@
+package IndexerEngine.indexer;
+
+import java.util.List;
+
+/**
+ * This class indexes a document in a data structure composed of a vocabulary of terms and an array in which each
+ * term id has a list of Postings with the positions of the term in the document, the positions in the list of
+ * terms returned by the tokenizer. It is a term frequency index that also supports phrase and proximity queries.
+ *
+ * @see PositionalPostingList
+ */
+public class IndexerPositional extends IndexerTermFreq {
+    // approximate heap cost of an encoded position
+    private static final long POSITION_BYTES = 2;
+
+    private long n_positions;
+
+    /**
+     * Indexes a document given its list of terms and id, recording the position of each term
+     *
+     * @param terms list of terms of a document
+     * @param docID document id
+     */
+    @Override
+    public void index(List<String> terms, int docID) {
+        int position = 0;
+
+        for (String term : terms) {
+            int termID = addTerm(term);
+            PositionalPostingList postingList = (PositionalPostingList) postingLists[termID];
+
+            if (postingList == null) {
+                postingList = new PositionalPostingList();
+                setPostings(termID, postingList);
+            }
+
+            if (postingList.addOccurrence(docID, position++))
+                n_postings++;
+        }
+        n_positions += terms.size();
+        n_docs++;
+    }
+
+    /**
+     * Returns the type of this index in the binary index format
+     *
+     * @return {@link BinaryIndexFormat#TYPE_POSITIONAL}
+     */
+    @Override
+    public byte getIndexType() {
+        return BinaryIndexFormat.TYPE_POSITIONAL;
+    }
+
+    @Override
+    public void merge(Indexer other) {
+        super.merge(other);
+        if (other instanceof IndexerPositional)
+            n_positions += ((IndexerPositional) other).n_positions;
+    }
+
+    @Override
+    public long estimatedMemoryUsage() {
+        return super.estimatedMemoryUsage() + n_positions * POSITION_BYTES;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        n_positions = 0;
+    }
+}
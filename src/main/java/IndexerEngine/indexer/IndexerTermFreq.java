@@ -4,12 +4,13 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static java.util.Comparator.comparingInt;
+import static java.util.Comparator.naturalOrder;
 
 /**
- * This class indexes a document in a data structure composed of an hashmap in which a key is a term and the value
- * a list of Postings
+ * This class indexes a document in a data structure composed of a vocabulary of terms and an array in which each
+ * term id has a list of Postings
  *
- * @see PostingTermFreq
+ * @see TermFreqPostingList
  */
 
 public class IndexerTermFreq extends Indexer {
@@ -23,47 +24,51 @@ public class IndexerTermFreq extends Indexer {
     public void index(List<String> terms, int docID) {
 
         for (String term : terms) {
-            if (!invertedIndex.containsKey(term)) {
+            int termID = addTerm(term);
+            TermFreqPostingList postingList = (TermFreqPostingList) postingLists[termID];
 
-                List<Posting> postingList = new LinkedList<>();
-                postingList.add(new PostingTermFreq(docID, 1));
-                invertedIndex.put(term, postingList);
-
-            } else {
-
-                List<Posting> list = invertedIndex.get(term);
-                PostingTermFreq lastPosting = (PostingTermFreq) list.get(list.size() - 1);
-
-                if (lastPosting.getDocID() != docID) {
-                    list.add(new PostingTermFreq(docID, 1));
-                } else {
-                    lastPosting.incrementTermFrequency();
-                }
+            if (postingList == null) {
+                postingList = new TermFreqPostingList();
+                setPostings(termID, postingList);
             }
+
+            if (postingList.addOccurrence(docID))
+                n_postings++;
         }
         n_docs++;
     }
 
+    /**
+     * Returns the type of this index in the binary index format
+     *
+     * @return {@link BinaryIndexFormat#TYPE_TERM_FREQ}
+     */
+    @Override
+    public byte getIndexType() {
+        return BinaryIndexFormat.TYPE_TERM_FREQ;
+    }
+
     /**
      * Lists the ten first terms (in alphabetic order) that appear in only one document
      *
      * @return a list of the ten first terms (in alphabetic order) that appear in only one document
      */
     public List<String> getFirst10TermsInOneDoc() {
-        List<String> terms = invertedIndex.keySet().stream().sorted()
-                .filter((term) -> invertedIndex.get(term).size() == 1)
+        List<String> terms = getTerms().stream().sorted()
+                .filter((term) -> getDocFreq(term) == 1)
                 .collect(Collectors.toList());
         return (this.size() < 10) ? terms.subList(0, this.size()) : terms.subList(0, 10);
     }
 
     /**
-     * Lists the ten terms with higher document frequency
+     * Lists the ten terms with higher document frequency, the terms with the same document frequency in alphabetic
+     * order
      *
      * @return a list of the ten terms with higher document frequency
      */
     public List<String> getFirst10TermsWithHigherDocFreq() {
-        List<String> terms = invertedIndex.keySet().stream().
-                sorted(comparingInt(term -> invertedIndex.get(term).size()).reversed())
+        List<String> terms = getTerms().stream().
+                sorted(comparingInt((String term) -> getDocFreq(term)).reversed().thenComparing(naturalOrder()))
                 .collect(Collectors.toList());
         return (this.size() < 10) ? terms.subList(0, this.size()) : terms.subList(0, 10);
     }
@@ -1,54 +1,78 @@
 package IndexerEngine.indexer;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * This class indexes a document in a data structure composed of an hashmap in which a key is a term and the value
- * a list of Postings
+ * This class indexes a document in a data structure composed of a vocabulary of terms and an array in which each
+ * term id has a list of Postings
  *
- * @see PostingWtNorm
+ * @see WtNormPostingList
  */
 
 public class IndexerWtNorm extends Indexer {
+    // per document term counts by term id, reset after each document, and the distinct term ids of the document
+    private int[] termCounts = new int[256];
+    private int[] docTermIDs = new int[64];
+    private double[] docWeights = new double[64];
+
     /**
-     * Indexes a document given its list of terms and id
+     * Indexes a document given its list of terms and id. The terms are counted by term id in arrays reused
+     * between documents, only the entries of the terms of the document are reset.
      *
      * @param terms list of terms of a document
      * @param docID document id
      */
     @Override
     public void index(List<String> terms, int docID) {
-        Map<String, Double> temp = new HashMap<>();
+        int distinct = 0;
 
         for (String term : terms) {
-            double count = temp.getOrDefault(term, 0.0);
-            temp.put(term, count + 1);
+            int termID = addTerm(term);
+            if (termID >= termCounts.length)
+                termCounts = Arrays.copyOf(termCounts, postingLists.length);
+
+            if (termCounts[termID]++ == 0) {
+                if (distinct == docTermIDs.length) {
+                    docTermIDs = Arrays.copyOf(docTermIDs, distinct * 2);
+                    docWeights = Arrays.copyOf(docWeights, distinct * 2);
+                }
+                docTermIDs[distinct++] = termID;
+            }
         }
 
         double sum_square_wt = 0.0;
 
-        for (Map.Entry<String, Double> pair : temp.entrySet()) {
-            double wt = 1 + Math.log10(pair.getValue());
-            temp.put(pair.getKey(), wt);
+        for (int i = 0; i < distinct; i++) {
+            double wt = 1 + Math.log10(termCounts[docTermIDs[i]]);
+            docWeights[i] = wt;
             sum_square_wt += Math.pow(wt, 2);
         }
 
-        for (Map.Entry<String, Double> pair : temp.entrySet()) {
-            pair.setValue(pair.getValue() / Math.sqrt(sum_square_wt));
-        }
+        for (int i = 0; i < distinct; i++) {
+            int termID = docTermIDs[i];
+            termCounts[termID] = 0;
 
-        for (Map.Entry<String, Double> pair : temp.entrySet()) {
-            if (!invertedIndex.containsKey(pair.getKey())) {
-                List<Posting> postingList = new LinkedList<>();
-                postingList.add(new PostingWtNorm(docID, pair.getValue()));
-                invertedIndex.put(pair.getKey(), postingList);
-            }
+            WtNormPostingList postingList = (WtNormPostingList) postingLists[termID];
 
-            else {
-                List<Posting> postingList = invertedIndex.get(pair.getKey());
-                postingList.add(new PostingWtNorm(docID, pair.getValue()));
+            if (postingList == null) {
+                postingList = new WtNormPostingList();
+                setPostings(termID, postingList);
             }
+
+            postingList.add(docID, docWeights[i] / Math.sqrt(sum_square_wt));
         }
+        n_postings += distinct;
         n_docs++;
     }
+
+    /**
+     * Returns the type of this index in the binary index format
+     *
+     * @return {@link BinaryIndexFormat#TYPE_WT_NORM}
+     */
+    @Override
+    public byte getIndexType() {
+        return BinaryIndexFormat.TYPE_WT_NORM;
+    }
 }
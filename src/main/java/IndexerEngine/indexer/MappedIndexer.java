@@ -0,0 +1,139 @@
+package IndexerEngine.indexer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read-only index backed by a memory-mapped file in the binary index format. Only the front-coded dictionary of the
+ * terms and the offset of the entry of each term are kept on the heap, the postings of a term are decoded from the
+ * mapped file when they are requested.
+ *
+ * @see BinaryIndexFormat
+ */
+public class MappedIndexer extends Indexer {
+    private ByteBuffer buffer;
+    private byte indexType;
+    private TermDictionary dictionary;
+    private int[] termOffsets;
+
+    /**
+     * Creates a new instance of MappedIndexer
+     *
+     * @param buffer mapped index file
+     * @param indexType type of the index stored in the file
+     * @param dictionary dictionary of the terms of the file
+     * @param termOffsets position in the file of the entry of each term, by term id, right after the term itself
+     */
+    public MappedIndexer(ByteBuffer buffer, byte indexType, TermDictionary dictionary, int[] termOffsets) {
+        this.buffer = buffer;
+        this.indexType = indexType;
+        this.dictionary = dictionary;
+        this.termOffsets = termOffsets;
+    }
+
+    /**
+     * A mapped index is read-only, so documents can not be indexed
+     *
+     * @param terms list of terms of a document
+     * @param docID document id
+     */
+    @Override
+    public void index(List<String> terms, int docID) {
+        throw new UnsupportedOperationException("A mapped index is read-only");
+    }
+
+    /**
+     * Returns the type of the index stored in the mapped file
+     *
+     * @return index type
+     */
+    @Override
+    public byte getIndexType() {
+        return indexType;
+    }
+
+    /**
+     * Returns the term id of a term, its position in the dictionary
+     *
+     * @param term word to obtain the term id
+     * @return term id, -1 if the term is not indexed
+     */
+    @Override
+    public int getTermID(String term) {
+        return dictionary.getTermID(term);
+    }
+
+    @Override
+    public String getTerm(int termID) {
+        return dictionary.getTerm(termID);
+    }
+
+    /**
+     * Decodes the list of postings of a term id from the mapped file
+     *
+     * @param termID term id
+     * @return list of postings of the term
+     */
+    @Override
+    public PostingList getTermPostings(int termID) {
+        // each call works on its own view of the buffer so postings can be decoded concurrently
+        ByteBuffer in = buffer.duplicate();
+        in.position(termOffsets[termID]);
+
+        int docFreq = BinaryIndexFormat.readVByte(in);
+        BinaryIndexFormat.readVByte(in);
+
+        return BinaryIndexFormat.readPostings(in, indexType, docFreq);
+    }
+
+    /**
+     * Returns the document frequency of a term id without decoding its postings
+     *
+     * @param termID term id
+     * @return number of documents where the term appears
+     */
+    @Override
+    public int getDocFreq(int termID) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(termOffsets[termID]);
+        return BinaryIndexFormat.readVByte(in);
+    }
+
+    @Override
+    public Set<String> getTerms() {
+        return dictionary.asSet();
+    }
+
+    /**
+     * Returns the terms that start with a prefix, a range of the dictionary
+     *
+     * @param prefix prefix of the terms
+     * @return terms with the prefix in alphabetic order
+     */
+    @Override
+    public List<String> getTermsWithPrefix(String prefix) {
+        return dictionary.getTermsWithPrefix(prefix);
+    }
+
+    /**
+     * Returns the heap memory used by the term dictionary and the offsets of the terms, the postings are not on
+     * the heap
+     *
+     * @return memory used in bytes
+     */
+    @Override
+    public long estimatedMemoryUsage() {
+        return dictionary.memoryUsage() + 16 + 4L * termOffsets.length;
+    }
+
+    @Override
+    public int size() {
+        return dictionary.size();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedIndexer{terms=" + dictionary.size() + ", n_docs=" + n_docs + '}';
+    }
+}
@@ -0,0 +1,181 @@
+package IndexerEngine.indexer;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * List of postings (docID, termFreq, positions) of a term, which states that the term is present in the document
+ * with the id docID, it appears termFreq times and the positions of those occurrences in the tokens of the document.
+ * The positions of each posting are kept delta and variable byte encoded, with the codec of the
+ * {@link BinaryIndexFormat}, in a single byte array shared by all the postings of the list.
+ */
+public class PositionalPostingList extends TermFreqPostingList {
+    private byte[] positions;
+    private int positionsLength;
+    private int[] positionStarts;       // offset in the positions array of the first position of each posting
+    private int[] positionEnds;
+    private int lastPosition;           // position of the last occurrence added to the last posting
+
+    public PositionalPostingList() {
+        super();
+        this.positions = new byte[INITIAL_CAPACITY * 2];
+        this.positionsLength = 0;
+        this.positionStarts = new int[INITIAL_CAPACITY];
+        this.positionEnds = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Registers an occurrence of the term in a document at a given position. The positions of a document must be
+     * added in increasing order.
+     *
+     * @param docID the document id
+     * @param position position of the occurrence in the tokens of the document
+     * @return true if a new posting was added
+     */
+    public boolean addOccurrence(int docID, int position) {
+        boolean added = addOccurrence(docID);
+        if (added) {
+            positionStarts[size - 1] = positionsLength;
+            lastPosition = 0;
+        }
+
+        writePosition(position - lastPosition);
+        positionEnds[size - 1] = positionsLength;
+        lastPosition = position;
+        return added;
+    }
+
+    /**
+     * Adds a posting to the end of the list
+     *
+     * @param docID the document id
+     * @param positions positions of the term in the document, in increasing order
+     * @param count number of positions, the term frequency
+     */
+    public void add(int docID, int[] positions, int count) {
+        add(docID, count);
+        positionStarts[size - 1] = positionsLength;
+
+        int last = 0;
+        for (int i = 0; i < count; i++) {
+            writePosition(positions[i] - last);
+            last = positions[i];
+        }
+        positionEnds[size - 1] = positionsLength;
+    }
+
+    /**
+     * Decodes the positions of a posting
+     *
+     * @param i position of the posting
+     * @param buffer array that receives the positions, replaced by a larger one if needed
+     * @return array with the positions of the posting, as many as its term frequency
+     */
+    @Override
+    public int[] getPositions(int i, int[] buffer) {
+        int count = getTermFreq(i);
+        if (buffer == null || buffer.length < count)
+            buffer = new int[count];
+
+        int offset = positionStarts[i];
+        int position = 0;
+        for (int p = 0; p < count; p++) {
+            int value = 0;
+            int shift = 0;
+            int b;
+            while (((b = positions[offset++] & 0xFF) & 0x80) == 0) {
+                value |= b << shift;
+                shift += 7;
+            }
+            position += value | ((b & 0x7F) << shift);
+            buffer[p] = position;
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes the encoded positions of a posting, the position gaps variable byte encoded
+     *
+     * @param out output stream
+     * @param i position of the posting
+     */
+    public void writePositions(ByteArrayOutputStream out, int i) {
+        out.write(positions, positionStarts[i], positionEnds[i] - positionStarts[i]);
+    }
+
+    /**
+     * Returns the number of bytes used by the encoded positions of the list
+     *
+     * @return size of the encoded positions in bytes
+     */
+    public int positionsSize() {
+        return positionsLength;
+    }
+
+    /**
+     * Appends a position gap to the positions array, variable byte encoded
+     *
+     * @param gap distance to the previous position of the posting
+     */
+    private void writePosition(int gap) {
+        if (positionsLength + 5 > positions.length)
+            positions = Arrays.copyOf(positions, Math.max(positionsLength + 5, positions.length * 2));
+
+        while (gap >= 0x80) {
+            positions[positionsLength++] = (byte) (gap & 0x7F);
+            gap >>>= 7;
+        }
+        positions[positionsLength++] = (byte) (gap | 0x80);
+    }
+
+    @Override
+    public void appendPosting(StringBuilder builder, int i) {
+        super.appendPosting(builder, i);
+
+        int[] decoded = getPositions(i, null);
+        for (int p = 0; p < getTermFreq(i); p++)
+            builder.append(p == 0 ? ':' : ';').append(decoded[p]);
+    }
+
+    @Override
+    public void append(PostingList other) {
+        PositionalPostingList list = (PositionalPostingList) other;
+        int start = size;
+        super.append(list);
+
+        for (int i = 0; i < list.size; i++) {
+            positionStarts[start + i] = positionsLength;
+            int length = list.positionEnds[i] - list.positionStarts[i];
+            if (positionsLength + length > positions.length)
+                positions = Arrays.copyOf(positions, Math.max(positionsLength + length, positions.length * 2));
+            System.arraycopy(list.positions, list.positionStarts[i], positions, positionsLength, length);
+            positionsLength += length;
+            positionEnds[start + i] = positionsLength;
+        }
+    }
+
+    @Override
+    protected void reorder(int[] order) {
+        super.reorder(order);
+        int[] sortedStarts = new int[positionStarts.length];
+        int[] sortedEnds = new int[positionEnds.length];
+        for (int i = 0; i < size; i++) {
+            sortedStarts[i] = positionStarts[order[i]];
+            sortedEnds[i] = positionEnds[order[i]];
+        }
+        positionStarts = sortedStarts;
+        positionEnds = sortedEnds;
+    }
+
+    @Override
+    public PostingList newEmptyList() {
+        return new PositionalPostingList();
+    }
+
+    @Override
+    protected void resize(int capacity) {
+        super.resize(capacity);
+        positionStarts = Arrays.copyOf(positionStarts, capacity);
+        positionEnds = Arrays.copyOf(positionEnds, capacity);
+    }
+}
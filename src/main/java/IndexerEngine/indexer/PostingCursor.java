@@ -0,0 +1,156 @@
+package IndexerEngine.indexer;
+
+/**
+ * Forward-only cursor over a {@link PostingList} ordered by document id. A new cursor is positioned before the
+ * first posting, {@link #nextDoc()} or {@link #advance(int)} must be called before reading the current posting.
+ */
+public class PostingCursor {
+    public static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    protected final PostingList postings;
+    protected int index;
+    protected int block;
+
+    public PostingCursor(PostingList postings) {
+        this.postings = postings;
+        this.index = -1;
+        this.block = 0;
+    }
+
+    /**
+     * Moves to the next posting
+     *
+     * @return document id of the next posting or {@link #NO_MORE_DOCS} if the end of the list was reached
+     */
+    public int nextDoc() {
+        if (index < postings.size)
+            index++;
+        return docID();
+    }
+
+    /**
+     * Moves to the first posting with a document id greater or equal than the target. The skip entries of the
+     * list are scanned from the current block to find the block that may hold the target, which is then searched
+     * with a binary search. The cursor does not move if the current posting already satisfies the target.
+     *
+     * @param target document id to look for
+     * @return document id of the posting found or {@link #NO_MORE_DOCS} if there is none
+     */
+    public int advance(int target) {
+        int[] docIDs = postings.docIDs;
+        int size = postings.size;
+
+        if (index >= 0 && docID() >= target)
+            return docID();
+
+        int low = index + 1;
+        if (low >= size) {
+            index = size;
+            return NO_MORE_DOCS;
+        }
+        if (docIDs[low] >= target) {
+            index = low;
+            return docIDs[low];
+        }
+
+        // skip the blocks whose last document id is below the target
+        int[] lastDocIDs = postings.blocks().lastDocIDs;
+        int block = low / PostingList.BLOCK_SIZE;
+        while (block < lastDocIDs.length && lastDocIDs[block] < target)
+            block++;
+
+        if (block == lastDocIDs.length) {
+            index = size;
+            return NO_MORE_DOCS;
+        }
+
+        low = Math.max(low, block * PostingList.BLOCK_SIZE);
+        int high = Math.min(size, (block + 1) * PostingList.BLOCK_SIZE) - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (docIDs[middle] < target)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+
+        index = low;
+        return docIDs[low];
+    }
+
+    /**
+     * Moves the block pointer, without moving the cursor, to the first block whose last document id is greater or
+     * equal than the target, so {@link #blockMaxImpact()} bounds the postings of the documents up to that id
+     *
+     * @param target document id to look for
+     * @return last document id of the block found or {@link #NO_MORE_DOCS} if there is none
+     */
+    public int advanceShallow(int target) {
+        int[] lastDocIDs = postings.blocks().lastDocIDs;
+
+        if (index >= 0)
+            block = Math.max(block, index / PostingList.BLOCK_SIZE);
+        while (block < lastDocIDs.length && lastDocIDs[block] < target)
+            block++;
+
+        return block < lastDocIDs.length ? lastDocIDs[block] : NO_MORE_DOCS;
+    }
+
+    /**
+     * Returns the highest impact of the block selected by the last call to {@link #advanceShallow(int)}
+     *
+     * @return highest term frequency or weight of the block, 0 if there are no blocks left
+     */
+    public double blockMaxImpact() {
+        double[] maxImpacts = postings.blocks().maxImpacts;
+        return block < maxImpacts.length ? maxImpacts[block] : 0.0;
+    }
+
+    /**
+     * Returns the document id of the current posting
+     *
+     * @return document id, -1 if the cursor was not moved yet or {@link #NO_MORE_DOCS} if the end was reached
+     */
+    public int docID() {
+        if (index < 0)
+            return -1;
+        return index < postings.size ? postings.docIDs[index] : NO_MORE_DOCS;
+    }
+
+    /**
+     * Returns the term frequency of the current posting
+     *
+     * @return term frequency
+     */
+    public int termFreq() {
+        return postings.getTermFreq(index);
+    }
+
+    /**
+     * Returns the weight of the current posting
+     *
+     * @return weight
+     */
+    public double weight() {
+        return postings.getWeight(index);
+    }
+
+    /**
+     * Returns the positions of the term in the document of the current posting
+     *
+     * @param buffer array that may be reused to hold the positions, null to create a new one
+     * @return array with the positions, as many as the term frequency
+     */
+    public int[] positions(int[] buffer) {
+        return postings.getPositions(index, buffer);
+    }
+
+    /**
+     * Returns the number of postings of the list, an upper bound of the documents this cursor can visit
+     *
+     * @return number of postings
+     */
+    public int cost() {
+        return postings.size;
+    }
+}
@@ -0,0 +1,269 @@
+package IndexerEngine.indexer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class represents the list of postings of a term. Instead of one object per posting the document ids are
+ * kept in a growable int array and the other value of each posting is kept by the subclass in a parallel
+ * primitive array.
+ * The postings are read through a {@link PostingCursor}. The list is divided in blocks of {@link #BLOCK_SIZE}
+ * postings with a skip entry per block, the last document id and the highest impact of the block, built when
+ * the list is first searched, so a cursor can jump over whole blocks.
+ */
+public abstract class PostingList {
+    protected static final int INITIAL_CAPACITY = 4;
+    public static final int BLOCK_SIZE = 64;
+
+    protected int[] docIDs;
+    protected int size;
+    protected Blocks blocks;            // skip entries, null when they must be rebuilt
+
+    public PostingList() {
+        this.docIDs = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of postings, which is the document frequency of the term
+     *
+     * @return number of postings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the document id of a posting
+     *
+     * @param i position of the posting
+     * @return document id
+     */
+    public int getDocID(int i) {
+        return docIDs[i];
+    }
+
+    /**
+     * Returns the document id of the last posting
+     *
+     * @return document id of the last posting or -1 if the list is empty
+     */
+    public int getLastDocID() {
+        return size == 0 ? -1 : docIDs[size - 1];
+    }
+
+    /**
+     * Returns the term frequency of a posting
+     *
+     * @param i position of the posting
+     * @return term frequency
+     */
+    public abstract int getTermFreq(int i);
+
+    /**
+     * Returns the weight of a posting
+     *
+     * @param i position of the posting
+     * @return weight
+     */
+    public abstract double getWeight(int i);
+
+    /**
+     * Returns the positions of the term in the document of a posting
+     *
+     * @param i position of the posting
+     * @param buffer array that may be reused to hold the positions, null to create a new one
+     * @return array with the positions, as many as the term frequency of the posting
+     */
+    public abstract int[] getPositions(int i, int[] buffer);
+
+    /**
+     * Returns the contribution of a posting to the score of the document, the term frequency or the weight
+     *
+     * @param i position of the posting
+     * @return impact of the posting
+     */
+    public abstract double getImpact(int i);
+
+    /**
+     * Returns the value of a posting as an integer to be stored in the binary index format
+     *
+     * @param i position of the posting
+     * @return integer representation of the posting value
+     */
+    public abstract int encodedValue(int i);
+
+    /**
+     * Appends the text representation of a posting, docID:value, to a builder
+     *
+     * @param builder builder that receives the posting
+     * @param i position of the posting
+     */
+    public abstract void appendPosting(StringBuilder builder, int i);
+
+    /**
+     * Appends all postings of another list of the same type
+     *
+     * @param other list to be appended
+     */
+    public abstract void append(PostingList other);
+
+    /**
+     * Creates an empty list of the same type
+     *
+     * @return new empty list
+     */
+    public abstract PostingList newEmptyList();
+
+    /**
+     * Returns a cursor positioned before the first posting
+     *
+     * @return a new cursor over this list
+     */
+    public PostingCursor cursor() {
+        return new PostingCursor(this);
+    }
+
+    /**
+     * Returns the skip entries of the blocks of the list, building them if the list changed since they were built
+     *
+     * @return skip entries of the list
+     */
+    Blocks blocks() {
+        Blocks current = blocks;
+        if (current == null) {
+            current = new Blocks(this);
+            blocks = current;
+        }
+        return current;
+    }
+
+    /**
+     * Orders the postings by document id, only rearranging the arrays if they are not already ordered
+     */
+    public void sort() {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++)
+            sorted = docIDs[i - 1] <= docIDs[i];
+
+        if (sorted)
+            return;
+
+        // sort (docID, position) pairs packed in a long so the order of equal document ids is kept
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++)
+            keys[i] = ((long) docIDs[i] << 32) | i;
+        Arrays.sort(keys);
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++)
+            order[i] = (int) keys[i];
+        reorder(order);
+    }
+
+    /**
+     * Removes the postings of a set of documents, from a given position to the end of the list, keeping the order
+     * of the remaining postings
+     *
+     * @param removed documents whose postings are removed
+     * @param from position of the first posting that can be removed
+     */
+    public void removeDocs(BitSet removed, int from) {
+        if (removed.isEmpty())
+            return;
+
+        int[] order = new int[size];
+        int kept = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (i < from || !removed.get(docIDs[i]))
+                order[kept++] = i;
+        }
+
+        if (kept == size)
+            return;
+
+        size = kept;
+        reorder(order);
+    }
+
+    /**
+     * Rearranges the postings so the posting at position i is the one previously at order[i]
+     *
+     * @param order new order of the postings
+     */
+    protected void reorder(int[] order) {
+        blocks = null;
+        int[] sortedDocIDs = new int[docIDs.length];
+        for (int i = 0; i < size; i++)
+            sortedDocIDs[i] = docIDs[order[i]];
+        docIDs = sortedDocIDs;
+    }
+
+    /**
+     * Makes sure the arrays can hold the given number of postings
+     *
+     * @param capacity minimum capacity
+     */
+    protected void ensureCapacity(int capacity) {
+        blocks = null;
+        if (capacity > docIDs.length) {
+            int newCapacity = Math.max(capacity, docIDs.length + (docIDs.length >> 1));
+            docIDs = Arrays.copyOf(docIDs, newCapacity);
+            resize(newCapacity);
+        }
+    }
+
+    /**
+     * Resizes the arrays that hold the posting values of the subclass
+     *
+     * @param capacity new capacity
+     */
+    protected abstract void resize(int capacity);
+
+    /**
+     * Releases the unused capacity of the arrays
+     */
+    public void trimToSize() {
+        if (docIDs.length != size) {
+            docIDs = Arrays.copyOf(docIDs, size);
+            resize(size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                builder.append(", ");
+            appendPosting(builder, i);
+        }
+        return builder.append("]").toString();
+    }
+
+    /**
+     * Skip entries of the blocks of a list: the last document id and the highest impact of each block. The entries
+     * are never changed after built, so they can be shared by cursors of several threads.
+     */
+    static final class Blocks {
+        final int[] lastDocIDs;
+        final double[] maxImpacts;
+
+        Blocks(PostingList postings) {
+            int count = (postings.size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            lastDocIDs = new int[count];
+            maxImpacts = new double[count];
+
+            for (int block = 0; block < count; block++) {
+                int end = Math.min(postings.size, (block + 1) * BLOCK_SIZE);
+                double max = 0;
+                for (int i = block * BLOCK_SIZE; i < end; i++)
+                    max = Math.max(max, postings.getImpact(i));
+
+                lastDocIDs[block] = postings.docIDs[end - 1];
+                maxImpacts[block] = max;
+            }
+        }
+    }
+}
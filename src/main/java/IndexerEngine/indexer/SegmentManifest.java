@@ -0,0 +1,466 @@
+package IndexerEngine.indexer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description of an index made of several segments, each one an index file over a set of documents.
+ * The manifest is a text file with a header line, segments indexType format nextSegment nextDocID, followed by
+ * one line, segment filename docIDs, per segment in the order they were created, one line, deleted docIDs, with
+ * the documents deleted, one line, file lastModified docIDs path, per corpus file already indexed with the
+ * documents read from it, and one line, superseded filename, per segment replaced by a merge whose files were not
+ * deleted yet. Segment filenames are relative to the directory of the manifest and sets of document ids are written
+ * as ranges, 1-700,702.
+ * <p>
+ * A document indexed again in a newer segment replaces its copies in the older segments, and a deleted document
+ * is removed from every segment, until it is indexed again. When a corpus file is indexed again or removed from
+ * the corpus, the documents previously read from it are deleted before the new segment is added, so the
+ * documents no longer in the file, or given new ids, do not stay as stale copies. The removed documents are only
+ * purged from the segment files when the segments are merged.
+ * <p>
+ * The manifest is replaced atomically when saved, so a searcher always reads a complete list of segments, and
+ * the programs that change it hold the lock of the manifest while doing it. The files of the segments replaced by
+ * a merge are only deleted by the next merge, so a searcher that read the previous manifest still finds them.
+ */
+public class SegmentManifest {
+    private static final String HEADER = "segments";
+
+    private String indexerType;
+    private String format;
+    private int nextSegment;
+    private int nextDocID;
+    private List<String> segments;
+    private Map<String, BitSet> segmentDocs;
+    private BitSet deletedDocs;
+    private Map<String, Long> files;
+    private Map<String, BitSet> fileDocs;
+    private List<String> supersededSegments;
+
+    /**
+     * Creates an empty manifest
+     *
+     * @param indexerType type of the index of the segments, freq, weighted or positional
+     * @param format format of the segment files, text or binary
+     */
+    public SegmentManifest(String indexerType, String format) {
+        this.indexerType = indexerType;
+        this.format = format;
+        this.nextSegment = 0;
+        this.nextDocID = 1;
+        this.segments = new ArrayList<>();
+        this.segmentDocs = new HashMap<>();
+        this.deletedDocs = new BitSet();
+        this.files = new LinkedHashMap<>();
+        this.fileDocs = new HashMap<>();
+        this.supersededSegments = new ArrayList<>();
+    }
+
+    /**
+     * Reads a manifest file
+     *
+     * @param filename manifest filename
+     * @return the manifest read
+     * @throws IOException if the file can not be read or is not a manifest
+     */
+    public static SegmentManifest read(String filename) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename))) {
+            String line = reader.readLine();
+            String[] header = line == null ? new String[0] : line.split(" ");
+
+            if (header.length != 5 || !header[0].equals(HEADER))
+                throw new IOException("The file " + filename + " is not a segment manifest");
+
+            SegmentManifest manifest = new SegmentManifest(header[1], header[2]);
+            manifest.nextSegment = Integer.parseInt(header[3]);
+            manifest.nextDocID = Integer.parseInt(header[4]);
+
+            while ((line = reader.readLine()) != null) {
+                String[] s = line.split(" ", 3);
+
+                switch (s[0]) {
+                    case "segment":
+                        manifest.addSegment(s[1], parseDocIDs(s.length > 2 ? s[2] : ""));
+                        break;
+
+                    case "deleted":
+                        manifest.deletedDocs = parseDocIDs(s.length > 1 ? s[1] : "");
+                        break;
+
+                    case "file":
+                        String[] file = line.split(" ", 4);
+                        manifest.files.put(file[3], Long.parseLong(file[1]));
+                        manifest.fileDocs.put(file[3], parseDocIDs(file[2]));
+                        break;
+
+                    case "superseded":
+                        manifest.supersededSegments.add(line.substring("superseded ".length()));
+                        break;
+                }
+            }
+
+            return manifest;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Invalid line in the segment manifest " + filename);
+        }
+    }
+
+    /**
+     * Saves the manifest, writing a temporary file that replaces the previous manifest in a single step
+     *
+     * @param filename manifest filename
+     * @throws IOException if the file can not be written
+     */
+    public void save(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        Path temporary = Paths.get(filename + ".tmp");
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(temporary))) {
+            writer.println(String.join(" ", HEADER, indexerType, format, Integer.toString(nextSegment),
+                    Integer.toString(nextDocID)));
+
+            for (String segment : segments)
+                writer.println("segment " + segment + " " + formatDocIDs(segmentDocs.get(segment)));
+            if (!deletedDocs.isEmpty())
+                writer.println("deleted " + formatDocIDs(deletedDocs));
+            for (Map.Entry<String, Long> file : files.entrySet())
+                writer.println("file " + file.getValue() + " " + formatDocIDs(fileDocs.get(file.getKey())) + " " +
+                        file.getKey());
+            for (String segment : supersededSegments)
+                writer.println("superseded " + segment);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Acquires the lock of a manifest, waiting while another program holds it
+     *
+     * @param filename manifest filename
+     * @return channel of the lock file, closing it releases the lock
+     * @throws IOException if the lock file can not be created
+     */
+    public static FileChannel lock(String filename) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filename + ".lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            channel.lock();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    /**
+     * Reserves the name of a new segment, the manifest filename followed by a sequence number never reused
+     *
+     * @param filename manifest filename
+     * @return segment filename relative to the directory of the manifest
+     */
+    public String newSegmentName(String filename) {
+        return Paths.get(filename).getFileName() + "." + nextSegment++;
+    }
+
+    /**
+     * Adds a segment after the existing ones. Its documents replace the copies in the older segments and are no
+     * longer deleted.
+     *
+     * @param segment segment filename relative to the directory of the manifest
+     * @param docIDs documents of the segment
+     */
+    public void addSegment(String segment, BitSet docIDs) {
+        segments.add(segment);
+        segmentDocs.put(segment, docIDs);
+        deletedDocs.andNot(docIDs);
+    }
+
+    /**
+     * Records a corpus file indexed in the last segment added with the documents read from it. A document read
+     * from the file is no longer a document of the file it was previously read from, as its copy in the new
+     * segment replaces the previous one.
+     *
+     * @param path absolute path of the file
+     * @param lastModified time the file was last modified when indexed, in ms
+     * @param docIDs documents read from the file
+     */
+    public void addFile(String path, long lastModified, BitSet docIDs) {
+        for (BitSet docs : fileDocs.values())
+            docs.andNot(docIDs);
+
+        files.put(path, lastModified);
+        fileDocs.put(path, docIDs);
+    }
+
+    /**
+     * Removes a corpus file, indexed again or removed from the corpus, deleting the documents previously read from
+     * it. The documents read from the file again must be added after, so they are no longer deleted.
+     *
+     * @param path absolute path of the file
+     * @return number of documents deleted
+     */
+    public int removeFile(String path) {
+        files.remove(path);
+        BitSet docIDs = fileDocs.remove(path);
+        if (docIDs == null)
+            return 0;
+
+        BitSet deleted = (BitSet) docIDs.clone();
+        deleted.and(indexedDocs());
+        deleted.andNot(deletedDocs);
+        deletedDocs.or(deleted);
+        return deleted.cardinality();
+    }
+
+    /**
+     * Replaces consecutive segments by a segment with their documents that were not removed. The replaced
+     * segments are kept as superseded, their files are deleted by the next merge.
+     *
+     * @param position position of the first segment replaced
+     * @param count number of segments replaced
+     * @param segment segment filename relative to the directory of the manifest
+     * @param docIDs documents of the new segment
+     */
+    public void replaceSegments(int position, int count, String segment, BitSet docIDs) {
+        List<String> replaced = segments.subList(position, position + count);
+        for (String old : replaced)
+            segmentDocs.remove(old);
+        supersededSegments.addAll(replaced);
+        replaced.clear();
+
+        segments.add(position, segment);
+        segmentDocs.put(segment, docIDs);
+
+        // deleted documents no longer present in any segment are forgotten
+        deletedDocs.and(indexedDocs());
+    }
+
+    /**
+     * Returns, for each segment, its documents replaced by a copy in a newer segment
+     *
+     * @return sets of document ids in the order of the segments
+     */
+    public List<BitSet> replacedDocs() {
+        List<BitSet> replaced = new ArrayList<>();
+        BitSet newer = new BitSet();
+
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            BitSet docs = segmentDocs.get(segments.get(i));
+            BitSet old = (BitSet) docs.clone();
+            old.and(newer);
+            replaced.add(0, old);
+            newer.or(docs);
+        }
+
+        return replaced;
+    }
+
+    /**
+     * Returns, for each segment, its documents that are replaced or deleted and would be purged by a merge
+     *
+     * @return sets of document ids in the order of the segments
+     */
+    public List<BitSet> removedDocs() {
+        List<BitSet> removed = replacedDocs();
+
+        for (int i = 0; i < segments.size(); i++) {
+            BitSet deleted = (BitSet) segmentDocs.get(segments.get(i)).clone();
+            deleted.and(deletedDocs);
+            removed.get(i).or(deleted);
+        }
+
+        return removed;
+    }
+
+    /**
+     * Returns the fraction of the documents stored in the segments that are replaced or deleted
+     *
+     * @return ratio between 0 and 1
+     */
+    public double removedRatio() {
+        long stored = 0;
+        long removed = 0;
+
+        List<BitSet> removedDocs = removedDocs();
+        for (int i = 0; i < segments.size(); i++) {
+            stored += segmentDocs.get(segments.get(i)).cardinality();
+            removed += removedDocs.get(i).cardinality();
+        }
+
+        return stored == 0 ? 0.0 : (double) removed / stored;
+    }
+
+    /**
+     * Returns the documents present in at least one segment
+     *
+     * @return set of document ids
+     */
+    public BitSet indexedDocs() {
+        BitSet indexed = new BitSet();
+        for (BitSet docs : segmentDocs.values())
+            indexed.or(docs);
+        return indexed;
+    }
+
+    /**
+     * Resolves a segment filename against the directory of the manifest
+     *
+     * @param filename manifest filename
+     * @param segment segment filename relative to the directory of the manifest
+     * @return path of the segment file
+     */
+    public static String segmentPath(String filename, String segment) {
+        Path parent = Paths.get(filename).toAbsolutePath().getParent();
+        return parent.resolve(segment).toString();
+    }
+
+    /**
+     * Returns the paths of the segment files
+     *
+     * @param filename manifest filename
+     * @return paths of the segment files in the order they were created
+     */
+    public List<String> segmentPaths(String filename) {
+        List<String> paths = new ArrayList<>();
+        for (String segment : segments)
+            paths.add(segmentPath(filename, segment));
+        return paths;
+    }
+
+    /**
+     * Writes a set of document ids as a list of ranges
+     *
+     * @param docIDs set of document ids
+     * @return ranges separated by commas
+     */
+    static String formatDocIDs(BitSet docIDs) {
+        StringBuilder builder = new StringBuilder();
+
+        for (int start = docIDs.nextSetBit(0); start >= 0; start = docIDs.nextSetBit(start)) {
+            int end = docIDs.nextClearBit(start);
+            if (builder.length() > 0)
+                builder.append(',');
+            builder.append(start);
+            if (end - 1 > start)
+                builder.append('-').append(end - 1);
+            start = end;
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Reads a set of document ids written as a list of ranges
+     *
+     * @param ranges ranges separated by commas
+     * @return set of document ids
+     */
+    static BitSet parseDocIDs(String ranges) {
+        BitSet docIDs = new BitSet();
+
+        for (String range : ranges.split(",")) {
+            if (range.isEmpty())
+                continue;
+
+            int separator = range.indexOf('-');
+            if (separator < 0)
+                docIDs.set(Integer.parseInt(range));
+            else
+                docIDs.set(Integer.parseInt(range.substring(0, separator)),
+                        Integer.parseInt(range.substring(separator + 1)) + 1);
+        }
+
+        return docIDs;
+    }
+
+    public String getIndexerType() {
+        return indexerType;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the id given to the first document of the next TREC-style files indexed, numbered by position
+     *
+     * @return next document id
+     */
+    public int getNextDocID() {
+        return nextDocID;
+    }
+
+    public void setNextDocID(int nextDocID) {
+        this.nextDocID = nextDocID;
+    }
+
+    /**
+     * Returns the segment filenames, relative to the directory of the manifest
+     *
+     * @return list of segment filenames in the order they were created
+     */
+    public List<String> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Returns the documents of a segment
+     *
+     * @param segment segment filename relative to the directory of the manifest
+     * @return set of document ids
+     */
+    public BitSet getSegmentDocs(String segment) {
+        return segmentDocs.get(segment);
+    }
+
+    /**
+     * Returns the documents deleted, which can be modified
+     *
+     * @return set of document ids
+     */
+    public BitSet getDeletedDocs() {
+        return deletedDocs;
+    }
+
+    /**
+     * Returns the documents last read from a corpus file
+     *
+     * @param path absolute path of the file
+     * @return set of document ids, null if the file was not indexed
+     */
+    public BitSet getFileDocs(String path) {
+        return fileDocs.get(path);
+    }
+
+    /**
+     * Returns the segments replaced by a merge whose files were not deleted yet
+     *
+     * @return list of segment filenames relative to the directory of the manifest, which can be modified
+     */
+    public List<String> getSupersededSegments() {
+        return supersededSegments;
+    }
+
+    /**
+     * Returns the corpus files already indexed in one of the segments with the time they were last modified
+     * when indexed
+     *
+     * @return map from the file path to its last modified time in ms, changed with {@link #addFile} and
+     * {@link #removeFile}
+     */
+    public Map<String, Long> getFiles() {
+        return files;
+    }
+}
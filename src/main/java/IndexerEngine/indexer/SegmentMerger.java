@@ -0,0 +1,270 @@
+package IndexerEngine.indexer;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static java.util.Comparator.comparingInt;
+
+/**
+ * This class merges index segments saved with {@link Indexer#saveToFile(String, String)} into a single index file.
+ * Every segment has its terms sorted, so a k-way merge only needs to hold one line of each segment in memory.
+ * The postings of a term present in several segments are joined and ordered by document id, keeping the textual
+ * representation of each posting, so the result is the same as saving a single index built over all documents.
+ * The postings of documents removed from a segment can be left out, dropping the terms left without postings.
+ */
+public class SegmentMerger {
+
+    /**
+     * Merges the segments into the output file using the text index format
+     *
+     * @param segments filenames of the segments to be merged
+     * @param outputFile filename of the merged index
+     * @param tokenizerName tokenizer class name
+     * @return the number of terms of the merged index
+     * @throws IOException if a segment can not be read or the output file written
+     */
+    public int merge(List<String> segments, String outputFile, String tokenizerName) throws IOException {
+        List<BitSet> removedDocs = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++)
+            removedDocs.add(new BitSet());
+
+        return merge(segments, removedDocs, outputFile, tokenizerName);
+    }
+
+    /**
+     * Merges the segments into the output file using the text index format, leaving out the postings of the
+     * documents removed from each segment
+     *
+     * @param segments filenames of the segments to be merged
+     * @param removedDocs for each segment, its documents that are not copied to the merged index
+     * @param outputFile filename of the merged index
+     * @param tokenizerName tokenizer class name
+     * @return the number of terms of the merged index
+     * @throws IOException if a segment can not be read or the output file written
+     */
+    public int merge(List<String> segments, List<BitSet> removedDocs, String outputFile, String tokenizerName)
+            throws IOException {
+        List<SegmentCursor> cursors = openSegments(segments);
+        int n_removed = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            cursors.get(i).removed = removedDocs.get(i);
+            n_removed += removedDocs.get(i).cardinality();
+        }
+
+        try (PrintWriter writer = new PrintWriter(outputFile)) {
+            writer.println(tokenizerName + " " + (countDocuments(cursors) - n_removed));
+
+            return merge(cursors, (term, postings) -> writer.println(term + " " + String.join(",", postings)));
+        } finally {
+            for (SegmentCursor cursor : cursors)
+                cursor.close();
+        }
+    }
+
+    /**
+     * Merges the segments into the output file using the binary index format
+     *
+     * @param segments filenames of the segments to be merged
+     * @param outputFile filename of the merged index
+     * @param tokenizerName tokenizer class name
+     * @param indexType type of the index, {@link BinaryIndexFormat#TYPE_TERM_FREQ},
+     *                  {@link BinaryIndexFormat#TYPE_WT_NORM} or {@link BinaryIndexFormat#TYPE_POSITIONAL}
+     * @return the number of terms of the merged index
+     * @throws IOException if a segment can not be read or the output file written
+     */
+    public int mergeToBinary(List<String> segments, String outputFile, String tokenizerName, byte indexType)
+            throws IOException {
+        List<SegmentCursor> cursors = openSegments(segments);
+
+        try (BinaryIndexWriter writer = new BinaryIndexWriter(outputFile, indexType, tokenizerName,
+                countDocuments(cursors))) {
+            return merge(cursors, (term, postings) -> {
+                if (indexType == BinaryIndexFormat.TYPE_POSITIONAL) {
+                    writer.writeTerm(term, parsePositional(postings));
+                    return;
+                }
+
+                int[] docIDs = new int[postings.size()];
+                int[] values = new int[postings.size()];
+
+                for (int i = 0; i < postings.size(); i++) {
+                    String[] split = postings.get(i).split(":");
+                    docIDs[i] = Integer.parseInt(split[0]);
+                    values[i] = indexType == BinaryIndexFormat.TYPE_TERM_FREQ ? Integer.parseInt(split[1])
+                            : BinaryIndexFormat.quantizeWeight(Double.parseDouble(split[1]));
+                }
+
+                writer.writeTerm(term, docIDs, values, postings.size());
+            });
+        } finally {
+            for (SegmentCursor cursor : cursors)
+                cursor.close();
+        }
+    }
+
+    /**
+     * Parses postings with positions in the text index format, docID:termFreq:position;position...
+     *
+     * @param postings postings ordered by document id
+     * @return list of postings with positions
+     */
+    private static PositionalPostingList parsePositional(List<String> postings) {
+        PositionalPostingList list = new PositionalPostingList();
+        int[] positions = new int[16];
+
+        for (String posting : postings) {
+            String[] split = posting.split(":");
+            String[] values = split[2].split(";");
+            if (values.length > positions.length)
+                positions = new int[values.length];
+
+            for (int p = 0; p < values.length; p++)
+                positions[p] = Integer.parseInt(values[p]);
+            list.add(Integer.parseInt(split[0]), positions, values.length);
+        }
+
+        return list;
+    }
+
+    /**
+     * Opens a cursor over each segment
+     *
+     * @param segments filenames of the segments
+     * @return list of cursors positioned before the first term
+     * @throws IOException if a segment can not be read
+     */
+    private List<SegmentCursor> openSegments(List<String> segments) throws IOException {
+        List<SegmentCursor> cursors = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < segments.size(); i++)
+                cursors.add(new SegmentCursor(segments.get(i), i));
+        } catch (IOException e) {
+            for (SegmentCursor cursor : cursors)
+                cursor.close();
+            throw e;
+        }
+
+        return cursors;
+    }
+
+    /**
+     * Returns the total number of documents of the segments
+     *
+     * @param cursors segment cursors
+     * @return number of documents
+     */
+    private int countDocuments(List<SegmentCursor> cursors) {
+        return cursors.stream().mapToInt(cursor -> cursor.n_docs).sum();
+    }
+
+    /**
+     * Merges the terms of the segments in alphabetic order, passing each term and its postings ordered by
+     * document id to the writer
+     *
+     * @param cursors segment cursors
+     * @param writer receives each merged term
+     * @return the number of terms merged
+     * @throws IOException if a segment can not be read or the output file written
+     */
+    private int merge(List<SegmentCursor> cursors, TermWriter writer) throws IOException {
+        PriorityQueue<SegmentCursor> queue = new PriorityQueue<>((c1, c2) -> c1.term.equals(c2.term)
+                ? Integer.compare(c1.position, c2.position) : c1.term.compareTo(c2.term));
+        int n_terms = 0;
+
+        for (SegmentCursor cursor : cursors) {
+            if (cursor.advance())
+                queue.add(cursor);
+        }
+
+        while (!queue.isEmpty()) {
+            String term = queue.peek().term;
+            List<String> postings = new ArrayList<>();
+
+            while (!queue.isEmpty() && queue.peek().term.equals(term)) {
+                SegmentCursor cursor = queue.poll();
+                for (String posting : cursor.postings) {
+                    if (cursor.removed.isEmpty() || !cursor.removed.get(docID(posting)))
+                        postings.add(posting);
+                }
+
+                if (cursor.advance())
+                    queue.add(cursor);
+            }
+
+            if (postings.isEmpty())
+                continue;
+
+            postings.sort(comparingInt(SegmentMerger::docID));
+            writer.write(term, postings);
+            n_terms++;
+        }
+
+        return n_terms;
+    }
+
+    /**
+     * Returns the document id of a posting in the text index format
+     *
+     * @param posting posting docID:value
+     * @return document id
+     */
+    private static int docID(String posting) {
+        return Integer.parseInt(posting.substring(0, posting.indexOf(':')));
+    }
+
+    /**
+     * Receives the merged postings of a term
+     */
+    private interface TermWriter {
+        void write(String term, List<String> postings) throws IOException;
+    }
+
+    /**
+     * Sequential reader of the terms of a segment
+     */
+    private static class SegmentCursor {
+        private BufferedReader reader;
+        private int position;
+        private int n_docs;
+        private String term;
+        private String[] postings;
+        private BitSet removed = new BitSet();
+
+        SegmentCursor(String filename, int position) throws IOException {
+            this.reader = new BufferedReader(new FileReader(filename));
+            this.position = position;
+
+            String header = reader.readLine();
+            if (header != null)
+                this.n_docs = Integer.parseInt(header.split(" ")[1]);
+        }
+
+        /**
+         * Reads the next term of the segment
+         *
+         * @return true if a term was read, false if the end of the segment was reached
+         * @throws IOException if the segment can not be read
+         */
+        boolean advance() throws IOException {
+            String line = reader.readLine();
+            if (line == null)
+                return false;
+
+            int separator = line.indexOf(' ');
+            term = line.substring(0, separator);
+            postings = line.substring(separator + 1).split(",");
+            return true;
+        }
+
+        void close() throws IOException {
+            reader.close();
+        }
+    }
+}
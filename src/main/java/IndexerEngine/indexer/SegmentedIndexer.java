@@ -0,0 +1,232 @@
+package IndexerEngine.indexer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Read-only index that joins several segments. The number of documents and the document frequency of a term are
+ * the sums over the segments and the postings of a term are the union of its postings in every segment, ordered
+ * by document id, so the segments are searched as a single index.
+ * <p>
+ * A document indexed again in a newer segment has its postings in the older segments left out of the union.
+ * The deleted documents are skipped by the scoring algorithms. Until the segments are merged the replaced and
+ * deleted documents are still counted in the number of documents and in the document frequencies.
+ *
+ * @see SegmentManifest
+ */
+public class SegmentedIndexer extends Indexer {
+    private List<Indexer> segments;
+    private List<BitSet> replacedDocs;
+    private volatile Set<String> terms;
+    private volatile Vocabulary termIDs;
+
+    /**
+     * Creates a new instance of SegmentedIndexer
+     *
+     * @param segments indexes of the segments, of the same type and built with the same tokenizer
+     * @param replacedDocs for each segment, the documents replaced by a copy in a newer segment
+     * @param deletedDocs documents deleted
+     */
+    public SegmentedIndexer(List<Indexer> segments, List<BitSet> replacedDocs, BitSet deletedDocs) {
+        this.segments = segments;
+        this.replacedDocs = replacedDocs;
+        this.deletedDocs = deletedDocs;
+
+        for (Indexer segment : segments)
+            n_docs += segment.getN_docs();
+
+        if (!segments.isEmpty())
+            tokenizerName = segments.get(0).getTokenizerName();
+    }
+
+    /**
+     * A segmented index is read-only, documents are added in a new segment
+     *
+     * @param terms list of terms of a document
+     * @param docID document id
+     */
+    @Override
+    public void index(List<String> terms, int docID) {
+        throw new UnsupportedOperationException("A segmented index is read-only");
+    }
+
+    /**
+     * Returns the type of the index of the segments
+     *
+     * @return index type
+     */
+    @Override
+    public byte getIndexType() {
+        return segments.isEmpty() ? BinaryIndexFormat.TYPE_WT_NORM : segments.get(0).getIndexType();
+    }
+
+    /**
+     * Joins the postings of the term in every segment, leaving out the documents replaced in a newer segment.
+     * The list of a segment is returned as is when the term only appears in that segment and none of its
+     * documents were replaced.
+     *
+     * @param term word to obtain the list of postings
+     * @return list of postings of the term or null if the term is not indexed
+     */
+    @Override
+    public PostingList getTermPostings(String term) {
+        PostingList joined = null;
+        PostingList first = null;
+        int firstSegment = -1;
+
+        for (int i = 0; i < segments.size(); i++) {
+            PostingList postings = segments.get(i).getTermPostings(term);
+            if (postings == null)
+                continue;
+
+            if (first == null) {
+                first = postings;
+                firstSegment = i;
+                continue;
+            }
+
+            if (joined == null)
+                joined = copyLive(first, firstSegment, null);
+            copyLive(postings, i, joined);
+        }
+
+        if (first != null && joined == null && !replacedDocs.get(firstSegment).isEmpty())
+            joined = copyLive(first, firstSegment, null);
+
+        if (joined == null)
+            return first;
+
+        // segments are usually created in document id order, so the joined list is already ordered
+        joined.sort();
+        return joined;
+    }
+
+    /**
+     * Appends the postings of a segment to a list, except the postings of the documents replaced in a newer one
+     *
+     * @param postings postings of the segment
+     * @param segment position of the segment
+     * @param joined list that receives the postings, null to create a new list
+     * @return list with the postings appended
+     */
+    private PostingList copyLive(PostingList postings, int segment, PostingList joined) {
+        if (joined == null)
+            joined = postings.newEmptyList();
+
+        int start = joined.size();
+        joined.append(postings);
+        joined.removeDocs(replacedDocs.get(segment), start);
+        return joined;
+    }
+
+    @Override
+    public int getDocFreq(String term) {
+        int docFreq = 0;
+        for (Indexer segment : segments)
+            docFreq += segment.getDocFreq(term);
+        return docFreq;
+    }
+
+    /**
+     * Returns the term id of a term in the vocabulary of the union of the terms of the segments, built on the first
+     * lookup
+     *
+     * @param term word to obtain the term id
+     * @return term id, -1 if the term is not indexed
+     */
+    @Override
+    public int getTermID(String term) {
+        return getTermIDs().getTermID(term);
+    }
+
+    @Override
+    public String getTerm(int termID) {
+        return getTermIDs().getTerm(termID);
+    }
+
+    @Override
+    public PostingList getTermPostings(int termID) {
+        return getTermPostings(getTerm(termID));
+    }
+
+    @Override
+    public int getDocFreq(int termID) {
+        return getDocFreq(getTerm(termID));
+    }
+
+    private Vocabulary getTermIDs() {
+        Vocabulary vocabulary = termIDs;
+        if (vocabulary == null) {
+            synchronized (this) {
+                vocabulary = termIDs;
+                if (vocabulary == null) {
+                    vocabulary = new Vocabulary();
+                    for (String term : getTerms())
+                        vocabulary.add(term);
+                    termIDs = vocabulary;
+                }
+            }
+        }
+        return vocabulary;
+    }
+
+    /**
+     * Returns the union of the terms of the segments, built on the first call. The index is searched by several
+     * threads, so the union is built under the same lock as the vocabulary and only published when complete.
+     *
+     * @return set of the indexed terms
+     */
+    @Override
+    public Set<String> getTerms() {
+        Set<String> union = terms;
+        if (union == null) {
+            synchronized (this) {
+                union = terms;
+                if (union == null) {
+                    union = new HashSet<>();
+                    for (Indexer segment : segments)
+                        union.addAll(segment.getTerms());
+                    terms = union;
+                }
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Returns the terms of the segments that start with a prefix
+     *
+     * @param prefix prefix of the terms
+     * @return terms with the prefix in alphabetic order
+     */
+    @Override
+    public List<String> getTermsWithPrefix(String prefix) {
+        TreeSet<String> union = new TreeSet<>();
+        for (Indexer segment : segments)
+            union.addAll(segment.getTermsWithPrefix(prefix));
+        return new ArrayList<>(union);
+    }
+
+    @Override
+    public int size() {
+        return getTerms().size();
+    }
+
+    /**
+     * Returns the indexes of the segments
+     *
+     * @return list of segment indexes
+     */
+    public List<Indexer> getSegments() {
+        return new ArrayList<>(segments);
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentedIndexer{segments=" + segments.size() + ", n_docs=" + n_docs + '}';
+    }
+}
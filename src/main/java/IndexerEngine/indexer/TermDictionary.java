@@ -0,0 +1,450 @@
+package IndexerEngine.indexer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only dictionary of the terms of an index, sorted and front-coded, that maps each term to a term id, its
+ * position in alphabetic order. The terms are grouped in blocks of a fixed number of terms: the first term of a
+ * block is stored whole and each of the others as the length of the prefix it shares with the previous term and
+ * the rest of its bytes, with the lengths variable byte encoded as in the {@link BinaryIndexFormat}. A lookup binary
+ * searches the first terms of the blocks and decodes a single block, and the terms are iterated in order, so the
+ * terms with a prefix are a range of term ids.
+ * <p>The terms are encoded one UTF-16 char at a time in 1 to 3 bytes, as UTF-8 encodes the chars of the basic
+ * plane, so the order of the encoded bytes is the order of {@link String#compareTo(String)}.</p>
+ */
+public class TermDictionary implements Iterable<String> {
+    public static final int DEFAULT_BLOCK_SIZE = 16;
+
+    // no encoded char has this byte, so it sorts after every term that starts with a prefix
+    private static final byte AFTER_PREFIX = (byte) 0xFF;
+
+    private final byte[] data;
+    private final int[] blockOffsets;
+    private final int blockSize;
+    private final int size;
+    private final int maxTermLength;
+
+    private TermDictionary(byte[] data, int[] blockOffsets, int blockSize, int size, int maxTermLength) {
+        this.data = data;
+        this.blockOffsets = blockOffsets;
+        this.blockSize = blockSize;
+        this.size = size;
+        this.maxTermLength = maxTermLength;
+    }
+
+    /**
+     * Creates the dictionary of a collection of terms, in any order
+     *
+     * @param terms distinct terms
+     * @return dictionary of the terms
+     */
+    public static TermDictionary of(Collection<String> terms) {
+        return of(terms, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates the dictionary of a collection of terms, in any order
+     *
+     * @param terms distinct terms
+     * @param blockSize number of terms of each block
+     * @return dictionary of the terms
+     */
+    public static TermDictionary of(Collection<String> terms, int blockSize) {
+        String[] sorted = terms.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return ofSorted(Arrays.asList(sorted), blockSize);
+    }
+
+    /**
+     * Creates the dictionary of a list of terms in alphabetic order, the term id of each term is its position in
+     * the list
+     *
+     * @param terms distinct terms in alphabetic order
+     * @param blockSize number of terms of each block
+     * @return dictionary of the terms
+     * @throws IllegalArgumentException if the terms are not in strictly increasing order
+     */
+    public static TermDictionary ofSorted(List<String> terms, int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("The block size must be positive");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int[] blockOffsets = new int[(terms.size() + blockSize - 1) / blockSize];
+        int maxTermLength = 0;
+        byte[] previous = null;
+
+        try {
+            for (int i = 0; i < terms.size(); i++) {
+                byte[] term = encode(terms.get(i));
+                maxTermLength = Math.max(maxTermLength, term.length);
+
+                if (previous != null && compare(previous, 0, previous.length, term) >= 0)
+                    throw new IllegalArgumentException("The terms are not sorted or repeated: " + terms.get(i));
+
+                if (i % blockSize == 0) {
+                    blockOffsets[i / blockSize] = out.size();
+                    BinaryIndexFormat.writeVByte(out, term.length);
+                    out.write(term);
+                } else {
+                    int prefix = sharedPrefix(previous, term);
+                    BinaryIndexFormat.writeVByte(out, prefix);
+                    BinaryIndexFormat.writeVByte(out, term.length - prefix);
+                    out.write(term, prefix, term.length - prefix);
+                }
+                previous = term;
+            }
+        } catch (IOException e) {
+            // a ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+
+        return new TermDictionary(out.toByteArray(), blockOffsets, blockSize, terms.size(), maxTermLength);
+    }
+
+    /**
+     * Returns the term id of a term
+     *
+     * @param term term
+     * @return term id, -1 if the term is not in the dictionary
+     */
+    public int getTermID(String term) {
+        int result = search(encode(term));
+        return result >= 0 ? result : -1;
+    }
+
+    /**
+     * Returns the term with a term id
+     *
+     * @param termID term id
+     * @return term
+     * @throws IndexOutOfBoundsException if there is no term with the term id
+     */
+    public String getTerm(int termID) {
+        if (termID < 0 || termID >= size)
+            throw new IndexOutOfBoundsException("Term id " + termID + " of a dictionary of " + size + " terms");
+
+        int block = termID / blockSize;
+        ByteBuffer in = ByteBuffer.wrap(data);
+        in.position(blockOffsets[block]);
+        byte[] current = new byte[maxTermLength];
+
+        int length = 0;
+        for (int id = block * blockSize; id <= termID; id++)
+            length = readTerm(in, current, id % blockSize == 0);
+        return decode(current, length);
+    }
+
+    /**
+     * Returns the term id of the first term greater than or equal to a term, the position where it would be
+     * inserted
+     *
+     * @param term term
+     * @return term id between 0 and {@link #size()}
+     */
+    public int lowerBound(String term) {
+        return lowerBound(encode(term));
+    }
+
+    private int lowerBound(byte[] key) {
+        int result = search(key);
+        return result >= 0 ? result : -result - 1;
+    }
+
+    /**
+     * Returns the terms that start with a prefix, in alphabetic order
+     *
+     * @param prefix prefix of the terms
+     * @return terms with the prefix
+     */
+    public List<String> getTermsWithPrefix(String prefix) {
+        byte[] key = encode(prefix);
+        int from = lowerBound(key);
+
+        byte[] after = Arrays.copyOf(key, key.length + 1);
+        after[key.length] = AFTER_PREFIX;
+        int to = lowerBound(after);
+
+        List<String> terms = new ArrayList<>(to - from);
+        Iterator<String> iterator = iterator(from);
+        for (int id = from; id < to; id++)
+            terms.add(iterator.next());
+        return terms;
+    }
+
+    /**
+     * Returns the number of terms of the dictionary
+     *
+     * @return number of terms
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the heap memory used by the dictionary
+     *
+     * @return memory used in bytes, counting the arrays and their headers
+     */
+    public long memoryUsage() {
+        return 16 + data.length + 16 + 4L * blockOffsets.length + 32;
+    }
+
+    /**
+     * Returns the terms in alphabetic order
+     *
+     * @return iterator over the terms
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * Returns the terms in alphabetic order starting from a term id
+     *
+     * @param termID term id of the first term returned
+     * @return iterator over the terms
+     */
+    public Iterator<String> iterator(int termID) {
+        return new Iterator<String>() {
+            private final ByteBuffer in = ByteBuffer.wrap(data);
+            private final byte[] current = new byte[maxTermLength];
+            private int next = size;
+
+            {
+                if (termID < size) {
+                    next = termID - termID % blockSize;
+                    in.position(blockOffsets[termID / blockSize]);
+                    while (next < termID)
+                        readTerm(in, current, next++ % blockSize == 0);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public String next() {
+                if (next >= size)
+                    throw new NoSuchElementException();
+                int length = readTerm(in, current, next++ % blockSize == 0);
+                return decode(current, length);
+            }
+        };
+    }
+
+    /**
+     * Returns a read-only view of the dictionary as a set of terms
+     *
+     * @return set of the terms
+     */
+    public Set<String> asSet() {
+        return new AbstractSet<String>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && getTermID((String) o) >= 0;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return TermDictionary.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Searches a key, binary searching the blocks and then comparing the key with the terms of a block as they are
+     * decoded, using the prefix each term shares with the previous one to skip the bytes already compared
+     *
+     * @param key encoded term
+     * @return term id of the key, or -(insertion point) - 1 if the key is not in the dictionary
+     */
+    private int search(byte[] key) {
+        int block = findBlock(key);
+        if (block < 0)
+            return -1;
+
+        int[] cursor = {blockOffsets[block]};
+        int first = block * blockSize;
+        int end = Math.min(first + blockSize, size);
+
+        // the first term of the block is less than or equal to the key
+        int length = readVByte(data, cursor);
+        int matched = 0;
+        while (matched < length && matched < key.length && data[cursor[0] + matched] == key[matched])
+            matched++;
+        if (matched == length && matched == key.length)
+            return first;
+        cursor[0] += length;
+
+        // matched is the length of the prefix shared by the previous term, less than the key, and the key
+        for (int id = first + 1; id < end; id++) {
+            int prefix = readVByte(data, cursor);
+            int suffix = readVByte(data, cursor);
+            int start = cursor[0];
+            cursor[0] += suffix;
+
+            if (prefix > matched)
+                continue;                   // the term differs from the key where the previous term did
+            if (prefix < matched)
+                return -id - 1;             // the term is greater than the previous term where it matched the key
+
+            int i = 0;
+            while (i < suffix && matched < key.length && data[start + i] == key[matched]) {
+                i++;
+                matched++;
+            }
+            if (i == suffix) {
+                if (matched == key.length)
+                    return id;
+                continue;                   // the term is a prefix of the key
+            }
+            if (matched == key.length || (data[start + i] & 0xFF) > (key[matched] & 0xFF))
+                return -id - 1;
+        }
+        return -end - 1;
+    }
+
+    /**
+     * Binary searches the last block whose first term is less than or equal to a key
+     *
+     * @param key encoded term
+     * @return position of the block, -1 if the key is before the first term
+     */
+    private int findBlock(byte[] key) {
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        int[] cursor = new int[1];
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            cursor[0] = blockOffsets[middle];
+            int length = readVByte(data, cursor);
+
+            if (compare(data, cursor[0], length, key) <= 0)
+                low = middle + 1;
+            else
+                high = middle - 1;
+        }
+        return high;
+    }
+
+    /**
+     * Reads a variable byte encoded integer from an array
+     *
+     * @param bytes array
+     * @param cursor position of the integer, moved to after it
+     * @return decoded value
+     */
+    private static int readVByte(byte[] bytes, int[] cursor) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        while (((b = bytes[cursor[0]++] & 0xFF) & 0x80) == 0) {
+            value |= b << shift;
+            shift += 7;
+        }
+        return value | ((b & 0x7F) << shift);
+    }
+
+    /**
+     * Decodes the next term of a block over the previous term
+     *
+     * @param in buffer positioned at the term
+     * @param current bytes of the previous term, replaced by the bytes of the term
+     * @param first whether the term is the first of its block
+     * @return length of the term in bytes
+     */
+    private static int readTerm(ByteBuffer in, byte[] current, boolean first) {
+        int prefix = first ? 0 : BinaryIndexFormat.readVByte(in);
+        int suffix = BinaryIndexFormat.readVByte(in);
+        in.get(current, prefix, suffix);
+        return prefix + suffix;
+    }
+
+    /**
+     * Compares the bytes of two terms as unsigned values
+     */
+    private static int compare(byte[] bytes, int start, int length, byte[] key) {
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int difference = (bytes[start + i] & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0)
+                return difference;
+        }
+        return length - key.length;
+    }
+
+    private static int sharedPrefix(byte[] previous, byte[] term) {
+        int n = Math.min(previous.length, term.length);
+        int i = 0;
+        while (i < n && previous[i] == term[i])
+            i++;
+        return i;
+    }
+
+    /**
+     * Encodes a term one char at a time, in 1 byte below 0x80, 2 bytes below 0x800 and 3 bytes otherwise
+     */
+    private static byte[] encode(String term) {
+        int length = 0;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+
+        byte[] bytes = new byte[length];
+        int position = 0;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c < 0x80) {
+                bytes[position++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | c >> 6);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                bytes[position++] = (byte) (0xE0 | c >> 12);
+                bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return bytes;
+    }
+
+    private static String decode(byte[] bytes, int length) {
+        char[] chars = new char[length];
+        int n = 0;
+        int i = 0;
+        while (i < length) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                chars[n++] = (char) b;
+                i++;
+            } else if (b < 0xE0) {
+                chars[n++] = (char) ((b & 0x1F) << 6 | bytes[i + 1] & 0x3F);
+                i += 2;
+            } else {
+                chars[n++] = (char) ((b & 0x0F) << 12 | (bytes[i + 1] & 0x3F) << 6 | bytes[i + 2] & 0x3F);
+                i += 3;
+            }
+        }
+        return new String(chars, 0, n);
+    }
+}
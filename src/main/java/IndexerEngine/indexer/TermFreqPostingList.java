@@ -0,0 +1,117 @@
+package IndexerEngine.indexer;
+
+import java.util.Arrays;
+
+/**
+ * List of postings (docID, termFreq) of a term, which states that the term is present in the document with the id
+ * docID and it appears termFreq times
+ */
+public class TermFreqPostingList extends PostingList {
+    private int[] termFreqs;
+
+    public TermFreqPostingList() {
+        super();
+        this.termFreqs = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a posting to the end of the list
+     *
+     * @param docID    the document id
+     * @param termFreq the term frequency
+     */
+    public void add(int docID, int termFreq) {
+        ensureCapacity(size + 1);
+        docIDs[size] = docID;
+        termFreqs[size] = termFreq;
+        size++;
+    }
+
+    /**
+     * Registers an occurrence of the term in a document, incrementing the frequency of the last posting if it
+     * belongs to the same document or adding a new posting otherwise
+     *
+     * @param docID the document id
+     * @return true if a new posting was added
+     */
+    public boolean addOccurrence(int docID) {
+        if (size > 0 && docIDs[size - 1] == docID) {
+            termFreqs[size - 1]++;
+            blocks = null;
+            return false;
+        }
+        add(docID, 1);
+        return true;
+    }
+
+    @Override
+    public int getTermFreq(int i) {
+        return termFreqs[i];
+    }
+
+    /**
+     * A term frequency list has no weights
+     *
+     * @param i position of the posting
+     * @return never returns
+     */
+    @Override
+    public double getWeight(int i) {
+        throw new UnsupportedOperationException("Term frequency postings have no weights");
+    }
+
+    /**
+     * Only a positional list keeps the positions of the postings
+     *
+     * @param i position of the posting
+     * @param buffer array that may be reused to hold the positions
+     * @return never returns
+     */
+    @Override
+    public int[] getPositions(int i, int[] buffer) {
+        throw new UnsupportedOperationException("Term frequency postings have no positions");
+    }
+
+    @Override
+    public double getImpact(int i) {
+        return termFreqs[i];
+    }
+
+    @Override
+    public int encodedValue(int i) {
+        return termFreqs[i];
+    }
+
+    @Override
+    public void appendPosting(StringBuilder builder, int i) {
+        builder.append(docIDs[i]).append(':').append(termFreqs[i]);
+    }
+
+    @Override
+    public void append(PostingList other) {
+        TermFreqPostingList list = (TermFreqPostingList) other;
+        ensureCapacity(size + list.size);
+        System.arraycopy(list.docIDs, 0, docIDs, size, list.size);
+        System.arraycopy(list.termFreqs, 0, termFreqs, size, list.size);
+        size += list.size;
+    }
+
+    @Override
+    protected void reorder(int[] order) {
+        super.reorder(order);
+        int[] sortedTermFreqs = new int[termFreqs.length];
+        for (int i = 0; i < size; i++)
+            sortedTermFreqs[i] = termFreqs[order[i]];
+        termFreqs = sortedTermFreqs;
+    }
+
+    @Override
+    public PostingList newEmptyList() {
+        return new TermFreqPostingList();
+    }
+
+    @Override
+    protected void resize(int capacity) {
+        termFreqs = Arrays.copyOf(termFreqs, capacity);
+    }
+}
@@ -0,0 +1,108 @@
+package IndexerEngine.indexer;
+
+import java.util.Arrays;
+
+/**
+ * Vocabulary of an index, that interns each term once and gives it a dense term id, in the order the terms are
+ * added. The term ids are kept in an open addressing hash table of ints indexed by the hash of the terms, so a
+ * lookup hashes the term once, with the hash cached by the string, and compares it only with the terms of its
+ * probe sequence, without boxing.
+ */
+public class Vocabulary {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private String[] terms;
+    private int[] table;            // term id + 1 of each slot, 0 for an empty slot
+    private int size;
+
+    public Vocabulary() {
+        this.terms = new String[INITIAL_CAPACITY / 2];
+        this.table = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the term id of a term, adding it to the vocabulary if it is not there
+     *
+     * @param term term
+     * @return term id
+     */
+    public int add(String term) {
+        int mask = table.length - 1;
+        int slot = hash(term) & mask;
+
+        for (int id = table[slot]; id != 0; id = table[slot]) {
+            if (terms[id - 1].equals(term))
+                return id - 1;
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == terms.length)
+            terms = Arrays.copyOf(terms, size * 2);
+        terms[size] = term;
+        table[slot] = ++size;
+
+        // the table is kept at most half full so the probe sequences stay short
+        if (2 * size > table.length)
+            rehash();
+        return size - 1;
+    }
+
+    /**
+     * Returns the term id of a term
+     *
+     * @param term term
+     * @return term id, -1 if the term is not in the vocabulary
+     */
+    public int getTermID(String term) {
+        int mask = table.length - 1;
+        int slot = hash(term) & mask;
+
+        for (int id = table[slot]; id != 0; id = table[slot]) {
+            if (terms[id - 1].equals(term))
+                return id - 1;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the term with a term id
+     *
+     * @param termID term id
+     * @return term
+     */
+    public String getTerm(int termID) {
+        return terms[termID];
+    }
+
+    /**
+     * Returns the number of terms, the term ids are between 0 and this value
+     *
+     * @return number of terms
+     */
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] rehashed = new int[table.length * 2];
+        int mask = rehashed.length - 1;
+
+        for (int id = 0; id < size; id++) {
+            int slot = hash(terms[id]) & mask;
+            while (rehashed[slot] != 0)
+                slot = (slot + 1) & mask;
+            rehashed[slot] = id + 1;
+        }
+        table = rehashed;
+    }
+
+    /**
+     * Spreads the bits of the hash of a term, as the strings of similar terms have close hashes
+     */
+    private static int hash(String term) {
+        int h = term.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,120 @@
+package IndexerEngine.indexer;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * List of postings (docID, wt_norm) of a term, which states that the term is present in the document with the id
+ * docID with the weight normalized wt_norm. Weights are kept with single precision.
+ */
+public class WtNormPostingList extends PostingList {
+    private float[] weights;
+    private float maxWeight = -1;           // cached, -1 when it must be recomputed
+
+    public WtNormPostingList() {
+        super();
+        this.weights = new float[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a posting to the end of the list
+     *
+     * @param docID   the document id
+     * @param wt_norm weight normalized
+     */
+    public void add(int docID, double wt_norm) {
+        ensureCapacity(size + 1);
+        docIDs[size] = docID;
+        weights[size] = (float) wt_norm;
+        size++;
+        maxWeight = -1;
+    }
+
+    /**
+     * Returns the highest weight of the list, an upper bound of the contribution of the term to any document
+     *
+     * @return highest weight
+     */
+    public double getMaxWeight() {
+        if (maxWeight < 0) {
+            float max = 0;
+            for (int i = 0; i < size; i++)
+                max = Math.max(max, weights[i]);
+            maxWeight = max;
+        }
+        return maxWeight;
+    }
+
+    /**
+     * A weighted list has no term frequencies
+     *
+     * @param i position of the posting
+     * @return never returns
+     */
+    @Override
+    public int getTermFreq(int i) {
+        throw new UnsupportedOperationException("Weighted postings have no term frequencies");
+    }
+
+    @Override
+    public double getWeight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * Only a positional list keeps the positions of the postings
+     *
+     * @param i position of the posting
+     * @param buffer array that may be reused to hold the positions
+     * @return never returns
+     */
+    @Override
+    public int[] getPositions(int i, int[] buffer) {
+        throw new UnsupportedOperationException("Weighted postings have no positions");
+    }
+
+    @Override
+    public double getImpact(int i) {
+        return weights[i];
+    }
+
+    @Override
+    public int encodedValue(int i) {
+        return BinaryIndexFormat.quantizeWeight(weights[i]);
+    }
+
+    @Override
+    public void appendPosting(StringBuilder builder, int i) {
+        builder.append(docIDs[i]).append(':').append(String.format(Locale.ROOT, "%.5f", weights[i]));
+    }
+
+    @Override
+    public void append(PostingList other) {
+        WtNormPostingList list = (WtNormPostingList) other;
+        ensureCapacity(size + list.size);
+        System.arraycopy(list.docIDs, 0, docIDs, size, list.size);
+        System.arraycopy(list.weights, 0, weights, size, list.size);
+        size += list.size;
+        maxWeight = -1;
+    }
+
+    @Override
+    protected void reorder(int[] order) {
+        super.reorder(order);
+        float[] sortedWeights = new float[weights.length];
+        for (int i = 0; i < size; i++)
+            sortedWeights[i] = weights[order[i]];
+        weights = sortedWeights;
+        maxWeight = -1;
+    }
+
+    @Override
+    public PostingList newEmptyList() {
+        return new WtNormPostingList();
+    }
+
+    @Override
+    protected void resize(int capacity) {
+        weights = Arrays.copyOf(weights, capacity);
+    }
+}
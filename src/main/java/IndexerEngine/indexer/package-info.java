@@ -1,6 +1,6 @@
 package IndexerEngine.indexer;
 
 /*
- * Package that contains the IndexerEngine.indexer and the structure of a PostingWtNorm related to a term
- * and its frequency in a document
+ * Package that contains the IndexerEngine.indexer and the postings lists of the terms, stored in primitive
+ * arrays, together with the index file formats
  */
\ No newline at end of file
@@ -11,14 +11,16 @@ import java.util.List;
 import java.util.Scanner;
 
 /**
- * A more complex tokenizer implementation
+ * A more complex tokenizer implementation. The stemmer keeps state while stemming, so each thread uses its own
+ * and the same tokenizer can be used by several threads.
  */
 
 public class ComplexTokenizer implements Tokenizer {
 
     private String stopfile;      // file that hold all the stopwords/terms to be removed
     private List<String> stopWords;
-    private englishStemmer stemmer;
+    private ThreadLocal<englishStemmer> stemmer;
+    private StemCache stemCache;
 
     /**
      * Creates a new instance of the complex tokenizer
@@ -26,7 +28,7 @@ public class ComplexTokenizer implements Tokenizer {
      */
 
     public ComplexTokenizer(String stopfile) {
-        this.stemmer = new englishStemmer();
+        this.stemmer = ThreadLocal.withInitial(englishStemmer::new);
         this.stopfile = stopfile;
         this.stopWords = new ArrayList<>();
         collectAllStopWords();
@@ -55,6 +57,13 @@ public class ComplexTokenizer implements Tokenizer {
                     }
                 });
 
+        if (stemCache != null) {
+            for (int i = 0; i < tokens.size(); i++)
+                tokens.set(i, stemCache.stem(tokens.get(i)));
+            return tokens;
+        }
+
+        englishStemmer stemmer = this.stemmer.get();
         for (int i = 0; i < tokens.size(); i++) {
             stemmer.setCurrent(tokens.get(i));
             stemmer.stem();
@@ -78,6 +87,11 @@ public class ComplexTokenizer implements Tokenizer {
         }
     }
 
+    @Override
+    public void setStemCache(StemCache stemCache) {
+        this.stemCache = stemCache;
+    }
+
     /**
      * Return the filename of the file that contains the stopwords
      * 
@@ -0,0 +1,138 @@
+package IndexerEngine.tokenizers;
+
+import org.tartarus.snowball.ext.englishStemmer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+
+/**
+ * Tokenizer that generates the same tokens as the {@link ComplexTokenizer} scanning the text once, without regular
+ * expressions. Tokens are the runs of ASCII letters or of ASCII digits, lowercased, so a sequence of alphanumeric
+ * characters is split where a digit is adjacent to a letter. Stopwords are looked up in a hash set and the
+ * remaining tokens are stemmed with the porter stemmer for the english language, one per thread.
+ */
+
+public class FastComplexTokenizer implements Tokenizer {
+
+    private String stopfile;      // file that hold all the stopwords/terms to be removed
+    private Set<String> stopWords;
+    private ThreadLocal<englishStemmer> stemmer;
+    private StemCache stemCache;
+
+    /**
+     * Creates a new instance of the fast complex tokenizer
+     * @param stopfile file that contains the stopwords
+     */
+
+    public FastComplexTokenizer(String stopfile) {
+        this.stemmer = ThreadLocal.withInitial(englishStemmer::new);
+        this.stopfile = stopfile;
+        this.stopWords = new HashSet<>();
+        collectAllStopWords();
+    }
+
+    /**
+     * Method that splits the text on a sequence of one or more non alphanumeric characters and
+     * also splits tokens that have adjacent digits and non-digits, in a single pass over the text.
+     * Tokens that appear on a stopwords list are removed and the others are stemmed, using the stem cache if set.
+     *
+     * @param inputText text to be processed
+     * @return list of generated tokens
+     */
+
+    @Override
+    public List<String> tokenize(String inputText) {
+        List<String> tokens = new ArrayList<>();
+        englishStemmer stemmer = this.stemmer.get();
+
+        int length = inputText.length();
+        char[] token = new char[32];
+        int i = 0;
+
+        while (i < length) {
+            char c = inputText.charAt(i);
+            boolean digit = isDigit(c);
+            if (!digit && !isLetter(c)) {
+                i++;
+                continue;
+            }
+
+            // a run of letters or a run of digits
+            int tokenLength = 0;
+            while (i < length) {
+                c = inputText.charAt(i);
+                if (digit ? !isDigit(c) : !isLetter(c))
+                    break;
+                if (tokenLength == token.length)
+                    token = Arrays.copyOf(token, tokenLength * 2);
+                token[tokenLength++] = c <= 'Z' && c >= 'A' ? (char) (c + ('a' - 'A')) : c;
+                i++;
+            }
+
+            String term = new String(token, 0, tokenLength);
+            if (stopWords.contains(term))
+                continue;
+
+            if (stemCache != null) {
+                tokens.add(stemCache.stem(term));
+            } else {
+                stemmer.setCurrent(term);
+                stemmer.stem();
+                tokens.add(stemmer.getCurrent());
+            }
+        }
+
+        return tokens;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Method that collects all stopwords from a file to a set
+     */
+    private void collectAllStopWords() {
+        try (Scanner scanner = new Scanner(new FileInputStream(new File(stopfile)), "UTF-8")) {
+            while (scanner.hasNextLine()) {
+                stopWords.add(scanner.nextLine().toLowerCase());
+            }
+        } catch (IOException e) {
+            System.err.println("Error parsing the file " + stopfile);
+        }
+    }
+
+    @Override
+    public void setStemCache(StemCache stemCache) {
+        this.stemCache = stemCache;
+    }
+
+    /**
+     * Return the filename of the file that contains the stopwords
+     *
+     * @return filename of the file that contains the stopwords
+     */
+    public String getStopfile() {
+        return stopfile;
+    }
+
+    /**
+     * Store or modify the filename of the file that contains the stopwords
+     *
+     * @param stopfile filename of the file that contains the stopwords
+     */
+    public void setStopfile(String stopfile) {
+        this.stopfile = stopfile;
+    }
+}
@@ -0,0 +1,138 @@
+package IndexerEngine.tokenizers;
+
+import org.tartarus.snowball.ext.englishStemmer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache from the surface form of a token to its stem. Word frequencies are heavily skewed, so most tokens
+ * are stems already computed. The cache is split in stripes, each one a least recently used map guarded by its
+ * own lock, so it can be shared by tokenizers running in several threads. The stems missing are computed with the
+ * porter stemmer for the english language of the calling thread.
+ */
+public class StemCache {
+    public static final int DEFAULT_CAPACITY = 100000;
+    private static final int N_STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final ThreadLocal<englishStemmer> stemmer;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * Creates a cache with a maximum number of stems
+     *
+     * @param capacity maximum number of stems kept, divided evenly by the stripes
+     */
+    public StemCache(int capacity) {
+        this.stripes = new Stripe[N_STRIPES];
+        for (int i = 0; i < N_STRIPES; i++)
+            stripes[i] = new Stripe(Math.max(1, capacity / N_STRIPES));
+
+        this.stemmer = ThreadLocal.withInitial(englishStemmer::new);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    /**
+     * Returns the stem of a token, from the cache or stemming and caching it
+     *
+     * @param token lowercased token
+     * @return stem of the token
+     */
+    public String stem(String token) {
+        int hash = token.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (N_STRIPES - 1)];
+
+        String stem;
+        synchronized (stripe) {
+            stem = stripe.get(token);
+        }
+        if (stem != null) {
+            hits.increment();
+            return stem;
+        }
+
+        misses.increment();
+        englishStemmer stemmer = this.stemmer.get();
+        stemmer.setCurrent(token);
+        stemmer.stem();
+        stem = stemmer.getCurrent();
+
+        synchronized (stripe) {
+            stripe.put(token, stem);
+        }
+        return stem;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the fraction of the tokens whose stem was found in the cache
+     *
+     * @return hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Returns the number of stems in the cache
+     *
+     * @return number of stems
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Stem cache: %d stems, %d hits, %d misses, %d evictions, hit rate %.3f", size(),
+                getHits(), getMisses(), getEvictions(), getHitRate());
+    }
+
+    /**
+     * Least recently used map of one stripe
+     */
+    private class Stripe extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -16,4 +16,12 @@ public interface Tokenizer {
      * @return list of generated tokens
      */
     List<String> tokenize(String inputText);
+
+    /**
+     * Sets the cache of stems used by the tokenizer, ignored by tokenizers that do not stem
+     *
+     * @param stemCache cache of stems, null to stem every token
+     */
+    default void setStemCache(StemCache stemCache) {
+    }
 }
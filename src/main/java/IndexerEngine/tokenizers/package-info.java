@@ -1,5 +1,6 @@
 package IndexerEngine.tokenizers;
 
 /**
- * Package that contains the tokenizer interface and two implementations one simple and one more complex
+ * Package that contains the tokenizer interface and two implementations of the complex tokenizer, one based on
+ * regular expressions and one that scans the text once
  */
\ No newline at end of file
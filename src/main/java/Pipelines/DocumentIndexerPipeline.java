@@ -1,23 +1,28 @@
 package Pipelines;
 
 import IndexerEngine.corpusReaders.CorpusReader;
-import IndexerEngine.documents.Document;
+import IndexerEngine.indexer.DocumentLengths;
+import IndexerEngine.indexer.ImpactOrderedIndex;
 import IndexerEngine.indexer.Indexer;
 import IndexerEngine.indexer.IndexerTermFreq;
 import IndexerEngine.tokenizers.Tokenizer;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 /**
  * Pipeline that executes the document indexer program
  */
 public class DocumentIndexerPipeline implements Pipeline{
-    private File directory;
-    private CorpusReader corpusReader;
-    private Tokenizer tokenizer;
-    private Indexer indexer;
-    private String outputFileName;
+    protected File directory;
+    protected CorpusReader corpusReader;
+    protected Tokenizer tokenizer;
+    protected Indexer indexer;
+    protected String outputFileName;
+    protected boolean binaryFormat;
+    protected boolean impactOrdered;
+    protected File[] selectedFiles;
 
     public DocumentIndexerPipeline(File directory, CorpusReader corpusReader, Tokenizer tokenizer, Indexer indexer,
                                    String outputFileName) {
@@ -33,24 +38,86 @@ public class DocumentIndexerPipeline implements Pipeline{
      */
     @Override
     public void execute() {
-        File[] fList = directory.listFiles(File::isFile);
-
-        for (File file : fList) {
-            Document document = corpusReader.read(file.toString());
-
-            if (document != null) {
+        for (File file : corpusFiles()) {
+            corpusReader.readDocuments(file.toString(), document -> {
                 List<String> tokens = tokenizer.tokenize(document.getText());
                 indexer.index(tokens, document.getId());
-            }
+            });
         }
 
-        indexer.saveToFile(outputFileName, tokenizer.getClass().getSimpleName());
+        saveIndex();
+
+        printStatistics();
+    }
+
+    /**
+     * Returns the files of the corpus, the files selected to be indexed, the files of the corpus directory or the
+     * corpus file itself
+     *
+     * @return corpus files
+     */
+    protected File[] corpusFiles() {
+        if (selectedFiles != null)
+            return selectedFiles;
+        if (directory.isFile())
+            return new File[]{directory};
+        return directory.listFiles(File::isFile);
+    }
+
+    /**
+     * Saves the index to the output file in the text, in the binary or in the impact-ordered index format and, for
+     * a term frequency index, the table of document lengths alongside it
+     */
+    protected void saveIndex() {
+        String tokenizerName = tokenizer.getClass().getSimpleName();
+
+        if (impactOrdered)
+            saveImpactOrderedIndex(tokenizerName);
+        else if (binaryFormat)
+            indexer.saveToBinaryFile(outputFileName, tokenizerName);
+        else
+            indexer.saveToFile(outputFileName, tokenizerName);
+
+        if (indexer instanceof IndexerTermFreq)
+            saveDocumentLengths(DocumentLengths.of(indexer));
+    }
 
+    /**
+     * Saves the weighted index to the output file with the weights quantized and the postings ordered by impact
+     *
+     * @param tokenizerName tokenizer class name
+     */
+    protected void saveImpactOrderedIndex(String tokenizerName) {
+        try {
+            ImpactOrderedIndex.of(indexer, tokenizerName).save(outputFileName);
+        } catch (IOException e) {
+            System.err.println("Unable to save index to file " + e);
+            System.exit(1);
+        }
+    }
 
+    /**
+     * Saves the table of document lengths alongside the output file
+     *
+     * @param documentLengths length of each indexed document
+     */
+    protected void saveDocumentLengths(DocumentLengths documentLengths) {
+        try {
+            documentLengths.save(DocumentLengths.filename(outputFileName));
+        } catch (IOException e) {
+            System.err.println("Unable to save the document lengths " + e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints the size of the resulting index and, for a term frequency index, the terms that appear in only one
+     * document and the terms with higher document frequency
+     */
+    protected void printStatistics() {
         System.out.println("Indexer size: " + indexer.size() + "\n");
 
-        String indexerName = indexer.getClass().getSimpleName();
-        if (indexerName.equals("IndexerTermFreq")) {
+        if (indexer instanceof IndexerTermFreq) {
             IndexerTermFreq indexerTermFreq = (IndexerTermFreq) indexer;
             System.out.println("List of ten first terms that appear in only one document");
             List<String> termsInOneDoc = indexerTermFreq.getFirst10TermsInOneDoc();
@@ -105,4 +172,29 @@ public class DocumentIndexerPipeline implements Pipeline{
     public void setOutputFileName(String outputFileName) {
         this.outputFileName = outputFileName;
     }
+
+    /**
+     * Sets whether the index is saved in the binary index format instead of the text format
+     * @param binaryFormat true to save the index in the binary format
+     */
+    public void setBinaryFormat(boolean binaryFormat) {
+        this.binaryFormat = binaryFormat;
+    }
+
+    /**
+     * Sets whether the weighted index is saved impact-ordered, with the weights quantized to 8 bits and the
+     * postings of each term ordered by decreasing impact, to be scored score-at-a-time
+     * @param impactOrdered true to save the index in the impact-ordered format
+     */
+    public void setImpactOrdered(boolean impactOrdered) {
+        this.impactOrdered = impactOrdered;
+    }
+
+    /**
+     * Restricts the files indexed to a subset of the corpus, such as the files added since the last segment
+     * @param selectedFiles files to be indexed, null to index every file of the corpus
+     */
+    public void setSelectedFiles(File[] selectedFiles) {
+        this.selectedFiles = selectedFiles;
+    }
 }
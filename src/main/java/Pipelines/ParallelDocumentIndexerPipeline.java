@@ -0,0 +1,101 @@
+package Pipelines;
+
+import IndexerEngine.corpusReaders.CorpusReader;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.tokenizers.Tokenizer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pipeline that executes the document indexer program with a pool of worker threads.
+ * Each worker reads, parses, tokenizes and indexes documents with its own corpus reader, tokenizer and partial
+ * indexer, since none of them are thread safe. At the end the partial indexers are merged into the final indexer,
+ * so the saved index is the same as the one produced by the single threaded pipeline.
+ */
+public class ParallelDocumentIndexerPipeline extends DocumentIndexerPipeline {
+    private int nThreads;
+    private Supplier<CorpusReader> corpusReaderFactory;
+    private Supplier<Tokenizer> tokenizerFactory;
+    private Supplier<Indexer> indexerFactory;
+
+    public ParallelDocumentIndexerPipeline(File directory, Supplier<CorpusReader> corpusReaderFactory,
+                                           Supplier<Tokenizer> tokenizerFactory, Supplier<Indexer> indexerFactory,
+                                           String outputFileName, int nThreads) {
+        super(directory, corpusReaderFactory.get(), tokenizerFactory.get(), indexerFactory.get(), outputFileName);
+        this.corpusReaderFactory = corpusReaderFactory;
+        this.tokenizerFactory = tokenizerFactory;
+        this.indexerFactory = indexerFactory;
+        this.nThreads = nThreads;
+    }
+
+    /**
+     * Method that executes the document indexer pipeline, distributing the corpus files over the worker threads
+     * and merging the partial indexes before saving the result
+     */
+    @Override
+    public void execute() {
+        File[] fList = corpusFiles();
+        AtomicInteger nextFile = new AtomicInteger(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        List<Future<Indexer>> partialIndexers = new ArrayList<>();
+
+        for (int i = 0; i < nThreads; i++) {
+            partialIndexers.add(executor.submit(() -> indexFiles(fList, nextFile)));
+        }
+
+        try {
+            for (Future<Indexer> partialIndexer : partialIndexers) {
+                indexer.merge(partialIndexer.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error indexing documents " + e);
+            System.exit(1);
+        } finally {
+            executor.shutdown();
+        }
+
+        saveIndex();
+
+        printStatistics();
+    }
+
+    /**
+     * Indexes files taken from the shared list until there are none left
+     *
+     * @param fList corpus files
+     * @param nextFile position of the next file to be indexed, shared by all the workers
+     * @return partial indexer with the documents indexed by this worker
+     */
+    private Indexer indexFiles(File[] fList, AtomicInteger nextFile) {
+        CorpusReader workerReader = corpusReaderFactory.get();
+        Tokenizer workerTokenizer = tokenizerFactory.get();
+        Indexer partialIndexer = indexerFactory.get();
+
+        int i;
+        while ((i = nextFile.getAndIncrement()) < fList.length) {
+            workerReader.readDocuments(fList[i].toString(), document -> {
+                List<String> tokens = workerTokenizer.tokenize(document.getText());
+                partialIndexer.index(tokens, document.getId());
+            });
+        }
+
+        return partialIndexer;
+    }
+
+    /**
+     * Sets the number of worker threads to be used by the pipeline
+     * @param nThreads number of worker threads
+     */
+    public void setNThreads(int nThreads) {
+        this.nThreads = nThreads;
+    }
+}
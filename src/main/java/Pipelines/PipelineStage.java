@@ -0,0 +1,105 @@
+package Pipelines;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a stage of the staged indexer pipeline, updated by its threads: the items processed, the time blocked
+ * waiting for input or for room in the output queue, and the depth of the output queue sampled at each put.
+ */
+class PipelineStage {
+    private final String name;
+    private final int parallelism;
+
+    private final LongAdder items;
+    private final LongAdder takeBlockedNanos;
+    private final LongAdder putBlockedNanos;
+    private final LongAdder queueDepthSum;
+    private final LongAdder queueDepthSamples;
+    private final AtomicInteger maxQueueDepth;
+    private final AtomicInteger running;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    PipelineStage(String name, int parallelism) {
+        this.name = name;
+        this.parallelism = parallelism;
+        this.items = new LongAdder();
+        this.takeBlockedNanos = new LongAdder();
+        this.putBlockedNanos = new LongAdder();
+        this.queueDepthSum = new LongAdder();
+        this.queueDepthSamples = new LongAdder();
+        this.maxQueueDepth = new AtomicInteger();
+        this.running = new AtomicInteger(parallelism);
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Marks the start of the stage, called by each of its threads
+     */
+    void started() {
+        if (startNanos == 0)
+            startNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of one thread of the stage
+     *
+     * @return true if it was the last thread of the stage running
+     */
+    boolean finished() {
+        if (running.decrementAndGet() == 0) {
+            endNanos = System.nanoTime();
+            return true;
+        }
+        return false;
+    }
+
+    void processed() {
+        items.increment();
+    }
+
+    /**
+     * Takes the next input item, measuring the time blocked while the input queue is empty
+     */
+    <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        long start = System.nanoTime();
+        T item = queue.take();
+        takeBlockedNanos.add(System.nanoTime() - start);
+        return item;
+    }
+
+    /**
+     * Puts an output item, measuring the time blocked while the output queue is full
+     */
+    <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+        int depth = queue.size();
+        queueDepthSum.add(depth);
+        queueDepthSamples.increment();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+
+        long start = System.nanoTime();
+        queue.put(item);
+        putBlockedNanos.add(System.nanoTime() - start);
+    }
+
+    static String header() {
+        return String.format("%-9s | %-7s | %-8s | %-10s | %-14s | %-14s | %s", "Stage", "Threads", "Items",
+                "Items/s", "Take wait (ms)", "Put wait (ms)", "Output queue avg/max");
+    }
+
+    @Override
+    public String toString() {
+        double seconds = Math.max(1, endNanos - startNanos) / 1e9;
+        long samples = queueDepthSamples.sum();
+        String queue = samples == 0 ? "-" : String.format("%.1f/%d", (double) queueDepthSum.sum() / samples,
+                maxQueueDepth.get());
+        return String.format("%-9s | %-7d | %-8d | %-10.0f | %-14.0f | %-14.0f | %s", name, parallelism,
+                items.sum(), items.sum() / seconds, takeBlockedNanos.sum() / 1e6, putBlockedNanos.sum() / 1e6,
+                queue);
+    }
+}
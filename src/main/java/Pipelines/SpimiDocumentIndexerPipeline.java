@@ -0,0 +1,121 @@
+package Pipelines;
+
+import IndexerEngine.corpusReaders.CorpusReader;
+import IndexerEngine.indexer.DocumentLengths;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.IndexerTermFreq;
+import IndexerEngine.indexer.SegmentMerger;
+import IndexerEngine.tokenizers.Tokenizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pipeline that executes the document indexer program with a bounded amount of memory (single-pass in-memory
+ * indexing). Whenever the estimated size of the in-memory index reaches the memory budget the block is saved,
+ * sorted, to a temporary segment file and the indexer is cleared. At the end all segments are merged into the
+ * final index file. The document lengths of a term frequency index are collected from each block before it is
+ * cleared and saved alongside the final index file.
+ */
+public class SpimiDocumentIndexerPipeline extends DocumentIndexerPipeline {
+    private long memoryBudget;
+    private List<String> segments;
+    private DocumentLengths documentLengths;
+    private int n_docs;
+    private long peakHeapUsage;
+
+    public SpimiDocumentIndexerPipeline(File directory, CorpusReader corpusReader, Tokenizer tokenizer,
+                                        Indexer indexer, String outputFileName, long memoryBudget) {
+        super(directory, corpusReader, tokenizer, indexer, outputFileName);
+        this.memoryBudget = memoryBudget;
+        this.segments = new ArrayList<>();
+        this.documentLengths = new DocumentLengths();
+    }
+
+    /**
+     * Method that executes the document indexer pipeline, flushing a block to disk each time the memory budget
+     * is reached and merging all the blocks at the end
+     */
+    @Override
+    public void execute() {
+        String tokenizerName = tokenizer.getClass().getSimpleName();
+
+        for (File file : corpusFiles()) {
+            corpusReader.readDocuments(file.toString(), document -> {
+                List<String> tokens = tokenizer.tokenize(document.getText());
+                indexer.index(tokens, document.getId());
+
+                updatePeakHeapUsage();
+                if (indexer.estimatedMemoryUsage() >= memoryBudget)
+                    flushBlock(tokenizerName);
+            });
+        }
+
+        if (indexer.size() > 0 || segments.isEmpty())
+            flushBlock(tokenizerName);
+
+        int n_terms = 0;
+        try {
+            if (binaryFormat)
+                n_terms = new SegmentMerger().mergeToBinary(segments, outputFileName, tokenizerName,
+                        indexer.getIndexType());
+            else
+                n_terms = new SegmentMerger().merge(segments, outputFileName, tokenizerName);
+        } catch (IOException e) {
+            System.err.println("Unable to merge index segments " + e);
+            System.exit(1);
+        } finally {
+            segments.forEach(segment -> new File(segment).delete());
+        }
+
+        if (indexer instanceof IndexerTermFreq)
+            saveDocumentLengths(documentLengths);
+
+        System.out.println("Indexer size: " + n_terms + "\n");
+        System.out.println("Documents indexed: " + n_docs);
+        System.out.println("Number of blocks: " + segments.size());
+        System.out.println("Peak heap usage in MB: " + peakHeapUsage / (1024 * 1024) + "\n");
+    }
+
+    /**
+     * Saves the in-memory block to a temporary segment file and clears the indexer
+     *
+     * @param tokenizerName tokenizer class name
+     */
+    private void flushBlock(String tokenizerName) {
+        try {
+            File directory = new File(outputFileName).getAbsoluteFile().getParentFile();
+            File segment = File.createTempFile("block" + segments.size() + "-", ".tmp", directory);
+            segment.deleteOnExit();
+
+            indexer.saveToFile(segment.toString(), tokenizerName);
+            segments.add(segment.toString());
+        } catch (IOException e) {
+            System.err.println("Unable to create index segment " + e);
+            System.exit(1);
+        }
+
+        if (indexer instanceof IndexerTermFreq)
+            documentLengths.addAll(DocumentLengths.of(indexer));
+        n_docs += indexer.getN_docs();
+        indexer.clear();
+    }
+
+    /**
+     * Updates the peak heap usage observed during indexing
+     */
+    private void updatePeakHeapUsage() {
+        Runtime runtime = Runtime.getRuntime();
+        peakHeapUsage = Math.max(peakHeapUsage, runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    /**
+     * Sets the memory budget of the in-memory blocks
+     * @param memoryBudget memory budget in bytes
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+}
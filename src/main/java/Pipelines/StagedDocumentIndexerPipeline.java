@@ -0,0 +1,199 @@
+package Pipelines;
+
+import IndexerEngine.corpusReaders.CorpusReader;
+import IndexerEngine.documents.Document;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.tokenizers.Tokenizer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pipeline that executes the document indexer program in three stages connected by bounded queues: reading and
+ * parsing the corpus files, tokenizing the documents and indexing the tokens. Each stage runs with its own number
+ * of threads, so disk I/O, parsing and stemming overlap, and a full queue blocks the stage before it. Each thread
+ * of the indexing stage has a partial indexer, merged at the end as in the {@link ParallelDocumentIndexerPipeline}.
+ * The throughput of each stage, the time its threads waited for input or for room in the next queue and the
+ * depth of that queue are printed at the end.
+ */
+public class StagedDocumentIndexerPipeline extends DocumentIndexerPipeline {
+    // marks the end of the input of a thread of the next stage
+    private static final Document END_OF_DOCUMENTS = new Document(-1, "") {
+    };
+    private static final TokenizedDocument END_OF_TOKENS = new TokenizedDocument(-1, null);
+
+    private Supplier<CorpusReader> corpusReaderFactory;
+    private Supplier<Tokenizer> tokenizerFactory;
+    private Supplier<Indexer> indexerFactory;
+    private int queueCapacity;
+
+    private PipelineStage readStage;
+    private PipelineStage tokenizeStage;
+    private PipelineStage indexStage;
+
+    public StagedDocumentIndexerPipeline(File directory, Supplier<CorpusReader> corpusReaderFactory,
+                                         Supplier<Tokenizer> tokenizerFactory, Supplier<Indexer> indexerFactory,
+                                         String outputFileName, int readers, int tokenizers, int indexers,
+                                         int queueCapacity) {
+        super(directory, corpusReaderFactory.get(), tokenizerFactory.get(), indexerFactory.get(), outputFileName);
+        this.corpusReaderFactory = corpusReaderFactory;
+        this.tokenizerFactory = tokenizerFactory;
+        this.indexerFactory = indexerFactory;
+        this.queueCapacity = queueCapacity;
+        this.readStage = new PipelineStage("read", readers);
+        this.tokenizeStage = new PipelineStage("tokenize", tokenizers);
+        this.indexStage = new PipelineStage("index", indexers);
+    }
+
+    /**
+     * Method that executes the document indexer pipeline, starting the threads of all the stages and merging the
+     * partial indexers once the last document is indexed
+     */
+    @Override
+    public void execute() {
+        File[] fList = corpusFiles();
+        AtomicInteger nextFile = new AtomicInteger(0);
+        BlockingQueue<Document> documents = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<TokenizedDocument> tokenized = new ArrayBlockingQueue<>(queueCapacity);
+
+        ExecutorService executor = Executors.newFixedThreadPool(readStage.getParallelism()
+                + tokenizeStage.getParallelism() + indexStage.getParallelism());
+        List<Future<Indexer>> partialIndexers = new ArrayList<>();
+
+        for (int i = 0; i < readStage.getParallelism(); i++)
+            executor.submit(() -> readFiles(fList, nextFile, documents));
+        for (int i = 0; i < tokenizeStage.getParallelism(); i++)
+            executor.submit(() -> tokenizeDocuments(documents, tokenized));
+        for (int i = 0; i < indexStage.getParallelism(); i++)
+            partialIndexers.add(executor.submit(() -> indexDocuments(tokenized)));
+
+        try {
+            for (Future<Indexer> partialIndexer : partialIndexers) {
+                indexer.merge(partialIndexer.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error indexing documents " + e);
+            System.exit(1);
+        } finally {
+            executor.shutdown();
+        }
+
+        saveIndex();
+
+        printStatistics();
+
+        System.out.println(PipelineStage.header());
+        System.out.println(readStage);
+        System.out.println(tokenizeStage);
+        System.out.println(indexStage + "\n");
+    }
+
+    /**
+     * Reads files taken from the shared list until there are none left, putting their documents in the queue.
+     * The last reader to finish marks the end of the documents for each tokenizer.
+     */
+    private void readFiles(File[] fList, AtomicInteger nextFile, BlockingQueue<Document> documents) {
+        CorpusReader workerReader = corpusReaderFactory.get();
+        readStage.started();
+
+        try {
+            int i;
+            while ((i = nextFile.getAndIncrement()) < fList.length) {
+                workerReader.readDocuments(fList[i].toString(), document -> {
+                    readStage.processed();
+                    putUninterruptibly(readStage, documents, document);
+                });
+            }
+
+            if (readStage.finished()) {
+                for (int t = 0; t < tokenizeStage.getParallelism(); t++)
+                    readStage.put(documents, END_OF_DOCUMENTS);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            fail("reading", e);
+        }
+    }
+
+    /**
+     * Tokenizes documents from the queue until the end mark, putting their tokens in the next queue.
+     * The last tokenizer to finish marks the end of the tokens for each indexer.
+     */
+    private void tokenizeDocuments(BlockingQueue<Document> documents, BlockingQueue<TokenizedDocument> tokenized) {
+        Tokenizer workerTokenizer = tokenizerFactory.get();
+        tokenizeStage.started();
+
+        try {
+            Document document;
+            while ((document = tokenizeStage.take(documents)) != END_OF_DOCUMENTS) {
+                List<String> tokens = workerTokenizer.tokenize(document.getText());
+                tokenizeStage.processed();
+                tokenizeStage.put(tokenized, new TokenizedDocument(document.getId(), tokens));
+            }
+
+            if (tokenizeStage.finished()) {
+                for (int t = 0; t < indexStage.getParallelism(); t++)
+                    tokenizeStage.put(tokenized, END_OF_TOKENS);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            fail("tokenizing", e);
+        }
+    }
+
+    /**
+     * Indexes the tokens from the queue until the end mark
+     *
+     * @return partial indexer with the documents indexed by this thread
+     */
+    private Indexer indexDocuments(BlockingQueue<TokenizedDocument> tokenized) throws InterruptedException {
+        Indexer partialIndexer = indexerFactory.get();
+        indexStage.started();
+
+        TokenizedDocument document;
+        while ((document = indexStage.take(tokenized)) != END_OF_TOKENS) {
+            partialIndexer.index(document.tokens, document.docID);
+            indexStage.processed();
+        }
+
+        indexStage.finished();
+        return partialIndexer;
+    }
+
+    private static <T> void putUninterruptibly(PipelineStage stage, BlockingQueue<T> queue, T item) {
+        try {
+            stage.put(queue, item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the queue", e);
+        }
+    }
+
+    /**
+     * A failed stage would leave the other stages waiting for the end of their input, so the program exits
+     */
+    private static void fail(String stage, Exception e) {
+        System.err.println("Error " + stage + " documents " + e);
+        System.exit(1);
+    }
+
+    /**
+     * Tokens of a document, passed from the tokenizing to the indexing stage
+     */
+    private static class TokenizedDocument {
+        final int docID;
+        final List<String> tokens;
+
+        TokenizedDocument(int docID, List<String> tokens) {
+            this.docID = docID;
+            this.tokens = tokens;
+        }
+    }
+}
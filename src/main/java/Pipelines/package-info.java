@@ -1,5 +1,5 @@
 package Pipelines;
 
 /**
- * Package that contains the pipeline interface and one implementation of the Document IndexerWtNorm
+ * Package that contains the pipeline interface and the implementations of the Document Indexer
  */
\ No newline at end of file
@@ -1,6 +1,8 @@
 
 package SearchEngine.Evaluation;
 
+import SearchEngine.QueryProcessing.QueryResultCache;
+
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
@@ -8,11 +10,16 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * Class that evaluate a search system
+ * Class that evaluate a search system. The metrics of a query are found by position in an array list and the
+ * relevant and retrieved documents of the query being evaluated are marked in bitsets, with the relevance level of
+ * each relevant document in an array indexed by doc id, so each retrieved document is checked in constant time.
  * 
  */
 public class Evaluation {
     private List<QueryMetrics> queriesMetrics;
+    private BitSet relevantDocs;
+    private BitSet retrievedDocs;
+    private int[] relevanceOfDocs;
     private double true_positives;
     private double retrieved_docs;
     private double relevant_docs;
@@ -28,9 +35,12 @@ public class Evaluation {
     private double recall;
     private double fmeasure;
     private List<Double> recall_levels;
+    private QueryResultCache resultCache;
 
     public Evaluation(String filename) {
-        this.queriesMetrics = new LinkedList<>();
+        this.queriesMetrics = new ArrayList<>();
+        this.relevantDocs = new BitSet();
+        this.retrievedDocs = new BitSet();
         readFile(filename);
 
         // fixo porque de forma iterativa valores de double nao sao exatos ex: 0.3 -> 0.30000000004
@@ -58,6 +68,8 @@ public class Evaluation {
     private void readFile(String filename) {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))){
             String line;
+            Map<Integer, QueryMetrics> queries = new HashMap<>();
+            int maxDocId = 0;
 
             while ((line = reader.readLine()) != null) {
                 String[] s = line.split(" +");
@@ -65,17 +77,16 @@ public class Evaluation {
                 int docId = Integer.parseInt(s[1]);
                 int relevance = Integer.parseInt(s[2]);
                 
-                int index = queriesMetrics.indexOf(new QueryMetrics(queryId));
-                if (index != -1) {
-                    QueryMetrics queryMetrics = queriesMetrics.get(index);
-                    queryMetrics.addRelevantDoc(docId, relevance);
-                }
-                else {
-                    QueryMetrics queryMetrics = new QueryMetrics(queryId);
-                    queryMetrics.addRelevantDoc(docId, relevance);
+                QueryMetrics queryMetrics = queries.get(queryId);
+                if (queryMetrics == null) {
+                    queryMetrics = new QueryMetrics(queryId);
+                    queries.put(queryId, queryMetrics);
                     queriesMetrics.add(queryMetrics);
                 }
+                queryMetrics.addRelevantDoc(docId, relevance);
+                maxDocId = Math.max(maxDocId, docId);
             }
+            relevanceOfDocs = new int[maxDocId + 1];
 
         } catch (IOException e) {
             System.err.println("Error reading query relevance file");
@@ -130,37 +141,25 @@ public class Evaluation {
      * In this method, is incremented the value of the true positives, the number
      * of the retrieved documents and the number of the relevant documents.
      * 
-     * @param queryID query id
-     * @param retrievedDocs list of the retrieved documents
-     * @param relevantDocs list of the relevant documents
+     * @param queryMetrics metrics of the query
+     * @param retrievedDocs ids of the retrieved documents
+     * @param relevantDocs ids of the relevant documents
+     * @param nRelevant number of relevant documents
+     * @return number of relevant documents retrieved
      */
-    private void calculatePrecision(int queryID, List<Integer> retrievedDocs, List<Integer> relevantDocs) {
+    private double calculatePrecision(QueryMetrics queryMetrics, int[] retrievedDocs, int[] relevantDocs,
+                                      int nRelevant) {
         double tp = 0.0;
-        for (int docId: relevantDocs) {
-            if (retrievedDocs.contains(docId))
+        for (int i = 0; i < nRelevant; i++) {
+            if (this.retrievedDocs.get(relevantDocs[i]))
                 tp++;
         }
 
         this.true_positives += tp;
-        this.retrieved_docs += retrievedDocs.size();
-        this.relevant_docs += relevantDocs.size();
-        queriesMetrics.get(queryID - 1).calculatePrecision(tp, retrievedDocs.size());
-    }
-
-    /**
-     * Method that calculate the recall of each query
-     * 
-     * @param queryID query id
-     * @param retrievedDocs list of the retrieved documents
-     * @param relevantDocs list of the relevant documents
-     */
-    private void calculateRecall(int queryID, List<Integer> retrievedDocs, List<Integer> relevantDocs) {
-        double tp = 0.0;
-        for (int docId: relevantDocs) {
-            if (retrievedDocs.contains(docId))
-                tp++;
-        }
-        queriesMetrics.get(queryID - 1).calculateRecall(tp, relevantDocs.size());
+        this.retrieved_docs += retrievedDocs.length;
+        this.relevant_docs += nRelevant;
+        queryMetrics.calculatePrecision(tp, retrievedDocs.length);
+        return tp;
     }
 
     /**
@@ -168,32 +167,31 @@ public class Evaluation {
      * In this method, for each rank position that represents a relevant document and retrieved,
      * is calculate the recall, for later be possible make the interpolation of the differents points.
      * 
-     * @param query query id
-     * @param documentsRetrieved list of the retrieved documents
-     * @param relevantDocs list of the relevant documents
+     * @param queryMetrics metrics of the query
+     * @param documentsRetrieved ids of the retrieved documents
+     * @param nRelevant number of relevant documents
      */
-    private void calculateAveragePrecision(int query, List<Integer> documentsRetrieved, List<Integer> relevantDocs) {
+    private void calculateAveragePrecision(QueryMetrics queryMetrics, int[] documentsRetrieved, int nRelevant) {
 
         double precisionsSum = 0.0;
-        int nRelevant = relevantDocs.size();
         double countRetr = 0;
         double tp = 0;
         for (int docId: documentsRetrieved) {
             countRetr++;
-            if (relevantDocs.contains(docId)) {
+            if (relevantDocs.get(docId)) {
                 tp++;
                 double recall = tp / nRelevant;
                 double precision = tp / countRetr;
-                queriesMetrics.get(query - 1).addRecallPrecisionPoint(recall, precision);
+                queryMetrics.addRecallPrecisionPoint(recall, precision);
                 precisionsSum += precision;
             }
 
-            if (tp == relevantDocs.size())
+            if (tp == nRelevant)
                 break;
 
         }
-        queriesMetrics.get(query - 1).calculateAveragePrecision(precisionsSum, tp);
-        queriesMetrics.get(query - 1).interpolatePrecision(recall_levels);
+        queryMetrics.calculateAveragePrecision(precisionsSum, tp);
+        queryMetrics.interpolatePrecision(recall_levels);
     }
 
     /**
@@ -224,32 +222,28 @@ public class Evaluation {
      * Method that calculate the average precision for the first 10 retrieved documents
      * of each query
      * 
-     * @param query query id
-     * @param documentsRetrieved list of the retrieved documents
-     * @param relevantDocs list of the relevant documents
+     * @param queryMetrics metrics of the query
+     * @param documentsRetrieved ids of the retrieved documents
+     * @param nRelevant number of relevant documents
      */
-    private void calculateAveragePrecisionAtRank10(int query, List<Integer> documentsRetrieved,
-                                                   List<Integer> relevantDocs) {
+    private void calculateAveragePrecisionAtRank10(QueryMetrics queryMetrics, int[] documentsRetrieved,
+                                                   int nRelevant) {
         double precisionsSum = 0.0;
         double countTotal = 0;
         double tp = 0;
 
-        if(documentsRetrieved.size() >= 10) {
-            documentsRetrieved = documentsRetrieved.subList(0,10);
-        }
-
-        for (int docId: documentsRetrieved) {
+        for (int i = 0; i < Math.min(10, documentsRetrieved.length); i++) {
             countTotal++;
-            if (relevantDocs.contains(docId)) {
+            if (relevantDocs.get(documentsRetrieved[i])) {
                 tp++;
                 precisionsSum += tp / countTotal;
             }
-            if (tp == relevantDocs.size())
+            if (tp == nRelevant)
                 break;
 
         }
 
-        queriesMetrics.get(query - 1).calculateAveragePrecisionAtRank10(precisionsSum, tp);
+        queryMetrics.calculateAveragePrecisionAtRank10(precisionsSum, tp);
     }
 
     /**
@@ -280,23 +274,22 @@ public class Evaluation {
     /**
      * Method that calculates the reciprocal rank of each query
      * 
-     * @param query query id
-     * @param documentsRetrieved list of the retrieved documents
-     * @param relevantDocs list of the relevant documents
+     * @param queryMetrics metrics of the query
+     * @param documentsRetrieved ids of the retrieved documents
      */
-    private void calculateReciprocalRank(int query, List<Integer> documentsRetrieved, List<Integer> relevantDocs) {
+    private void calculateReciprocalRank(QueryMetrics queryMetrics, int[] documentsRetrieved) {
 
         double rr = 0.0;
         double countTotal = 0;
         for (int docId: documentsRetrieved) {
             countTotal++;
 
-            if (relevantDocs.contains(docId)) {
+            if (relevantDocs.get(docId)) {
                 rr = 1 / countTotal;
                 break;
             }
         }
-        queriesMetrics.get(query-1).setReciprocalRank(rr);
+        queryMetrics.setReciprocalRank(rr);
     }
     
     /**
@@ -318,7 +311,7 @@ public class Evaluation {
      * @param queryId query id
      * @param queryLatency processing time of the query
      */
-    public void addQueryLatency(int queryId, double queryLatency) {
+    public synchronized void addQueryLatency(int queryId, double queryLatency) {
         queriesMetrics.get(queryId - 1).addQueryLatency(queryLatency);
     }
     
@@ -351,43 +344,57 @@ public class Evaluation {
     /**
      * Method that calculate the discounted cumulative gain of each query
      * 
-     * @param queryId query id
-     * @param documentsRetrieved list of the retrieved documents
+     * @param queryMetrics metrics of the query
+     * @param documentsRetrieved ids of the retrieved documents
      */
-    private void calculateDCG(int queryId, List<Integer> documentsRetrieved) {
-
-        Map<Integer, Integer> documentsRelevance = queriesMetrics.get(queryId - 1).getRelevantDocsWithRelevance(n_ratings);
+    private void calculateDCG(QueryMetrics queryMetrics, int[] documentsRetrieved) {
 
-        if (!documentsRetrieved.isEmpty()) {
-            double dcg = documentsRelevance.containsKey(documentsRetrieved.get(0))
-                    ? 5 - documentsRelevance.get(documentsRetrieved.get(0)) : 0.0;
-            for (int i = 1; i < documentsRetrieved.size(); i++) {
-                if (documentsRelevance.containsKey(documentsRetrieved.get(i)))
-                    dcg += (double) (5 - documentsRelevance.get(documentsRetrieved.get(i)))/(Math.log(i+1)/Math.log(2));
+        if (documentsRetrieved.length > 0) {
+            double dcg = relevantDocs.get(documentsRetrieved[0]) ? 5 - relevanceOfDocs[documentsRetrieved[0]] : 0.0;
+            for (int i = 1; i < documentsRetrieved.length; i++) {
+                if (relevantDocs.get(documentsRetrieved[i]))
+                    dcg += (double) (5 - relevanceOfDocs[documentsRetrieved[i]])/(Math.log(i+1)/Math.log(2));
             }
-            queriesMetrics.get(queryId - 1).setDcg(dcg);
+            queryMetrics.setDcg(dcg);
         }
         else
-            queriesMetrics.get(queryId - 1).setDcg(0.0);
+            queryMetrics.setDcg(0.0);
     }
     
 
     /**
      * Method that is the responsible to call all the methods that
-     * calculate the metrics of the query
+     * calculate the metrics of the query. The relevant documents with the relevance level
+     * and the retrieved documents are marked before the metrics are calculated and unmarked after.
      * 
      * @param queryID query id
-     * @param retrievedDocuments list of the retrieved documents 
+     * @param retrievedDocuments ids of the retrieved documents, in rank order
      */
-    public void calculateQueryMeasures(int queryID, List<Integer> retrievedDocuments) {
-        List<Integer> relevantDocuments = queriesMetrics.get(queryID - 1).getRelevantDocs(n_ratings);
-        calculatePrecision(queryID, retrievedDocuments, relevantDocuments);
-        calculateRecall(queryID, retrievedDocuments, relevantDocuments);
-        queriesMetrics.get(queryID-1).calculateFMeasure();
-        calculateAveragePrecision(queryID, retrievedDocuments, relevantDocuments);
-        calculateAveragePrecisionAtRank10(queryID, retrievedDocuments, relevantDocuments);
-        calculateReciprocalRank(queryID, retrievedDocuments, relevantDocuments);
-        calculateDCG(queryID, retrievedDocuments);
+    public void calculateQueryMeasures(int queryID, int[] retrievedDocuments) {
+        QueryMetrics queryMetrics = queriesMetrics.get(queryID - 1);
+        int[] relevantDocuments = queryMetrics.getRelevantDocIds();
+        int[] relevanceLevels = queryMetrics.getRelevanceLevels();
+        int nRelevant = queryMetrics.countRelevantDocs(n_ratings);
+
+        for (int i = 0; i < nRelevant; i++) {
+            relevantDocs.set(relevantDocuments[i]);
+            relevanceOfDocs[relevantDocuments[i]] = relevanceLevels[i];
+        }
+        for (int docId : retrievedDocuments)
+            retrievedDocs.set(docId);
+
+        double tp = calculatePrecision(queryMetrics, retrievedDocuments, relevantDocuments, nRelevant);
+        queryMetrics.calculateRecall(tp, nRelevant);
+        queryMetrics.calculateFMeasure();
+        calculateAveragePrecision(queryMetrics, retrievedDocuments, nRelevant);
+        calculateAveragePrecisionAtRank10(queryMetrics, retrievedDocuments, nRelevant);
+        calculateReciprocalRank(queryMetrics, retrievedDocuments);
+        calculateDCG(queryMetrics, retrievedDocuments);
+
+        for (int i = 0; i < nRelevant; i++)
+            relevantDocs.clear(relevantDocuments[i]);
+        for (int docId : retrievedDocuments)
+            retrievedDocs.clear(docId);
     }
 
     /**
@@ -442,7 +449,9 @@ public class Evaluation {
         System.out.printf("Mean Average Precision at Rank 10: %.5f\n", map10);
         System.out.printf("Mean Reciprocal Rank: %.5f\n", mrr);
         System.out.println("Query Throughput per second: " + query_throughput);
-        System.out.println("Median Query Latency in ms: "+ mql + "\n");
+        System.out.println("Median Query Latency in ms: "+ mql + (resultCache == null ? "\n" : ""));
+        if (resultCache != null)
+            System.out.println(resultCache + "\n");
 
     }
 
@@ -455,6 +464,69 @@ public class Evaluation {
         this.n_ratings = n_ratings;
     }
 
+    /**
+     * Returns the mean average precision calculated by {@link #calculateSystemMeasures()}
+     *
+     * @return mean average precision
+     */
+    public double getMap() {
+        return map;
+    }
+
+    /**
+     * Returns the mean average precision at rank 10 calculated by {@link #calculateSystemMeasures()}
+     *
+     * @return mean average precision at rank 10
+     */
+    public double getMap10() {
+        return map10;
+    }
+
+    /**
+     * Returns the mean reciprocal rank calculated by {@link #calculateSystemMeasures()}
+     *
+     * @return mean reciprocal rank
+     */
+    public double getMrr() {
+        return mrr;
+    }
+
+    /**
+     * Returns the median query latency calculated by {@link #calculateSystemMeasures()}
+     *
+     * @return median query latency in ms
+     */
+    public double getMedianQueryLatency() {
+        return mql;
+    }
+
+    /**
+     * Returns the query throughput calculated by {@link #calculateSystemMeasures()}
+     *
+     * @return queries per second
+     */
+    public double getQueryThroughput() {
+        return query_throughput;
+    }
+
+    /**
+     * Returns the metrics of the queries of the gold standard, the query with id n at the position n - 1
+     *
+     * @return metrics of the queries
+     */
+    List<QueryMetrics> getQueriesMetrics() {
+        return queriesMetrics;
+    }
+
+    /**
+     * Store or modify the result cache of the evaluated retrieval, whose counters are printed with the latencies
+     *
+     * @param resultCache result cache, null if the results are not cached
+     */
+    public void setResultCache(QueryResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
     /**
      * Method that restores the attributes of the class and of the QueryMetrics class
      * 
@@ -2,7 +2,6 @@
 package SearchEngine.Evaluation;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Class that represents the metrics of the query
@@ -10,7 +9,11 @@ import java.util.stream.Collectors;
  */
 public class QueryMetrics {
     private int queryId;
-    private Map<Integer, Integer> relevantDocs;
+    // relevant documents as added and, once prepared, without repetitions ordered by relevance level and doc id
+    private int[] relevantDocIds;
+    private int[] relevanceLevels;
+    private int n_relevant;
+    private boolean prepared;
     private double precision;
     private double recall;
     private double fmeasure;
@@ -24,7 +27,8 @@ public class QueryMetrics {
 
     public QueryMetrics(int queryId) {
         this.queryId = queryId;
-        this.relevantDocs = new HashMap<>();
+        this.relevantDocIds = new int[8];
+        this.relevanceLevels = new int[8];
         recall_precision = new LinkedHashMap<>();
         points = new ArrayList<>();
     }
@@ -46,7 +50,48 @@ public class QueryMetrics {
      * @param relevance relevance level
      */
     public void addRelevantDoc(int docId, int relevance) {
-        relevantDocs.put(docId,relevance);
+        if (n_relevant == relevantDocIds.length) {
+            relevantDocIds = Arrays.copyOf(relevantDocIds, n_relevant * 2);
+            relevanceLevels = Arrays.copyOf(relevanceLevels, n_relevant * 2);
+        }
+        relevantDocIds[n_relevant] = docId;
+        relevanceLevels[n_relevant++] = relevance;
+        prepared = false;
+    }
+
+    /**
+     * Method that removes the repeated relevant documents, keeping the relevance level added last, and orders
+     * them by relevance level, so the relevant documents of each relevance level are the first ones. It is only
+     * done once, after the relevant documents are added.
+     */
+    private void prepareRelevantDocs() {
+        if (prepared)
+            return;
+
+        // by doc id and then by the order they were added, so the last of each doc id is the one kept
+        long[] byDocId = new long[n_relevant];
+        for (int i = 0; i < n_relevant; i++)
+            byDocId[i] = ((long) relevantDocIds[i] << 32) | i;
+        Arrays.sort(byDocId);
+
+        long[] byLevel = new long[n_relevant];
+        int n = 0;
+        for (int i = 0; i < n_relevant; i++) {
+            if (i + 1 < n_relevant && (byDocId[i] >> 32) == (byDocId[i + 1] >> 32))
+                continue;
+            int docId = (int) (byDocId[i] >> 32);
+            byLevel[n++] = ((long) relevanceLevels[(int) byDocId[i]] << 32) | (docId & 0xFFFFFFFFL);
+        }
+        Arrays.sort(byLevel, 0, n);
+
+        relevantDocIds = new int[n];
+        relevanceLevels = new int[n];
+        for (int i = 0; i < n; i++) {
+            relevantDocIds[i] = (int) byLevel[i];
+            relevanceLevels[i] = (int) (byLevel[i] >> 32);
+        }
+        n_relevant = n;
+        prepared = true;
     }
     
     /**
@@ -59,28 +104,40 @@ public class QueryMetrics {
     }
     
     /**
-     * Return a list of the relevant documents based on the relevance level given as argument
+     * Returns the number of relevant documents with a relevance level lower or equal to the one given as
+     * argument, they are the first ones of {@link #getRelevantDocIds()}
      * 
      * @param n_ratings relevance level
-     * @return list of the relevant documents
+     * @return number of relevant documents
      */
-    public List<Integer> getRelevantDocs(int n_ratings) {
-        return relevantDocs.entrySet().stream().filter(entry -> entry.getValue() <= n_ratings).map(Map.Entry::getKey).collect(Collectors.toList());
+    public int countRelevantDocs(int n_ratings) {
+        prepareRelevantDocs();
+        int count = 0;
+        while (count < n_relevant && relevanceLevels[count] <= n_ratings)
+            count++;
+        return count;
     }
-    
+
     /**
-     * Returns a map where the keys are the id of the relevant documents and the 
-     * value the relevance level of the document. This map is constructed based on 
-     * the relevance level given as argument
+     * Returns the ids of the relevant documents, ordered by relevance level
      * 
-     * @param n_ratings relevance level
-     * @return map that contains the relevant documents and its relevance level
+     * @return ids of the relevant documents
      */
-    public Map<Integer, Integer> getRelevantDocsWithRelevance(int n_ratings) {
-        return relevantDocs.entrySet().stream().filter(entry -> entry.getValue() <= n_ratings)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    public int[] getRelevantDocIds() {
+        prepareRelevantDocs();
+        return relevantDocIds;
     }
-    
+
+    /**
+     * Returns the relevance level of each relevant document of {@link #getRelevantDocIds()}
+     * 
+     * @return relevance levels in increasing order
+     */
+    public int[] getRelevanceLevels() {
+        prepareRelevantDocs();
+        return relevanceLevels;
+    }
+
     /**
      * Method that calculate the precison of the query
      * 
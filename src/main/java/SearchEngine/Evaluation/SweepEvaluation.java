@@ -0,0 +1,300 @@
+package SearchEngine.Evaluation;
+
+import SearchEngine.QueryProcessing.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Class that evaluates the results of a search system with every combination of thresholds and relevance levels in
+ * a single pass. The documents retrieved with a threshold are the first ones of the ranking of a query, so the
+ * ranking of each query is walked once, accumulating for each relevance level the true positives, the sums of the
+ * precisions of the average precisions, the reciprocal rank and the discounted cumulative gain, and the metrics of
+ * a threshold are read when the walk reaches the rank where its documents end. The system metrics of each
+ * combination are the same calculated by {@link Evaluation}.
+ */
+public class SweepEvaluation {
+    private List<QueryMetrics> queriesMetrics;
+    private BitSet relevantDocs;
+    private int[] relevanceOfDocs;
+
+    public SweepEvaluation(Evaluation evaluation) {
+        this.queriesMetrics = evaluation.getQueriesMetrics();
+        this.relevantDocs = new BitSet();
+
+        int maxDocId = 0;
+        for (QueryMetrics queryMetrics : queriesMetrics) {
+            for (int docId : queryMetrics.getRelevantDocIds())
+                maxDocId = Math.max(maxDocId, docId);
+        }
+        this.relevanceOfDocs = new int[maxDocId + 1];
+    }
+
+    /**
+     * Method that calculates the system metrics of each combination of relevance level and threshold
+     *
+     * @param results queries with their ranked results
+     * @param fixedThresholds fixed values of threshold, may be null
+     * @param variableThresholds values of threshold multiplied by the maximum score of each query, may be null
+     * @param relevances relevance levels
+     * @return the evaluated combinations, by relevance level and then the fixed and the variable thresholds
+     */
+    public List<Configuration> evaluate(List<Query> results, List<Double> fixedThresholds,
+                                        List<Double> variableThresholds, List<Integer> relevances) {
+        List<Double> thresholds = new ArrayList<>();
+        List<Boolean> variable = new ArrayList<>();
+        if (fixedThresholds != null) {
+            thresholds.addAll(fixedThresholds);
+            fixedThresholds.forEach(threshold -> variable.add(false));
+        }
+        if (variableThresholds != null) {
+            thresholds.addAll(variableThresholds);
+            variableThresholds.forEach(threshold -> variable.add(true));
+        }
+
+        int nLevels = relevances.size();
+        int nThresholds = thresholds.size();
+        Configuration[][] configurations = new Configuration[nLevels][nThresholds];
+        for (int k = 0; k < nLevels; k++) {
+            for (int t = 0; t < nThresholds; t++)
+                configurations[k][t] = new Configuration(variable.get(t), thresholds.get(t), relevances.get(k));
+        }
+
+        // the queries are evaluated in the order of the metrics of the evaluation, which sums them in that order
+        Query[] byPosition = new Query[queriesMetrics.size()];
+        for (Query query : results)
+            byPosition[query.getQuery_id() - 1] = query;
+
+        QueryWalk walk = new QueryWalk(nLevels, nThresholds);
+        for (int position = 0; position < byPosition.length; position++) {
+            if (byPosition[position] != null)
+                walk.evaluate(byPosition[position], queriesMetrics.get(position), relevances, thresholds, variable,
+                        configurations);
+        }
+
+        List<Configuration> evaluated = new ArrayList<>();
+        for (Configuration[] level : configurations)
+            evaluated.addAll(Arrays.asList(level));
+        return evaluated;
+    }
+
+    /**
+     * Returns the number of documents of the ranking of a query with a score greater or equal than a threshold
+     *
+     * @param query query with the ranked results
+     * @param threshold minimum score
+     * @return number of documents retrieved
+     */
+    private static int documentsAboveThreshold(Query query, double threshold) {
+        int low = 0;
+        int high = query.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (query.getScore(middle) >= threshold)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * State of the walk down the ranking of a query, for each relevance level, reused between queries
+     */
+    private class QueryWalk {
+        final int[] nRelevant;
+        final double[] tp;
+        final double[] precisionsSum;
+        final double[] tpAtRank10;
+        final double[] precisionsSumAtRank10;
+        final double[] reciprocalRank;
+        final double[] dcg;
+        final int[] cuts;
+        final long[] order;
+
+        QueryWalk(int nLevels, int nThresholds) {
+            nRelevant = new int[nLevels];
+            tp = new double[nLevels];
+            precisionsSum = new double[nLevels];
+            tpAtRank10 = new double[nLevels];
+            precisionsSumAtRank10 = new double[nLevels];
+            reciprocalRank = new double[nLevels];
+            dcg = new double[nLevels];
+            cuts = new int[nThresholds];
+            order = new long[nThresholds];
+        }
+
+        /**
+         * Walks the ranking of a query up to the rank of the lowest threshold, adding the metrics of the query to
+         * each combination when the walk reaches the number of documents retrieved with its threshold
+         */
+        void evaluate(Query query, QueryMetrics queryMetrics, List<Integer> relevances, List<Double> thresholds,
+                      List<Boolean> variable, Configuration[][] configurations) {
+            int[] relevantDocIds = queryMetrics.getRelevantDocIds();
+            int[] relevanceLevels = queryMetrics.getRelevanceLevels();
+            for (int i = 0; i < relevantDocIds.length; i++) {
+                relevantDocs.set(relevantDocIds[i]);
+                relevanceOfDocs[relevantDocIds[i]] = relevanceLevels[i];
+            }
+
+            for (int k = 0; k < nRelevant.length; k++) {
+                nRelevant[k] = queryMetrics.countRelevantDocs(relevances.get(k));
+                tp[k] = 0;
+                precisionsSum[k] = 0.0;
+                tpAtRank10[k] = 0;
+                precisionsSumAtRank10[k] = 0.0;
+                reciprocalRank[k] = 0.0;
+                dcg[k] = 0.0;
+            }
+
+            // thresholds ordered by the number of documents they retrieve
+            for (int t = 0; t < cuts.length; t++) {
+                double threshold = variable.get(t) ? query.getMaxScore() * thresholds.get(t) : thresholds.get(t);
+                cuts[t] = documentsAboveThreshold(query, threshold);
+                order[t] = ((long) cuts[t] << 32) | t;
+            }
+            Arrays.sort(order);
+
+            int next = 0;
+            for (int rank = 0; next < order.length; rank++) {
+                while (next < order.length && (int) (order[next] >> 32) == rank)
+                    record(rank, (int) order[next++], configurations);
+                if (next == order.length)
+                    break;
+
+                int docId = query.getDocID(rank);
+                if (!relevantDocs.get(docId))
+                    continue;
+
+                int level = relevanceOfDocs[docId];
+                double countRetr = rank + 1;
+                double gain = rank == 0 ? 5 - level : (double) (5 - level) / (Math.log(rank + 1) / Math.log(2));
+
+                for (int k = 0; k < nRelevant.length; k++) {
+                    if (level > relevances.get(k))
+                        continue;
+
+                    tp[k]++;
+                    precisionsSum[k] += tp[k] / countRetr;
+                    if (rank < 10) {
+                        tpAtRank10[k]++;
+                        precisionsSumAtRank10[k] += tpAtRank10[k] / countRetr;
+                    }
+                    if (reciprocalRank[k] == 0.0)
+                        reciprocalRank[k] = 1 / countRetr;
+                    dcg[k] += gain;
+                }
+            }
+
+            for (int docId : relevantDocIds)
+                relevantDocs.clear(docId);
+        }
+
+        /**
+         * Adds the metrics of the query with the documents up to a rank to the combinations of a threshold
+         */
+        void record(int retrieved, int threshold, Configuration[][] configurations) {
+            for (int k = 0; k < nRelevant.length; k++) {
+                Configuration configuration = configurations[k][threshold];
+                configuration.true_positives += tp[k];
+                configuration.retrieved_docs += retrieved;
+                configuration.relevant_docs += nRelevant[k];
+                configuration.averagePrecisionSum += tp[k] != 0 ? precisionsSum[k] / tp[k] : 0.0;
+                configuration.averagePrecisionAtRank10Sum += tpAtRank10[k] != 0
+                        ? precisionsSumAtRank10[k] / tpAtRank10[k] : 0.0;
+                configuration.reciprocalRankSum += reciprocalRank[k];
+                configuration.dcgSum += dcg[k];
+            }
+        }
+    }
+
+    /**
+     * Combination of a threshold and a relevance level with the sums of the metrics of the queries
+     */
+    public class Configuration {
+        private final boolean variable;
+        private final double threshold;
+        private final int n_ratings;
+
+        private double true_positives;
+        private double retrieved_docs;
+        private double relevant_docs;
+        private double averagePrecisionSum;
+        private double averagePrecisionAtRank10Sum;
+        private double reciprocalRankSum;
+        private double dcgSum;
+
+        Configuration(boolean variable, double threshold, int n_ratings) {
+            this.variable = variable;
+            this.threshold = threshold;
+            this.n_ratings = n_ratings;
+        }
+
+        public boolean isVariable() {
+            return variable;
+        }
+
+        public double getThreshold() {
+            return threshold;
+        }
+
+        public int getN_ratings() {
+            return n_ratings;
+        }
+
+        public double getPrecision() {
+            return retrieved_docs == 0.0 ? 0.0 : true_positives / retrieved_docs;
+        }
+
+        public double getRecall() {
+            return relevant_docs == 0.0 ? 0.0 : true_positives / relevant_docs;
+        }
+
+        public double getFmeasure() {
+            double precision = getPrecision();
+            double recall = getRecall();
+            return recall == 0.0 && precision == 0.0 ? 0.0 : (2 * recall * precision) / (recall + precision);
+        }
+
+        public double getMap() {
+            return averagePrecisionSum / queriesMetrics.size();
+        }
+
+        public double getMap10() {
+            return averagePrecisionAtRank10Sum / queriesMetrics.size();
+        }
+
+        public double getMrr() {
+            return reciprocalRankSum / queriesMetrics.size();
+        }
+
+        public double getMeanDcg() {
+            return dcgSum / queriesMetrics.size();
+        }
+
+        /**
+         * String object representation of this Configuration, a row of the table of the sweep
+         *
+         * @return a String object representing of this Configuration
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-9s| %-10s| %-8d| %-10.5f| %-8.5f| %-10.5f| %-8.5f| %-8.5f| " +
+                            "%-8.5f| %.5f", variable ? "variable" : "fixed", threshold, n_ratings, getPrecision(),
+                    getRecall(), getFmeasure(), getMap(), getMap10(), getMrr(), getMeanDcg());
+        }
+    }
+
+    /**
+     * Returns the header of the table of the sweep, with the columns of {@link Configuration#toString()}
+     *
+     * @return header of the table
+     */
+    public static String header() {
+        return String.format("%-9s| %-10s| %-8s| %-10s| %-8s| %-10s| %-8s| %-8s| %-8s| %s", "Threshold", "Value",
+                "Ratings", "Precision", "Recall", "F-measure", "MAP", "MAP@10", "MRR", "Mean DCG");
+    }
+}
@@ -0,0 +1,70 @@
+package SearchEngine.IndexReader;
+
+import IndexerEngine.indexer.BinaryIndexFormat;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.IndexerPositional;
+import IndexerEngine.indexer.IndexerTermFreq;
+import IndexerEngine.indexer.IndexerWtNorm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Class that reads and creates the index structure from an index file in the binary index format.
+ * The type of the index (term frequency, weighted or positional) is read from the header of the file.
+ *
+ * @see BinaryIndexFormat
+ */
+public class IndexBinaryReader implements IndexReader {
+
+    /**
+     * Method that reads the index file validating its header and saving the tokenizer name used and the number of
+     * documents. The remaining entries are decoded to construct the index structure which is returned.
+     *
+     * @param filename index filename
+     * @return a IndexerTermFreq, IndexerWtNorm or IndexerPositional object that contains the index structure
+     */
+    @Override
+    public Indexer readIndex(String filename) {
+        Indexer indexer = null;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename)));
+
+            if (buffer.getInt() != BinaryIndexFormat.MAGIC) {
+                System.err.println("The file " + filename + " is not a binary index");
+                System.exit(1);
+            }
+
+            int version = buffer.getInt();
+            byte indexType = buffer.get();
+            if (!BinaryIndexFormat.isSupported(version, indexType)) {
+                System.err.println("Unsupported binary index version " + version + " of type " + indexType);
+                System.exit(1);
+            }
+
+            if (indexType == BinaryIndexFormat.TYPE_POSITIONAL)
+                indexer = new IndexerPositional();
+            else
+                indexer = indexType == BinaryIndexFormat.TYPE_TERM_FREQ ? new IndexerTermFreq() : new IndexerWtNorm();
+            indexer.setTokenizerName(BinaryIndexFormat.readUTF(buffer));
+            indexer.setN_docs(buffer.getInt());
+
+            while (buffer.hasRemaining()) {
+                String term = BinaryIndexFormat.readUTF(buffer);
+                int docFreq = BinaryIndexFormat.readVByte(buffer);
+                BinaryIndexFormat.readVByte(buffer);            // postings length, only needed to skip them
+
+                indexer.addToIndex(term, BinaryIndexFormat.readPostings(buffer, indexType, docFreq));
+            }
+
+        } catch (IOException e) {
+            System.err.println("Error reading index file");
+            System.exit(1);
+        }
+
+        return indexer;
+    }
+}
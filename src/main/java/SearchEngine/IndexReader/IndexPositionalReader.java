@@ -0,0 +1,73 @@
+package SearchEngine.IndexReader;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.IndexerPositional;
+import IndexerEngine.indexer.PositionalPostingList;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Class that reads and creates the positional index structure from an index file in the text format, where each
+ * posting is docID:termFreq:position;position...
+ */
+public class IndexPositionalReader implements IndexReader {
+
+    /**
+     * Method that reads the index file parsing the first line to save the tokenizer name used and
+     * the number of documents. The remaining lines
+     * to construct the index structure which is returned.
+     *
+     * @param filename index filename
+     * @return a IndexerPositional object that contains the index structure
+     */
+    @Override
+    public Indexer readIndex(String filename) {
+        Indexer indexer = new IndexerPositional();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String line;
+
+            if ((line = reader.readLine()) != null) {
+                String[] s = line.split(" ");
+                indexer.setTokenizerName(s[0]);
+                indexer.setN_docs(Integer.parseInt(s[1]));
+            }
+
+            int[] positions = new int[16];
+            while ((line = reader.readLine()) != null) {
+                String[] s = line.split("[ ,]");
+                PositionalPostingList postings = new PositionalPostingList();
+
+                for (int i = 1; i < s.length; i++) {
+                    String[] split = s[i].split(":");
+                    if (split.length != 3) {
+                        System.err.println("The index file " + filename + " is not a positional index");
+                        System.exit(1);
+                    }
+
+                    String[] values = split[2].split(";");
+                    if (values.length > positions.length)
+                        positions = new int[values.length];
+
+                    try {
+                        for (int p = 0; p < values.length; p++)
+                            positions[p] = Integer.parseInt(values[p]);
+                        postings.add(Integer.parseInt(split[0]), positions, values.length);
+                    } catch (NumberFormatException e) {
+                        System.err.println("Error processing posting from file");
+                    }
+                }
+
+                indexer.addToIndex(s[0], postings);
+            }
+
+        } catch (IOException e) {
+            System.err.println("Error reading index file");
+            System.exit(1);
+        }
+
+        return indexer;
+    }
+}
@@ -2,13 +2,10 @@ package SearchEngine.IndexReader;
 
 import IndexerEngine.indexer.Indexer;
 import IndexerEngine.indexer.IndexerTermFreq;
-import IndexerEngine.indexer.Posting;
-import IndexerEngine.indexer.PostingTermFreq;
+import IndexerEngine.indexer.TermFreqPostingList;
 
 import java.io.*;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * Class that reads and creates the index structure from an index file
@@ -42,7 +39,7 @@ public class IndexTermFreqReader implements IndexReader{
             while ((line = reader.readLine()) != null) {
                 String[] s = line.split("[ ,]");
                 String term = s[0];
-                List<Posting> postings = new LinkedList<>();
+                TermFreqPostingList postings = new TermFreqPostingList();
 
                 for (int i = 1; i < s.length; i++) {
                     String[] split = s[i].split(":");
@@ -57,7 +54,7 @@ public class IndexTermFreqReader implements IndexReader{
                         continue;
                     }
 
-                    postings.add(new PostingTermFreq(docId, termFreq));
+                    postings.add(docId, termFreq);
                 }
 
                 indexer.addToIndex(term, postings);
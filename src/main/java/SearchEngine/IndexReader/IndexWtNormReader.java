@@ -2,13 +2,10 @@ package SearchEngine.IndexReader;
 
 import IndexerEngine.indexer.Indexer;
 import IndexerEngine.indexer.IndexerWtNorm;
-import IndexerEngine.indexer.Posting;
-import IndexerEngine.indexer.PostingWtNorm;
+import IndexerEngine.indexer.WtNormPostingList;
 
 import java.io.*;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * Class that reads and creates the index structure from an index file
@@ -43,7 +40,7 @@ public class IndexWtNormReader implements IndexReader{
             while ((line = reader.readLine()) != null) {
                 String[] s = line.split("[ ,]");
                 String term = s[0];
-                List<Posting> postings = new LinkedList<>();
+                WtNormPostingList postings = new WtNormPostingList();
 
                 for (int i = 1; i < s.length; i++) {
                     String[] split = s[i].split(":");
@@ -58,7 +55,7 @@ public class IndexWtNormReader implements IndexReader{
                         continue;
                     }
 
-                    postings.add(new PostingWtNorm(docId, wt));
+                    postings.add(docId, wt);
                 }
 
                 indexer.addToIndex(term, postings);
@@ -0,0 +1,88 @@
+package SearchEngine.IndexReader;
+
+import IndexerEngine.indexer.BinaryIndexFormat;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.MappedIndexer;
+import IndexerEngine.indexer.TermDictionary;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class that memory-maps an index file in the binary index format. Opening the index only walks the term
+ * dictionary, skipping over the postings, and keeps it front-coded, so the postings of each term are decoded only
+ * when they are requested.
+ *
+ * @see MappedIndexer
+ */
+public class MappedIndexReader implements IndexReader {
+
+    /**
+     * Method that maps the index file, validates its header and collects the terms, in alphabetic order in the file,
+     * and the position of the entry of each term
+     *
+     * @param filename index filename
+     * @return a MappedIndexer object backed by the mapped file
+     */
+    @Override
+    public Indexer readIndex(String filename) {
+        Indexer indexer = null;
+
+        try (RandomAccessFile file = new RandomAccessFile(filename, "r");
+             FileChannel channel = file.getChannel()) {
+
+            if (channel.size() > Integer.MAX_VALUE) {
+                System.err.println("The index file " + filename + " is too large to be mapped");
+                System.exit(1);
+            }
+
+            // the mapping remains valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != BinaryIndexFormat.MAGIC) {
+                System.err.println("The file " + filename + " is not a binary index");
+                System.exit(1);
+            }
+
+            int version = buffer.getInt();
+            byte indexType = buffer.get();
+            if (!BinaryIndexFormat.isSupported(version, indexType)) {
+                System.err.println("Unsupported binary index version " + version + " of type " + indexType);
+                System.exit(1);
+            }
+
+            String tokenizerName = BinaryIndexFormat.readUTF(buffer);
+            int n_docs = buffer.getInt();
+
+            List<String> terms = new ArrayList<>();
+            int[] termOffsets = new int[1024];
+            while (buffer.hasRemaining()) {
+                if (terms.size() == termOffsets.length)
+                    termOffsets = Arrays.copyOf(termOffsets, termOffsets.length * 2);
+                terms.add(BinaryIndexFormat.readUTF(buffer));
+                termOffsets[terms.size() - 1] = buffer.position();
+
+                BinaryIndexFormat.readVByte(buffer);
+                int postingsLength = BinaryIndexFormat.readVByte(buffer);
+                buffer.position(buffer.position() + postingsLength);
+            }
+
+            TermDictionary dictionary = TermDictionary.ofSorted(terms, TermDictionary.DEFAULT_BLOCK_SIZE);
+            buffer.rewind();
+            indexer = new MappedIndexer(buffer, indexType, dictionary, Arrays.copyOf(termOffsets, terms.size()));
+            indexer.setTokenizerName(tokenizerName);
+            indexer.setN_docs(n_docs);
+
+        } catch (IOException e) {
+            System.err.println("Error reading index file");
+            System.exit(1);
+        }
+
+        return indexer;
+    }
+}
@@ -0,0 +1,71 @@
+package SearchEngine.IndexReader;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.SegmentManifest;
+import IndexerEngine.indexer.SegmentedIndexer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that reads an index made of several segments from its manifest. Each segment is read with the reader of
+ * the format and index type stored in the manifest and the segments are joined in a single index, that leaves
+ * out the replaced documents and skips the deleted documents listed in the manifest.
+ *
+ * @see SegmentManifest
+ * @see SegmentedIndexer
+ */
+public class SegmentedIndexReader implements IndexReader {
+    private boolean mappedIndex;
+
+    /**
+     * Creates a new instance of SegmentedIndexReader
+     *
+     * @param mappedIndex if the segments in the binary index format are memory-mapped
+     */
+    public SegmentedIndexReader(boolean mappedIndex) {
+        this.mappedIndex = mappedIndex;
+    }
+
+    /**
+     * Method that reads the manifest and every segment listed in it
+     *
+     * @param filename manifest filename
+     * @return a SegmentedIndexer object that joins the segments
+     */
+    @Override
+    public Indexer readIndex(String filename) {
+        SegmentManifest manifest = null;
+
+        try {
+            manifest = SegmentManifest.read(filename);
+        } catch (IOException e) {
+            System.err.println("Error reading segment manifest " + e.getMessage());
+            System.exit(1);
+        }
+
+        IndexReader segmentReader = segmentReader(manifest, mappedIndex);
+
+        List<Indexer> segments = new ArrayList<>();
+        for (String segment : manifest.segmentPaths(filename))
+            segments.add(segmentReader.readIndex(segment));
+
+        return new SegmentedIndexer(segments, manifest.replacedDocs(), manifest.getDeletedDocs());
+    }
+
+    /**
+     * Returns the reader of the segments of a manifest
+     *
+     * @param manifest segment manifest
+     * @param mappedIndex if the segments in the binary index format are memory-mapped
+     * @return reader for the format and index type of the segments
+     */
+    public static IndexReader segmentReader(SegmentManifest manifest, boolean mappedIndex) {
+        if (manifest.getFormat().equals("binary"))
+            return mappedIndex ? new MappedIndexReader() : new IndexBinaryReader();
+        if (manifest.getIndexerType().equals("positional"))
+            return new IndexPositionalReader();
+        return manifest.getIndexerType().equals("freq") ? new IndexTermFreqReader() : new IndexWtNormReader();
+    }
+}
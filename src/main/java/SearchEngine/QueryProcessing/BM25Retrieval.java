@@ -0,0 +1,70 @@
+package SearchEngine.QueryProcessing;
+
+import IndexerEngine.indexer.DocumentLengths;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.tokenizers.Tokenizer;
+import SearchEngine.Evaluation.Evaluation;
+import SearchEngine.ScoringAlgorithms.BM25Score;
+
+import java.util.List;
+
+/**
+ * Class that implements a ranked retrieval system with the BM25 score over a term frequency index. The query
+ * terms are combined as in the disjunctive Boolean retrieval, but the scores are real values.
+ */
+public class BM25Retrieval extends DisjunctiveBooleanRetrieval {
+    private BM25Score score;
+
+    public BM25Retrieval(Indexer indexer, Tokenizer tokenizer, Evaluation evaluation, BM25Score score) {
+        super(indexer, tokenizer, evaluation, score);
+        this.score = score;
+    }
+
+    /**
+     * Method that scores the documents with any of the terms of the query, with the document frequencies of the
+     * terms in the index
+     *
+     * @param query_id id of the query
+     * @param terms terms of the query
+     * @return query with the scored documents
+     */
+    @Override
+    public Query search(int query_id, List<String> terms) {
+        Query query = new Query(query_id);
+        score.computeScores(query, terms);
+        return query;
+    }
+
+    /**
+     * Store or modify the Indexer object, whose document lengths are computed from its postings, invalidating the
+     * result cache
+     *
+     * @param indexer a new term frequency index
+     */
+    @Override
+    public void setIndexer(Indexer indexer) {
+        setIndexer(indexer, DocumentLengths.of(indexer));
+    }
+
+    /**
+     * Store or modify the Indexer object and the lengths of its documents, invalidating the result cache
+     *
+     * @param indexer a new term frequency index
+     * @param documentLengths length of each document of the index
+     */
+    public void setIndexer(Indexer indexer, DocumentLengths documentLengths) {
+        score = score.withIndex(indexer, documentLengths);
+        setScoringAlgorithm(score);
+        super.setIndexer(indexer);
+    }
+
+    /**
+     * Method that saves the score of the documents for each query in a file
+     *
+     * @param filename output filename
+     */
+    @Override
+    public void saveToFile(String filename) {
+        saveResults(filename, false);
+    }
+}
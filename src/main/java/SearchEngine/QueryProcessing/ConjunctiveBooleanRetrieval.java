@@ -0,0 +1,81 @@
+package SearchEngine.QueryProcessing;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.PostingList;
+import IndexerEngine.tokenizers.Tokenizer;
+import SearchEngine.Evaluation.Evaluation;
+import SearchEngine.ScoringAlgorithms.ScoringAlgorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class that implements a conjunctive (AND) Boolean Retrieval model
+ *
+ */
+public class ConjunctiveBooleanRetrieval extends Retrieval {
+    private ScoringAlgorithm scoringAlgorithm;
+
+    public ConjunctiveBooleanRetrieval(Indexer indexer, Tokenizer tokenizer, Evaluation evaluation,
+                                       ScoringAlgorithm scoringAlgorithm) {
+
+        super(indexer, tokenizer, evaluation);
+        this.scoringAlgorithm = scoringAlgorithm;
+    }
+
+    /**
+     * Method that combine all the terms of the query using the AND operator, where is obtained the postings list
+     * of each term. Only the documents with every term are scored, so no document is retrieved when a term is not
+     * indexed.
+     *
+     * @param query_id id of the query
+     * @param terms terms of the query
+     * @return query with the scored documents
+     */
+    @Override
+    public Query search(int query_id, List<String> terms) {
+        List<PostingList> allPostings = new ArrayList<>();
+        Query query = new Query(query_id);
+
+        for (String term : terms) {
+            PostingList postings = indexer.getTermPostings(term);
+            if (postings == null) {
+                query.setResults(new int[0], new double[0]);
+                return query;
+            }
+            allPostings.add(postings);
+        }
+
+        scoringAlgorithm.computeConjunctiveScores(query, allPostings, indexer.getDeletedDocs());
+        return query;
+    }
+
+    /**
+     * Returns the name of the retrieval model followed by the name of the scoring algorithm
+     *
+     * @return scoring name
+     */
+    @Override
+    protected String scoringName() {
+        return super.scoringName() + ":" + scoringAlgorithm.getClass().getSimpleName();
+    }
+
+    /**
+     * Store or modify the object ScoringAlgorithm
+     *
+     * @param scoringAlgorithm object ScoringAlgorithm
+     */
+    public void setScoringAlgorithm(ScoringAlgorithm scoringAlgorithm) {
+        this.scoringAlgorithm = scoringAlgorithm;
+    }
+
+    /**
+     * Method that saves the score of the documents for each query in a file
+     *
+     * @param filename output filename
+     */
+    @Override
+    public void saveToFile(String filename) {
+        saveResults(filename, true);
+    }
+}
@@ -1,15 +1,12 @@
 package SearchEngine.QueryProcessing;
 
 import IndexerEngine.indexer.Indexer;
-import IndexerEngine.indexer.Posting;
+import IndexerEngine.indexer.PostingList;
 import IndexerEngine.tokenizers.Tokenizer;
 import SearchEngine.Evaluation.Evaluation;
 import SearchEngine.ScoringAlgorithms.ScoringAlgorithm;
 
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -27,29 +24,36 @@ public class DisjunctiveBooleanRetrieval extends Retrieval {
     }
 
     /**
-     * Method that combine all the terms of the query using the OR operator, where is obtained all the postings list of
+     * Method that combine all the terms of the query using the OR operator, where is obtained the postings list of
      * each term. At the end, is computed the score of the documents for that query.
      * 
      * @param query_id id of the query
-     * @param query_text content of the query
+     * @param terms terms of the query
+     * @return query with the scored documents
      */
     @Override
-    public void retrieve(int query_id, String query_text) {
-        List<String> terms = tokenizer.tokenize(query_text);
-        List<Posting> allPostings = new LinkedList<>();
+    public Query search(int query_id, List<String> terms) {
+        List<PostingList> allPostings = new ArrayList<>();
 
-        long startTime = System.nanoTime();
         for(String term : terms) {
-            if (indexer.getTermPostings(term) != null)
-                allPostings.addAll(indexer.getTermPostings(term));
+            PostingList postings = indexer.getTermPostings(term);
+            if (postings != null)
+                allPostings.add(postings);
         }
 
         Query query = new Query(query_id);
-        scoringAlgorithm.computeScores(query, allPostings);
-        results.add(query);
-        long queryLatency = System.nanoTime() - startTime;
+        scoringAlgorithm.computeScores(query, allPostings, indexer.getDeletedDocs());
+        return query;
+    }
 
-        evaluation.addQueryLatency(query_id, queryLatency / 1e6);
+    /**
+     * Returns the name of the retrieval model followed by the name of the scoring algorithm
+     *
+     * @return scoring name
+     */
+    @Override
+    protected String scoringName() {
+        return super.scoringName() + ":" + scoringAlgorithm.getClass().getSimpleName();
     }
 
     /**
@@ -68,17 +72,6 @@ public class DisjunctiveBooleanRetrieval extends Retrieval {
      */
     @Override
     public void saveToFile(String filename) {
-        try (PrintWriter out = new PrintWriter(filename)) {
-            results.sort(Comparator.comparingInt(Query::getQuery_id));
-            for (Query query : results) {
-                int id = query.getQuery_id();
-                query.getDoc_scores().entrySet().stream().sorted((o1, o2) -> o1.getValue().equals(o2.getValue())
-                        ? o1.getKey().compareTo(o2.getKey()) : o2.getValue().compareTo(o1.getValue())).
-                        forEach(entry -> out.printf("%d\t%d\t%d\n", id, entry.getKey(), entry.getValue().intValue()));
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing results to file");
-            System.exit(1);
-        }
+        saveResults(filename, true);
     }
 }
\ No newline at end of file
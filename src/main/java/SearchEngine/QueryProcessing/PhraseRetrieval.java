@@ -0,0 +1,256 @@
+package SearchEngine.QueryProcessing;
+
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.PostingCursor;
+import IndexerEngine.indexer.PostingList;
+import IndexerEngine.tokenizers.Tokenizer;
+import SearchEngine.Evaluation.Evaluation;
+import SearchEngine.ScoringAlgorithms.ScoreAccumulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Class that implements phrase and proximity queries over a positional index. The query terms are matched as an
+ * exact phrase, consecutive and in the order of the query, or, with a proximity window, in any order inside a
+ * window of that number of positions. Positions are counted in the terms returned by the tokenizer, so the
+ * stopwords removed do not break a phrase.
+ * <p>
+ * The postings lists are first intersected, so only the documents with all the terms have their positions
+ * decoded, and the score of a document is the number of times the phrase, or the smallest windows with all the
+ * terms, occur in it.
+ */
+public class PhraseRetrieval extends Retrieval {
+    private int window;
+
+    /**
+     * Creates a new instance of PhraseRetrieval
+     *
+     * @param indexer positional index
+     * @param tokenizer tokenizer used to build the index
+     * @param evaluation evaluation of the results
+     * @param window proximity window in positions, 0 to match an exact phrase
+     */
+    public PhraseRetrieval(Indexer indexer, Tokenizer tokenizer, Evaluation evaluation, int window) {
+        super(indexer, tokenizer, evaluation);
+        this.window = window;
+    }
+
+    /**
+     * Method that intersects the postings lists of the query terms, moving the cursors of the longer lists to the
+     * documents of the shortest one with {@link PostingCursor#advance(int)}, and counts the matches of the phrase
+     * in each document with all the terms.
+     *
+     * @param query_id id of the query
+     * @param terms terms of the query, in order
+     * @return query with the scored documents
+     */
+    @Override
+    public Query search(int query_id, List<String> terms) {
+        Query query = new Query(query_id);
+        List<String> phrase = window == 0 ? terms : distinct(terms);
+
+        // cursors in the order of the phrase
+        PostingCursor[] cursors = new PostingCursor[phrase.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            PostingList postings = indexer.getTermPostings(phrase.get(i));
+            if (postings == null) {
+                query.setResults(new int[0], new double[0]);
+                return query;
+            }
+            cursors[i] = postings.cursor();
+        }
+
+        // cursors ordered by the length of their lists, the shortest leads the intersection
+        PostingCursor[] byCost = cursors.clone();
+        Arrays.sort(byCost, Comparator.comparingInt(PostingCursor::cost));
+
+        ScoreAccumulator accumulator = ScoreAccumulator.forCurrentThread();
+        BitSet deletedDocs = indexer.getDeletedDocs();
+        int[][] positions = new int[cursors.length][];
+        int[] counts = new int[cursors.length];
+
+        int docID = byCost.length == 0 ? PostingCursor.NO_MORE_DOCS : byCost[0].nextDoc();
+        while (docID != PostingCursor.NO_MORE_DOCS) {
+            int i = 1;
+            for (; i < byCost.length; i++) {
+                int other = byCost[i].advance(docID);
+                if (other != docID) {
+                    docID = byCost[0].advance(other);
+                    break;
+                }
+            }
+
+            if (i < byCost.length)
+                continue;
+
+            if (!deletedDocs.get(docID)) {
+                for (int t = 0; t < cursors.length; t++) {
+                    positions[t] = cursors[t].positions(positions[t]);
+                    counts[t] = cursors[t].termFreq();
+                }
+
+                int matches = window == 0 ? phraseMatches(positions, counts) : windowMatches(positions, counts);
+                if (matches > 0)
+                    accumulator.add(docID, matches);
+            }
+            docID = byCost[0].nextDoc();
+        }
+
+        accumulator.copyTo(query);
+        return query;
+    }
+
+    /**
+     * Counts the occurrences of the phrase: positions of the first term followed by each other term at the
+     * respective offset. The positions of the other terms are searched with a galloping search from the last
+     * position checked, since the candidates only increase.
+     *
+     * @param positions positions of each term of the phrase, in order
+     * @param counts number of positions of each term
+     * @return number of occurrences of the phrase
+     */
+    private static int phraseMatches(int[][] positions, int[] counts) {
+        int[] next = new int[positions.length];
+        int matches = 0;
+
+        candidates:
+        for (int p = 0; p < counts[0]; p++) {
+            int start = positions[0][p];
+
+            for (int t = 1; t < positions.length; t++) {
+                next[t] = gallop(positions[t], next[t], counts[t], start + t);
+                if (next[t] == counts[t])
+                    break candidates;
+                if (positions[t][next[t]] != start + t)
+                    continue candidates;
+            }
+            matches++;
+        }
+
+        return matches;
+    }
+
+    /**
+     * Counts the smallest windows with all the terms that span fewer positions than the proximity window. Each
+     * position starts at most one window, so overlapping matches are not counted twice.
+     *
+     * @param positions positions of each distinct query term
+     * @param counts number of positions of each term
+     * @return number of windows with all the terms
+     */
+    private int windowMatches(int[][] positions, int[] counts) {
+        // occurrences of all the terms ordered by position, the term packed in the low bits
+        int total = 0;
+        for (int count : counts)
+            total += count;
+
+        long[] occurrences = new long[total];
+        int n = 0;
+        for (int t = 0; t < positions.length; t++) {
+            for (int p = 0; p < counts[t]; p++)
+                occurrences[n++] = ((long) positions[t][p] << 32) | t;
+        }
+        Arrays.sort(occurrences);
+
+        int[] inWindow = new int[positions.length];
+        int covered = 0;
+        int left = 0;
+        int matches = 0;
+
+        for (int right = 0; right < total; right++) {
+            if (inWindow[(int) occurrences[right]]++ == 0)
+                covered++;
+
+            if (covered < positions.length)
+                continue;
+
+            // drop the occurrences at the start whose term appears again later in the window
+            while (inWindow[(int) occurrences[left]] > 1)
+                inWindow[(int) occurrences[left++]]--;
+
+            if ((occurrences[right] >>> 32) - (occurrences[left] >>> 32) < window)
+                matches++;
+
+            inWindow[(int) occurrences[left++]]--;
+            covered--;
+        }
+
+        return matches;
+    }
+
+    /**
+     * Finds the first element greater or equal than the target with a galloping search
+     *
+     * @param values increasing values
+     * @param from first position to search
+     * @param to end of the values
+     * @param target value to look for
+     * @return position of the element found or to if there is none
+     */
+    private static int gallop(int[] values, int from, int to, int target) {
+        if (from >= to || values[from] >= target)
+            return from;
+
+        int low = from;
+        int step = 1;
+        int high = from + step;
+        while (high < to && values[high] < target) {
+            low = high;
+            step <<= 1;
+            high = low + step;
+        }
+        if (high > to)
+            high = to;
+
+        // values[low] < target and values[high] >= target, or high == to
+        while (low + 1 < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < target)
+                low = middle;
+            else
+                high = middle;
+        }
+        return high;
+    }
+
+    /**
+     * Removes the repeated terms of a query, keeping the first occurrence of each
+     *
+     * @param terms terms of the query
+     * @return distinct terms
+     */
+    private static List<String> distinct(List<String> terms) {
+        List<String> distinct = new ArrayList<>();
+        for (String term : terms) {
+            if (!distinct.contains(term))
+                distinct.add(term);
+        }
+        return distinct;
+    }
+
+    /**
+     * Returns the normalized query used as key of the result cache, the terms are kept in the order of the query
+     * since it changes the phrase matched
+     *
+     * @param terms terms of the query
+     * @return normalized query
+     */
+    @Override
+    protected String cacheKey(List<String> terms) {
+        return scoringName() + ":" + window + " " + String.join(" ", terms);
+    }
+
+    /**
+     * Method that saves the score of the documents for each query in a file
+     *
+     * @param filename output filename
+     */
+    @Override
+    public void saveToFile(String filename) {
+        saveResults(filename, true);
+    }
+}
@@ -1,15 +1,17 @@
 package SearchEngine.QueryProcessing;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
- * Class that represents a query
+ * Class that represents a query and its results, the scored documents ranked by decreasing score and, for the same
+ * score, by increasing document id
  */
 
 public class Query {
+    private static final int[] NO_DOCS = new int[0];
+    private static final double[] NO_SCORES = new double[0];
+
     private int query_id;
-    private Map<Integer, Double> doc_scores;
+    private int[] docIDs;
+    private double[] scores;
 
     /**
      * Creates a new instance of a query given an integer value that represents the query id
@@ -17,7 +19,8 @@ public class Query {
      */
     public Query(int query_id) {
         this.query_id = query_id;
-        doc_scores = new HashMap<>();
+        this.docIDs = NO_DOCS;
+        this.scores = NO_SCORES;
     }
 
     /**
@@ -30,20 +33,107 @@ public class Query {
     }
 
     /**
-     * Return a map containing pair values (doc_id, doc_score) for this query
-     * @return query's doc scores
+     * Sets the results of the query, ranking the documents. The arrays are kept by the query.
+     * @param docIDs ids of the scored documents
+     * @param scores score of each document
+     */
+    public void setResults(int[] docIDs, double[] scores) {
+        this.docIDs = docIDs;
+        this.scores = scores;
+        rank(0, docIDs.length - 1);
+    }
+
+    /**
+     * Returns a query with another id and the same results, which share the arrays of this query
+     * @param query_id query id
+     * @return query with the results of this query
+     */
+    Query withQueryId(int query_id) {
+        Query query = new Query(query_id);
+        query.docIDs = docIDs;
+        query.scores = scores;
+        return query;
+    }
+
+    /**
+     * Returns the number of scored documents
+     * @return number of scored documents
+     */
+    public int size() {
+        return docIDs.length;
+    }
+
+    /**
+     * Returns the id of the document in the given rank
+     * @param rank position in the ranking, starting at 0
+     * @return the document id
      */
-    public Map<Integer, Double> getDoc_scores() {
-        return doc_scores;
+    public int getDocID(int rank) {
+        return docIDs[rank];
     }
 
     /**
-     * Increases the score for a given document by a numeric value
-     * @param docID the document id
-     * @param number the value to be added to the score
+     * Returns the score of the document in the given rank
+     * @param rank position in the ranking, starting at 0
+     * @return the document score
      */
-    public void increaseDocScore(int docID, double number) {
-        doc_scores.put(docID, doc_scores.containsKey(docID) ? doc_scores.get(docID) + number : number);
+    public double getScore(int rank) {
+        return scores[rank];
+    }
+
+    /**
+     * Returns the highest document score
+     * @return highest score or 0 if no document was scored
+     */
+    public double getMaxScore() {
+        return scores.length == 0 ? 0.0 : scores[0];
+    }
+
+    // quicksort of both arrays, falling back to insertion sort on small ranges
+    private void rank(int low, int high) {
+        while (high - low > 16) {
+            int i = low;
+            int j = high;
+            int pivot = low + (high - low) / 2;
+            int pivotDoc = docIDs[pivot];
+            double pivotScore = scores[pivot];
+
+            while (i <= j) {
+                while (before(docIDs[i], scores[i], pivotDoc, pivotScore))
+                    i++;
+                while (before(pivotDoc, pivotScore, docIDs[j], scores[j]))
+                    j--;
+                if (i <= j)
+                    swap(i++, j--);
+            }
+
+            // recurse on the smaller part to bound the stack depth
+            if (j - low < high - i) {
+                rank(low, j);
+                low = i;
+            } else {
+                rank(i, high);
+                high = j;
+            }
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && before(docIDs[j], scores[j], docIDs[j - 1], scores[j - 1]); j--)
+                swap(j, j - 1);
+        }
+    }
+
+    private static boolean before(int docA, double scoreA, int docB, double scoreB) {
+        return scoreA > scoreB || (scoreA == scoreB && docA < docB);
+    }
+
+    private void swap(int i, int j) {
+        int docID = docIDs[i];
+        docIDs[i] = docIDs[j];
+        docIDs[j] = docID;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
     }
 
     @Override
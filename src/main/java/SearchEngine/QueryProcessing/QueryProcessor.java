@@ -1,41 +1,93 @@
 package SearchEngine.QueryProcessing;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
- * Class that reads and processes the queries file
+ * Class that reads and processes the queries file, optionally retrieving several queries concurrently
  */
 
 public class QueryProcessor {
+    private int nThreads;
+
+    public QueryProcessor() {
+        this(1);
+    }
 
     /**
-     * Method that reads and processes the queries saving the results to a file
+     * Creates a query processor that retrieves the queries with a pool of threads
+     * @param nThreads number of threads, 1 retrieves the queries in the calling thread
+     */
+    public QueryProcessor(int nThreads) {
+        this.nThreads = nThreads;
+    }
+
+    /**
+     * Method that reads and processes the queries saving the results to a file. The query id is the line number
+     * of the query, so the saved results do not depend on the order in which the queries are retrieved.
      * @param queriesFilename the queries filename
      * @param retrieval the retrieval to be used
      * @param outputFilename output filename to save the scores
      */
 
     public void processQueries(String queriesFilename, Retrieval retrieval, String outputFilename){
+        List<String> queries = null;
+        try {
+            queries = Files.readAllLines(Paths.get(queriesFilename));
+        } catch (IOException e) {
+            System.err.println("Error reading queries file " + queriesFilename);
+            System.exit(1);
+        }
 
-        int query_id = 1;
-        try (BufferedReader br = new BufferedReader(new FileReader(queriesFilename))) {
+        if (nThreads <= 1) {
+            for (int i = 0; i < queries.size(); i++)
+                retrieval.retrieve(i + 1, queries.get(i));
+        } else {
+            processConcurrently(queries, retrieval);
+        }
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                retrieval.retrieve(query_id, line);
-                query_id++;
-            }
+        retrieval.saveToFile(outputFilename);
+    }
 
-            br.close();
-            retrieval.saveToFile(outputFilename);
+    /**
+     * Retrieves the queries with a pool of threads, waiting until all of them are retrieved
+     * @param queries text of the queries, the query id is the position plus one
+     * @param retrieval the retrieval to be used
+     */
+    private void processConcurrently(List<String> queries, Retrieval retrieval) {
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        List<Future<?>> retrieved = new ArrayList<>();
 
-        } catch (IOException e) {
-            System.err.println("Error reading queries file " + queriesFilename);
-            System.exit(1);
+        for (int i = 0; i < queries.size(); i++) {
+            int query_id = i + 1;
+            String query = queries.get(i);
+            retrieved.add(executor.submit(() -> retrieval.retrieve(query_id, query)));
         }
 
+        try {
+            for (Future<?> future : retrieved) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error processing queries " + e);
+            System.exit(1);
+        } finally {
+            executor.shutdown();
+        }
+    }
 
+    /**
+     * Store or modify the number of threads used to retrieve the queries
+     * @param nThreads number of threads
+     */
+    public void setNThreads(int nThreads) {
+        this.nThreads = nThreads;
     }
 }
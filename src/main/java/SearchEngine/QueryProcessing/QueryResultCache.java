@@ -0,0 +1,158 @@
+package SearchEngine.QueryProcessing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the results of queries, keyed by the normalized query built by the retrieval model, its scoring
+ * and the tokenized terms. The cache is a least recently used map bounded by a number of queries and by the
+ * estimated memory of the results, guarded by a single lock so it can be shared by queries retrieved in several
+ * threads. The cached results are shared by the queries that hit them, which is safe since the results of a query
+ * are not modified after ranked.
+ * <p>The cached results are the ones of the index searched when they were cached, so the cache must be invalidated
+ * when a retrieval model is given a new index, {@link Retrieval#setIndexer} does it. The documents added to or
+ * deleted from a segmented index after it was read are not seen by the retrieval models, nor by the cache, until
+ * the index is read again.</p>
+ */
+public class QueryResultCache {
+    // estimated bytes of an entry besides the key and the results: map entry, arrays headers and the query
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final int capacity;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Query> entries;
+    private long bytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Creates a cache with a maximum number of queries and of memory
+     *
+     * @param capacity maximum number of queries kept
+     * @param maxBytes maximum estimated memory of the cached results in bytes
+     */
+    public QueryResultCache(int capacity, long maxBytes) {
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached results of a query as a query with the given id
+     *
+     * @param key normalized query
+     * @param queryId id of the query being processed
+     * @return query with the cached results, null if the query is not cached
+     */
+    public synchronized Query get(String key, int queryId) {
+        Query cached = entries.get(key);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return cached.withQueryId(queryId);
+    }
+
+    /**
+     * Caches the results of a query, evicting the least recently used queries while the cache is over its bounds.
+     * Results larger than the memory bound are not cached.
+     *
+     * @param key normalized query
+     * @param query query with the results
+     */
+    public synchronized void put(String key, Query query) {
+        long size = estimatedSize(key, query);
+        if (size > maxBytes || capacity <= 0)
+            return;
+
+        Query previous = entries.put(key, query);
+        if (previous != null)
+            bytes -= estimatedSize(key, previous);
+        bytes += size;
+
+        Iterator<Map.Entry<String, Query>> eldest = entries.entrySet().iterator();
+        while (entries.size() > capacity || bytes > maxBytes) {
+            Map.Entry<String, Query> entry = eldest.next();
+            bytes -= estimatedSize(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes all the cached queries, whose results are no longer valid after the index changed
+     */
+    public synchronized void invalidate() {
+        if (!entries.isEmpty())
+            invalidations++;
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the estimated memory of a cached query
+     *
+     * @param key normalized query
+     * @param query query with the results
+     * @return estimated size in bytes
+     */
+    private static long estimatedSize(String key, Query query) {
+        return ENTRY_OVERHEAD + 2L * key.length() + 12L * query.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Returns the fraction of the queries whose results were found in the cache
+     *
+     * @return hit rate between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Returns the number of cached queries
+     *
+     * @return number of queries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated memory of the cached results
+     *
+     * @return estimated size in bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Result cache: %d queries, %d KB, %d hits, %d misses, %d evictions, %d invalidations, " +
+                "hit rate %.3f", size(), bytes / 1024, hits, misses, evictions, invalidations, getHitRate());
+    }
+}
@@ -1,12 +1,12 @@
 package SearchEngine.QueryProcessing;
 
+import IndexerEngine.indexer.ImpactOrderedIndex;
 import IndexerEngine.indexer.Indexer;
 import IndexerEngine.tokenizers.Tokenizer;
 import SearchEngine.ScoringAlgorithms.CosineScore;
+import SearchEngine.ScoringAlgorithms.ImpactScore;
 import SearchEngine.Evaluation.Evaluation;
 
-import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.*;
 
 /**
@@ -15,30 +15,86 @@ import java.util.*;
  */
 public class RankedRetrieval extends Retrieval {
     private CosineScore score;
+    private int topK;
+    private ImpactScore impactScore;
+    private int budget;
 
     public RankedRetrieval(Indexer indexer, Tokenizer tokenizer, Evaluation evaluation) {
+        this(indexer, tokenizer, evaluation, 0);
+    }
+
+    /**
+     * Creates a ranked retrieval that only retrieves the k documents with higher score for each query
+     *
+     * @param indexer index to search
+     * @param tokenizer tokenizer of the queries
+     * @param evaluation evaluation of the results
+     * @param topK number of documents to retrieve, 0 retrieves every document with a score
+     */
+    public RankedRetrieval(Indexer indexer, Tokenizer tokenizer, Evaluation evaluation, int topK) {
         super(indexer, tokenizer, evaluation);
         this.score = new CosineScore(indexer);
+        this.topK = topK;
     }
 
     /**
-     * Method that tokenize the text of the query, to get the list of terms and
-     * at the end, is computed the score of the documents for that query
+     * Creates a ranked retrieval over an impact-ordered index that scores the queries score-at-a-time, stopping
+     * after a budget of postings
+     *
+     * @param index impact-ordered index to search
+     * @param tokenizer tokenizer of the queries
+     * @param evaluation evaluation of the results
+     * @param budget maximum number of postings processed per query, 0 processes every posting
+     */
+    public RankedRetrieval(ImpactOrderedIndex index, Tokenizer tokenizer, Evaluation evaluation, int budget) {
+        super(null, tokenizer, evaluation);
+        this.impactScore = new ImpactScore(index);
+        this.budget = budget;
+    }
+
+    /**
+     * Method that computes the score of the documents for the terms of a query, keeping only the top k documents
+     * if it was requested, or, over an impact-ordered index, processing at most the budget of postings
      * 
      * @param queryID query id
-     * @param queryText text of the query
+     * @param terms terms of the query
+     * @return query with the scored documents
      */
     @Override
-    public void retrieve(int queryID, String queryText) {
-        List<String> terms = tokenizer.tokenize(queryText);
-
-        long startTime = System.nanoTime();
+    public Query search(int queryID, List<String> terms) {
         Query query = new Query(queryID);
-        score.computeScores(query, terms);
-        results.add(query);
-        long queryLatency = System.nanoTime() - startTime;
+        if (impactScore != null)
+            impactScore.computeScores(query, terms, budget);
+        else if (topK > 0)
+            score.computeTopKScores(query, terms, topK);
+        else
+            score.computeScores(query, terms);
+        return query;
+    }
 
-        evaluation.addQueryLatency(queryID, queryLatency / 1e6);
+    /**
+     * Store or modify the Indexer object, which is then scored by the cosine score, invalidating the result cache
+     *
+     * @param indexer a new weighted index
+     * @throws UnsupportedOperationException if the retrieval searches an impact-ordered index
+     */
+    @Override
+    public void setIndexer(Indexer indexer) {
+        if (impactScore != null)
+            throw new UnsupportedOperationException("The retrieval searches an impact-ordered index");
+        score.setIndexer(indexer);
+        super.setIndexer(indexer);
+    }
+
+    /**
+     * Returns the name of the retrieval model with the number of documents retrieved or, over an impact-ordered
+     * index, the budget of postings, since both change the results
+     *
+     * @return scoring name
+     */
+    @Override
+    protected String scoringName() {
+        return super.scoringName() + (impactScore != null ? ":budget" + budget : ":top" + topK);
     }
 
     /**
@@ -48,17 +104,6 @@ public class RankedRetrieval extends Retrieval {
      */
     @Override
     public void saveToFile(String filename) {
-        try (PrintWriter out = new PrintWriter(filename)) {
-            results.sort(Comparator.comparingInt(Query::getQuery_id));
-            for (Query query : results) {
-                int id = query.getQuery_id();
-                query.getDoc_scores().entrySet().stream().sorted((o1, o2) -> o1.getValue().equals(o2.getValue())
-                        ? o1.getKey().compareTo(o2.getKey()) : o2.getValue().compareTo(o1.getValue())).
-                        forEach(entry -> out.printf("%d\t%d\t%f\n", id, entry.getKey(), entry.getValue()));
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing results to file");
-            System.exit(1);
-        }
+        saveResults(filename, false);
     }
 }
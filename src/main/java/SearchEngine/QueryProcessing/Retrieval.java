@@ -3,22 +3,29 @@ package SearchEngine.QueryProcessing;
 import IndexerEngine.indexer.Indexer;
 import IndexerEngine.tokenizers.Tokenizer;
 import SearchEngine.Evaluation.Evaluation;
+import SearchEngine.Evaluation.SweepEvaluation;
 
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * Abstract class that contains a geral representation of the Retrieval model
+ * Abstract class that contains a geral representation of the Retrieval model.
+ * Queries can be retrieved concurrently: the search of a query only reads the index and the results and latencies
+ * are stored in synchronized structures.
+ * With a result cache the results of a query are reused by the queries with the same normalized query, see
+ * {@link #cacheKey(List)}.
  */
 public abstract class Retrieval {
     protected List<Query> results;
     protected Indexer indexer;
     protected Tokenizer tokenizer;
     protected Evaluation evaluation;
+    protected QueryResultCache resultCache;
 
 
     public Retrieval(Indexer indexer, Tokenizer tokenizer, Evaluation evaluation) {
-        this.results = new LinkedList<>();
+        this.results = Collections.synchronizedList(new ArrayList<>());
         this.indexer = indexer;
         this.tokenizer = tokenizer;
         this.evaluation = evaluation;
@@ -26,12 +33,85 @@ public abstract class Retrieval {
 
 
     /**
-     * Abstract method that define a general representation of the retrieval system
-     * 
-     * @param queryId
-     * @param queryText 
+     * Method that tokenizes the text of the query, searches the index and stores the results of the query and its
+     * latency, the time spent searching the index
+     *
+     * @param queryId query id
+     * @param queryText text of the query
+     */
+    public void retrieve(int queryId, String queryText) {
+        List<String> terms = tokenizer.tokenize(queryText);
+
+        long startTime = System.nanoTime();
+        Query query = cachedSearch(queryId, terms);
+        long queryLatency = System.nanoTime() - startTime;
+
+        results.add(query);
+        evaluation.addQueryLatency(queryId, queryLatency / 1e6);
+    }
+
+    /**
+     * Abstract method that define a general representation of the retrieval system, computing the score of the
+     * documents for a query without storing the results
+     *
+     * @param queryId query id
+     * @param terms terms of the query
+     * @return query with the scored documents
+     */
+    public abstract Query search(int queryId, List<String> terms);
+
+    /**
+     * Tokenizes the text of the query and computes the score of the documents without storing the results
+     *
+     * @param queryId query id
+     * @param queryText text of the query
+     * @return query with the scored documents
+     */
+    public Query search(int queryId, String queryText) {
+        return cachedSearch(queryId, tokenizer.tokenize(queryText));
+    }
+
+    /**
+     * Returns the results of a query from the result cache or, if they are not cached, computes and caches them
+     *
+     * @param queryId query id
+     * @param terms terms of the query
+     * @return query with the scored documents
      */
-    public abstract void retrieve(int queryId, String queryText);
+    private Query cachedSearch(int queryId, List<String> terms) {
+        if (resultCache == null)
+            return search(queryId, terms);
+
+        String key = cacheKey(terms);
+        Query query = resultCache.get(key, queryId);
+        if (query == null) {
+            query = search(queryId, terms);
+            resultCache.put(key, query);
+        }
+        return query;
+    }
+
+    /**
+     * Returns the normalized query used as key of the result cache: the scoring of the retrieval model followed
+     * by the terms sorted, since the order of the terms does not change the scores
+     *
+     * @param terms terms of the query
+     * @return normalized query
+     */
+    protected String cacheKey(List<String> terms) {
+        List<String> sorted = new ArrayList<>(terms);
+        Collections.sort(sorted);
+        return scoringName() + " " + String.join(" ", sorted);
+    }
+
+    /**
+     * Returns the name of the scoring of the retrieval model, which identifies its results in the result cache
+     *
+     * @return scoring name
+     */
+    protected String scoringName() {
+        return getClass().getSimpleName();
+    }
 
     /**
      * Saves the score of the documents for each query in a file
@@ -41,6 +121,31 @@ public abstract class Retrieval {
 
     public abstract void saveToFile(String filename);
 
+    /**
+     * Saves the results of the queries in a file, one line per document retrieved with the query id, the document
+     * id and the score, in the order of the query ids and of the ranks
+     *
+     * @param filename name of the output file
+     * @param integerScores if the scores are written as integers, the scores of the Boolean models
+     */
+    protected void saveResults(String filename, boolean integerScores) {
+        try (PrintWriter out = new PrintWriter(filename)) {
+            results.sort(Comparator.comparingInt(Query::getQuery_id));
+            for (Query query : results) {
+                int id = query.getQuery_id();
+                for (int rank = 0; rank < query.size(); rank++) {
+                    if (integerScores)
+                        out.printf("%d\t%d\t%d\n", id, query.getDocID(rank), (int) query.getScore(rank));
+                    else
+                        out.printf("%d\t%d\t%f\n", id, query.getDocID(rank), query.getScore(rank));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing results to file");
+            System.exit(1);
+        }
+    }
+
     /**
      * Method that evaluate an algorithm score.
      * For each query, the retrieved documents have a score greater or equal
@@ -54,23 +159,30 @@ public abstract class Retrieval {
      */
     public void evaluateWithFixedThreshold(double threshold, int n_ratings, Boolean displayQueryMetrics) {
         System.out.println("Evaluating with fixed threshold: " + threshold + " and number of ratings: " + n_ratings + "\n");
+        calculateMeasures(threshold, n_ratings);
+        System.out.println("Precision values to plot precision-recall curve with recall levels [0,1] with a step of 0.1:\n"
+                + evaluation.averageRecallPrecision());
+        evaluation.printResults(displayQueryMetrics);
+        evaluation.reset();
+    }
+
+    /**
+     * Calculates the query and system metrics with a fixed threshold without printing them, so they can be read
+     * from the evaluation and compared with the ones of another retrieval model. The evaluation must be reset
+     * before the results are evaluated again.
+     *
+     * @param threshold fixed value of threshold
+     * @param n_ratings relevance level
+     */
+    public void calculateMeasures(double threshold, int n_ratings) {
         evaluation.setN_ratings(n_ratings);
 
         for (Query query: results ) {
-            List<Integer> documentsRetrieved = query.getDoc_scores().entrySet().stream()
-                    .sorted((o1, o2) -> o1.getValue().equals(o2.getValue())
-                            ? o1.getKey().compareTo(o2.getKey()) : o2.getValue().compareTo(o1.getValue()))
-                    .filter(entry -> entry.getValue() >= threshold)
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
+            int[] documentsRetrieved = documentsAboveThreshold(query, threshold);
 
             evaluation.calculateQueryMeasures(query.getQuery_id(), documentsRetrieved);
         }
         evaluation.calculateSystemMeasures();
-        System.out.println("Precision values to plot precision-recall curve with recall levels [0,1] with a step of 0.1:\n"
-                + evaluation.averageRecallPrecision());
-        evaluation.printResults(displayQueryMetrics);
-        evaluation.reset();
     }
 
     /**
@@ -91,15 +203,8 @@ public abstract class Retrieval {
         evaluation.setN_ratings(n_ratings);
 
         for (Query query: results ) {
-            Collection<Double> values = query.getDoc_scores().values();
-            double max = Collections.max(values);
-
-            List<Integer> documentsRetrieved = query.getDoc_scores().entrySet().stream()
-                    .sorted((o1, o2) -> o1.getValue().equals(o2.getValue())
-                            ? o1.getKey().compareTo(o2.getKey()) : o2.getValue().compareTo(o1.getValue()))
-                    .filter(entry -> entry.getValue() >= max * threshold)
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
+            double max = query.getMaxScore();
+            int[] documentsRetrieved = documentsAboveThreshold(query, max * threshold);
 
             evaluation.calculateQueryMeasures(query.getQuery_id(), documentsRetrieved);
         }
@@ -111,12 +216,67 @@ public abstract class Retrieval {
     }
 
     /**
-     * Store or modify the Indexer object
+     * Method that evaluates an algorithm score with every combination of the relevance levels and the fixed and
+     * variable thresholds given as arguments, walking the ranking of each query once, and prints a table with the
+     * system metrics of each combination.
+     *
+     * @param fixedThresholds fixed values of threshold, may be null
+     * @param variableThresholds variable values of threshold, may be null
+     * @param relevances relevance levels
+     */
+    public void evaluateSweep(List<Double> fixedThresholds, List<Double> variableThresholds,
+                              List<Integer> relevances) {
+        List<SweepEvaluation.Configuration> configurations = new SweepEvaluation(evaluation)
+                .evaluate(results, fixedThresholds, variableThresholds, relevances);
+
+        System.out.println("Evaluating " + configurations.size() + " combinations of threshold and number of " +
+                "ratings\n");
+        System.out.println(SweepEvaluation.header());
+        configurations.forEach(System.out::println);
+        System.out.println();
+    }
+
+    /**
+     * Returns the ranked documents of a query with a score greater or equal than the threshold
+     *
+     * @param query query with results
+     * @param threshold minimum score
+     * @return ids of the documents retrieved, in rank order
+     */
+    private static int[] documentsAboveThreshold(Query query, double threshold) {
+        int n = 0;
+        while (n < query.size() && query.getScore(n) >= threshold)
+            n++;
+
+        int[] documentsRetrieved = new int[n];
+        for (int rank = 0; rank < n; rank++)
+            documentsRetrieved[rank] = query.getDocID(rank);
+        return documentsRetrieved;
+    }
+
+    /**
+     * Store or modify the Indexer object, invalidating the result cache. The retrieval models whose scoring keeps
+     * the index override it to score with the new one. It must not be called while queries are retrieved.
      * 
      * @param indexer a new Indexer object
      */
     public void setIndexer(Indexer indexer) {
         this.indexer = indexer;
+        if (resultCache != null)
+            resultCache.invalidate();
+    }
+
+    /**
+     * Store or modify the cache of the results of the queries, null disables it
+     *
+     * @param resultCache a result cache, which can be shared by retrieval models over the same index
+     */
+    public void setResultCache(QueryResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public QueryResultCache getResultCache() {
+        return resultCache;
     }
 
     /**
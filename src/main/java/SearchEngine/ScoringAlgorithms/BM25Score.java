@@ -0,0 +1,148 @@
+package SearchEngine.ScoringAlgorithms;
+
+import IndexerEngine.indexer.DocumentLengths;
+import IndexerEngine.indexer.Indexer;
+import IndexerEngine.indexer.PostingCursor;
+import IndexerEngine.indexer.PostingList;
+import SearchEngine.QueryProcessing.Query;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Class that implements the ScoringAlgorithm interface with the Okapi BM25 ranking function over a term frequency
+ * index. The score of a document is the sum, for each query term, of idf * tf * (k1 + 1) / (tf + K), where
+ * idf = ln(1 + (N - df + 0.5) / (df + 0.5)) and K = k1 * (1 - b + b * length / average length) is the length
+ * norm of the document.
+ * <p>
+ * N and df are the number of documents and the document frequencies of the index, so on a segmented index the
+ * replaced and deleted documents are counted in both until the segments are merged, as in the cosine score. The
+ * table of document lengths saved alongside the index only gives the length norms, which are computed once for
+ * all the documents, and the idf * (k1 + 1) weight of each query term once per query, so scoring a posting is a
+ * multiply-add and a division by the saturated term frequency. A term repeated in the query adds its
+ * contribution again.
+ */
+public class BM25Score implements ScoringAlgorithm {
+    public static final double DEFAULT_K1 = 1.2;
+    public static final double DEFAULT_B = 0.75;
+
+    private Indexer indexer;
+    private float[] lengthNorms;
+    private double k1;
+    private double b;
+
+    public BM25Score(Indexer indexer, DocumentLengths documentLengths) {
+        this(indexer, documentLengths, DEFAULT_K1, DEFAULT_B);
+    }
+
+    /**
+     * Creates a new instance of BM25Score
+     *
+     * @param indexer term frequency index, which gives the number of documents and the document frequencies
+     * @param documentLengths length of each document of the index
+     * @param k1 saturation of the term frequency, 0 ignores the term frequency
+     * @param b weight of the length normalization, between 0 and 1
+     */
+    public BM25Score(Indexer indexer, DocumentLengths documentLengths, double k1, double b) {
+        this.indexer = indexer;
+        this.k1 = k1;
+        this.b = b;
+
+        double averageLength = documentLengths.getAverageLength();
+        this.lengthNorms = new float[documentLengths.maxDocID() + 1];
+        for (int docID = 0; docID < lengthNorms.length; docID++) {
+            double relativeLength = averageLength == 0.0 ? 1.0 : documentLengths.get(docID) / averageLength;
+            lengthNorms[docID] = (float) (k1 * (1 - b + b * relativeLength));
+        }
+    }
+
+    /**
+     * Creates a BM25 score with the same parameters over another index
+     *
+     * @param indexer term frequency index
+     * @param documentLengths length of each document of the index
+     * @return BM25 score of the index
+     */
+    public BM25Score withIndex(Indexer indexer, DocumentLengths documentLengths) {
+        return new BM25Score(indexer, documentLengths, k1, b);
+    }
+
+    /**
+     * For a given query calculates the BM25 score of each document with terms present in the query, with the
+     * postings lists and the document frequencies of the terms in the index. Documents deleted from the index are
+     * skipped.
+     * @param query the query being processed
+     * @param terms terms of the query
+     */
+    public void computeScores(Query query, List<String> terms) {
+        List<PostingList> postings = new ArrayList<>();
+        List<Integer> docFreqs = new ArrayList<>();
+
+        for (String term : terms) {
+            int termID = indexer.getTermID(term);
+            if (termID >= 0) {
+                postings.add(indexer.getTermPostings(termID));
+                docFreqs.add(indexer.getDocFreq(termID));
+            }
+        }
+        computeScores(query, postings, docFreqs, indexer.getDeletedDocs());
+    }
+
+    /**
+     * For a given query calculates the BM25 score of each document with terms present in the query, traversing
+     * the postings lists term-at-a-time. The length of a list is taken as the document frequency of its term, so
+     * the lists must be the ones of the index, use {@link #computeScores(Query, List)} with a segmented index.
+     * @param query the query being processed
+     * @param postings postings lists of the terms that are present in the query
+     * @param deletedDocs documents deleted from the index, which are not scored
+     */
+    @Override
+    public void computeScores(Query query, List<PostingList> postings, BitSet deletedDocs) {
+        List<Integer> docFreqs = new ArrayList<>();
+        for (PostingList postingList : postings)
+            docFreqs.add(postingList.size());
+        computeScores(query, postings, docFreqs, deletedDocs);
+    }
+
+    private void computeScores(Query query, List<PostingList> postings, List<Integer> docFreqs,
+                               BitSet deletedDocs) {
+        ScoreAccumulator accumulator = ScoreAccumulator.forCurrentThread();
+        float[] norms = lengthNorms;
+
+        for (int t = 0; t < postings.size(); t++) {
+            double weight = termWeight(docFreqs.get(t));
+            PostingCursor cursor = postings.get(t).cursor();
+
+            for (int docID = cursor.nextDoc(); docID != PostingCursor.NO_MORE_DOCS; docID = cursor.nextDoc()) {
+                if (!deletedDocs.get(docID)) {
+                    int tf = cursor.termFreq();
+                    accumulator.add(docID, weight * tf / (tf + norms[docID]));
+                }
+            }
+        }
+        accumulator.copyTo(query);
+    }
+
+    /**
+     * Returns the BM25 score of a posting, with the document frequency given by the length of the list of the
+     * cursor, which must be a list of the index as in {@link #computeScores(Query, List, BitSet)}
+     * @param cursor cursor positioned on a posting
+     * @return score of the posting
+     */
+    @Override
+    public double postingScore(PostingCursor cursor) {
+        int tf = cursor.termFreq();
+        return termWeight(cursor.cost()) * tf / (tf + lengthNorms[cursor.docID()]);
+    }
+
+    /**
+     * Returns the weight of a query term, its idf multiplied by k1 + 1
+     *
+     * @param docFreq document frequency of the term
+     * @return weight of the term
+     */
+    private double termWeight(int docFreq) {
+        return Math.log(1 + (indexer.getN_docs() - docFreq + 0.5) / (docFreq + 0.5)) * (k1 + 1);
+    }
+}
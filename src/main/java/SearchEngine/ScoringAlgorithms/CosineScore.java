@@ -2,44 +2,203 @@
 package SearchEngine.ScoringAlgorithms;
 
 import IndexerEngine.indexer.Indexer;
-import IndexerEngine.indexer.Posting;
-import IndexerEngine.indexer.PostingWtNorm;
-import SearchEngine.QueryProcessing.Vector;
+import IndexerEngine.indexer.PostingCursor;
+import IndexerEngine.indexer.PostingList;
+import IndexerEngine.indexer.WtNormPostingList;
 import SearchEngine.QueryProcessing.Query;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
 
 /**
  * Class that compute the cosine similarity score for the query and each document vector
  * 
  */
 public class CosineScore {
+    // upper bounds are inflated so rounding differences between the bound and the score never prune a document
+    private static final double UPPER_BOUND_SLACK = 1 + 1e-9;
+
     private Indexer indexer;
+    private boolean blockMaxPruning;
 
     public CosineScore(Indexer indexer) {
         this.indexer = indexer;
+        this.blockMaxPruning = true;
+    }
+
+    /**
+     * Store or modify the index whose documents are scored
+     *
+     * @param indexer weighted index
+     */
+    public void setIndexer(Indexer indexer) {
+        this.indexer = indexer;
+    }
+
+    /**
+     * Enables or disables the block-max pruning of {@link #computeTopKScores(Query, List, int)}, that is enabled
+     * by default. Without it the documents are only skipped with the upper bounds of whole lists.
+     *
+     * @param blockMaxPruning if the highest weight of each block of postings is used to skip documents
+     */
+    public void setBlockMaxPruning(boolean blockMaxPruning) {
+        this.blockMaxPruning = blockMaxPruning;
     }
 
     /**
      * Method that calculate the score by the sum of the multiplications between the tf-idf weighting of
-     * the term query and the log-frequency weighting of the term document
+     * the term query and the log-frequency weighting of the term document. The postings lists are traversed
+     * term-at-a-time, adding the contributions of each term to the score accumulator of the thread.
+     * Documents deleted from the index are skipped.
      * 
      * @param query an object Query
      * @param terms list of the query terms
      */
     public void computeScores(Query query, List<String> terms) {
-        Map<String, Double> wtQuery = normalizeQuery(terms);
-        Map<Integer, Vector> docVectors = createDocVectors(terms);
-
-        for (Vector vector : docVectors.values()) {
-            for (Map.Entry<String, Double> pair : wtQuery.entrySet()) {
-                double prod = pair.getValue() * vector.getTermWeight(pair.getKey());
-                if (prod != 0.0)
-                    query.increaseDocScore(vector.getDocId(), prod);
+        QueryWeights wtQuery = normalizeQuery(terms);
+        ScoreAccumulator accumulator = ScoreAccumulator.forCurrentThread();
+        BitSet deletedDocs = indexer.getDeletedDocs();
+
+        for (int t = 0; t < wtQuery.size(); t++) {
+            double wtTerm = wtQuery.weights[t];
+            if (wtTerm == 0.0)
+                continue;
+            PostingList postingList = indexer.getTermPostings(wtQuery.termIDs[t]);
+
+            PostingCursor cursor = postingList.cursor();
+            for (int docID = cursor.nextDoc(); docID != PostingCursor.NO_MORE_DOCS; docID = cursor.nextDoc()) {
+                double prod = wtTerm * cursor.weight();
+                if (prod != 0.0 && !deletedDocs.get(docID))
+                    accumulator.add(docID, prod);
+            }
+        }
+
+        accumulator.copyTo(query);
+    }
+
+    /**
+     * Method that calculates the same scores as {@link #computeScores(Query, List)} but only keeps the k documents
+     * with higher score. The postings lists are traversed in document order and, using the WAND algorithm, a
+     * document is only scored when the sum of the upper bounds of the terms present in it can beat the lowest
+     * score of the current top k, skipping the remaining documents. With block-max pruning the candidate is also
+     * skipped when the sum of the highest weights of the blocks of postings where it falls can not beat that
+     * score, moving the cursors to the end of the nearest block.
+     *
+     * @param query an object Query
+     * @param terms list of the query terms
+     * @param k number of documents to retrieve
+     */
+    public void computeTopKScores(Query query, List<String> terms, int k) {
+        QueryWeights wtQuery = normalizeQuery(terms);
+
+        // terms kept in the order of the query weights, the order in which computeScores sums them
+        List<TermCursor> termCursors = new ArrayList<>();
+        for (int t = 0; t < wtQuery.size(); t++) {
+            double wtTerm = wtQuery.weights[t];
+            if (wtTerm != 0.0) {
+                PostingList postingList = indexer.getTermPostings(wtQuery.termIDs[t]);
+                double upperBound = wtTerm * ((WtNormPostingList) postingList).getMaxWeight();
+                termCursors.add(new TermCursor(postingList.cursor(), wtTerm, upperBound * UPPER_BOUND_SLACK));
+            }
+        }
+
+        TermCursor[] sorted = termCursors.toArray(new TermCursor[0]);
+        for (TermCursor termCursor : sorted)
+            termCursor.cursor.nextDoc();
+
+        TopKHeap heap = new TopKHeap(k);
+        BitSet deletedDocs = indexer.getDeletedDocs();
+
+        while (true) {
+            Arrays.sort(sorted, TermCursor.BY_DOC_ID);
+
+            // pivot: first term where the accumulated upper bounds can beat the threshold
+            double threshold = heap.threshold();
+            double accumulated = 0.0;
+            int pivot = -1;
+            for (int i = 0; i < sorted.length && sorted[i].cursor.docID() != PostingCursor.NO_MORE_DOCS; i++) {
+                accumulated += sorted[i].upperBound;
+                if (accumulated > threshold) {
+                    pivot = i;
+                    break;
+                }
+            }
+
+            if (pivot == -1)
+                break;
+
+            int pivotDoc = sorted[pivot].cursor.docID();
+
+            if (blockMaxPruning) {
+                int next = skipBlocks(sorted, pivot, threshold);
+                if (next != -1) {
+                    for (int i = 0; i < sorted.length && sorted[i].cursor.docID() < next; i++)
+                        sorted[i].cursor.advance(next);
+                    continue;
+                }
+            }
+
+            if (sorted[0].cursor.docID() == pivotDoc) {
+                double score = 0.0;
+                boolean matched = false;
+                for (TermCursor termCursor : termCursors) {
+                    if (termCursor.cursor.docID() == pivotDoc) {
+                        double prod = termCursor.queryWeight * termCursor.cursor.weight();
+                        if (prod != 0.0) {
+                            score += prod;
+                            matched = true;
+                        }
+                    }
+                }
+
+                if (matched && !deletedDocs.get(pivotDoc))
+                    heap.offer(pivotDoc, score);
+
+                for (TermCursor termCursor : sorted) {
+                    if (termCursor.cursor.docID() == pivotDoc)
+                        termCursor.cursor.nextDoc();
+                }
+            } else {
+                for (int i = 0; i < pivot && sorted[i].cursor.docID() < pivotDoc; i++)
+                    sorted[i].cursor.advance(pivotDoc);
             }
         }
+
+        query.setResults(Arrays.copyOf(heap.docIDs, heap.size), Arrays.copyOf(heap.scores, heap.size));
+    }
+
+    /**
+     * Checks if the documents from the pivot document up to the end of the nearest block can be skipped. Those
+     * documents can only have the terms of the cursors up to the pivot and of the following cursors on the pivot
+     * document, whose contributions are bounded by the highest weight of their current block.
+     *
+     * @param sorted term cursors ordered by document id
+     * @param pivot position of the pivot cursor
+     * @param threshold score a document must exceed to enter the top k
+     * @return first document id that may beat the threshold or -1 if the pivot document may beat it
+     */
+    private static int skipBlocks(TermCursor[] sorted, int pivot, double threshold) {
+        int pivotDoc = sorted[pivot].cursor.docID();
+        int last = pivot;
+        while (last + 1 < sorted.length && sorted[last + 1].cursor.docID() == pivotDoc)
+            last++;
+
+        int next = last + 1 < sorted.length ? sorted[last + 1].cursor.docID() : PostingCursor.NO_MORE_DOCS;
+        double blockBound = 0.0;
+        for (int i = 0; i <= last; i++) {
+            PostingCursor cursor = sorted[i].cursor;
+            int blockEnd = cursor.advanceShallow(pivotDoc);
+            blockBound += sorted[i].queryWeight * cursor.blockMaxImpact();
+            if (blockEnd != PostingCursor.NO_MORE_DOCS)
+                next = Math.min(next, blockEnd + 1);
+        }
+
+        return blockBound * UPPER_BOUND_SLACK > threshold ? -1 : next;
     }
 
     /**
@@ -47,66 +206,167 @@ public class CosineScore {
      * tf-idf weighting
      * 
      * @param terms list of terms
-     * @return tf-idf weighting for each term of the query
+     * @return tf-idf weighting for each indexed term of the query
+     */
+    private QueryWeights normalizeQuery(List<String> terms) {
+        return normalizeQuery(terms, indexer.getN_docs(), indexer::getTermID, indexer::getDocFreq);
+    }
+
+    /**
+     * Method that calculates for each term of the query the respective tf-idf weighting, normalized by the
+     * length of the query vector. Each term is looked up once, the terms are counted by term id and the terms
+     * that are not indexed are left out, as their weight is 0.
+     *
+     * @param terms list of terms
+     * @param nDocs number of documents of the index
+     * @param termIDs term id of a term in the index, -1 if it is not indexed
+     * @param docFreqs document frequency of a term id in the index
+     * @return tf-idf weighting for each indexed term of the query, in the order of their first occurrence
      */
-    private Map<String, Double> normalizeQuery(List<String> terms) {
-        Map<String, Double> temp = new HashMap<>();
-        int nDocs = indexer.getN_docs();
+    static QueryWeights normalizeQuery(List<String> terms, int nDocs, ToIntFunction<String> termIDs,
+                                       IntUnaryOperator docFreqs) {
+        QueryWeights wtQuery = new QueryWeights(terms.size());
+        int[] counts = new int[terms.size()];
+
         for (String term : terms) {
-            double count = temp.getOrDefault(term, 0.0);
-            temp.put(term, count + 1);
-        }
+            int termID = termIDs.applyAsInt(term);
+            if (termID < 0)
+                continue;
 
+            int t = 0;
+            while (t < wtQuery.size && wtQuery.termIDs[t] != termID)
+                t++;
+            if (t == wtQuery.size)
+                wtQuery.termIDs[wtQuery.size++] = termID;
+            counts[t]++;
+        }
 
         double sum_square_wt = 0.0;
-        for (Map.Entry<String, Double> pair : temp.entrySet()) {
-            if (indexer.getTermPostings(pair.getKey()) != null) {
-                int docFreq = indexer.getTermPostings(pair.getKey()).size();
-                double tfLog = 1.0 + Math.log10(pair.getValue());
-                double idf = Math.log10(((double) nDocs / docFreq));
-                double wt = tfLog * idf;
-                pair.setValue(wt);
-                sum_square_wt += Math.pow(wt, 2);
-            } else {
-                pair.setValue(0.0);
-            }
+        for (int t = 0; t < wtQuery.size; t++) {
+            double tfLog = 1.0 + Math.log10(counts[t]);
+            double idf = Math.log10(((double) nDocs / docFreqs.applyAsInt(wtQuery.termIDs[t])));
+            double wt = tfLog * idf;
+            wtQuery.weights[t] = wt;
+            sum_square_wt += Math.pow(wt, 2);
         }
 
         if (sum_square_wt != 0) {
-            for (Map.Entry<String, Double> pair : temp.entrySet()) {
-                pair.setValue(pair.getValue() / Math.sqrt(sum_square_wt));
-            }
+            for (int t = 0; t < wtQuery.size; t++)
+                wtQuery.weights[t] = wtQuery.weights[t] / Math.sqrt(sum_square_wt);
         }
 
-        return temp;
+        return wtQuery;
     }
 
     /**
-     * Method that creates objects of the type Vector that represents documents,
-     * which at least one term occurs in the document an in the query
-     * 
-     * @param terms list of terms
-     * @return map where the keys is the document id and the values an object Vector
+     * Distinct indexed terms of a query, by term id, with their normalized tf-idf weights
      */
-    private Map<Integer, Vector> createDocVectors(List<String> terms) {
-        Map<Integer, Vector> vec = new HashMap<>();
-        for (String term : terms) {
-            if (indexer.getTermPostings(term) != null) {
-                List<Posting> postingList = indexer.getTermPostings(term);
-                for (Posting posting1 : postingList) {
-                    PostingWtNorm posting = (PostingWtNorm) posting1;
-
-                    if (!vec.containsKey(posting.getDocID())) {
-                        Vector vector = new Vector(posting.getDocID());
-                        vector.addTerm(term, posting.getWt_norm());
-                        vec.put(posting.getDocID(), vector);
-                    } else {
-                        vec.get(posting.getDocID()).addTerm(term, posting.getWt_norm());
-                    }
+    static final class QueryWeights {
+        final int[] termIDs;
+        final double[] weights;
+        private int size;
 
-                }
+        QueryWeights(int capacity) {
+            this.termIDs = new int[capacity];
+            this.weights = new double[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Cursor over the postings of a query term together with the query weight and the highest contribution the
+     * term can give to a document score
+     */
+    private static class TermCursor {
+        static final Comparator<TermCursor> BY_DOC_ID = Comparator.comparingInt(t -> t.cursor.docID());
+
+        final PostingCursor cursor;
+        final double queryWeight;
+        final double upperBound;
+
+        TermCursor(PostingCursor cursor, double queryWeight, double upperBound) {
+            this.cursor = cursor;
+            this.queryWeight = queryWeight;
+            this.upperBound = upperBound;
+        }
+    }
+
+    /**
+     * Min-heap with the k documents with higher score. Documents are offered in increasing document id, so a
+     * document only replaces the lowest one if its score is strictly higher, as ties are ranked by document id.
+     */
+    private static class TopKHeap {
+        final int[] docIDs;
+        final double[] scores;
+        int size;
+
+        TopKHeap(int k) {
+            this.docIDs = new int[k];
+            this.scores = new double[k];
+        }
+
+        /**
+         * Returns the score a document must exceed to enter the heap
+         *
+         * @return lowest score of the heap when it is full, 0 otherwise
+         */
+        double threshold() {
+            return size < docIDs.length ? 0.0 : scores[0];
+        }
+
+        void offer(int docID, double score) {
+            if (size < docIDs.length) {
+                docIDs[size] = docID;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                docIDs[0] = docID;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // lower in the heap means lower score or, for the same score, higher document id
+        private boolean lower(int i, int j) {
+            return scores[i] < scores[j] || (scores[i] == scores[j] && docIDs[i] > docIDs[j]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!lower(i, parent))
+                    break;
+                swap(i, parent);
+                i = parent;
             }
         }
-        return vec;
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && lower(left, smallest))
+                    smallest = left;
+                if (right < size && lower(right, smallest))
+                    smallest = right;
+                if (smallest == i)
+                    break;
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int docID = docIDs[i];
+            docIDs[i] = docIDs[j];
+            docIDs[j] = docID;
+            double score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
     }
-}
\ No newline at end of file
+}
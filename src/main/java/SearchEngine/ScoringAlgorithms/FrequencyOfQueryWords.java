@@ -1,9 +1,10 @@
 package SearchEngine.ScoringAlgorithms;
 
-import IndexerEngine.indexer.Posting;
-import IndexerEngine.indexer.PostingTermFreq;
+import IndexerEngine.indexer.PostingCursor;
+import IndexerEngine.indexer.PostingList;
 import SearchEngine.QueryProcessing.Query;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -17,14 +18,30 @@ public class FrequencyOfQueryWords implements ScoringAlgorithm {
      * For a given query calculates the sum of the frequencies of the query terms for each document with terms present
      * in the query
      * @param query the query being processed
-     * @param postings postings list of the terms that are present in the query
+     * @param postings postings lists of the terms that are present in the query
+     * @param deletedDocs documents deleted from the index, which are not scored
      */
 
     @Override
-    public void computeScores(Query query, List<Posting> postings) {
-        for (Posting posting1 : postings) {
-            PostingTermFreq posting = (PostingTermFreq) posting1;
-            query.increaseDocScore(posting.getDocID(), posting.getTermFreq());
+    public void computeScores(Query query, List<PostingList> postings, BitSet deletedDocs) {
+        ScoreAccumulator accumulator = ScoreAccumulator.forCurrentThread();
+        for (PostingList postingList : postings) {
+            PostingCursor cursor = postingList.cursor();
+            for (int docID = cursor.nextDoc(); docID != PostingCursor.NO_MORE_DOCS; docID = cursor.nextDoc()) {
+                if (!deletedDocs.get(docID))
+                    accumulator.add(docID, cursor.termFreq());
+            }
         }
+        accumulator.copyTo(query);
+    }
+
+    /**
+     * Returns the score of a posting, the frequency of the term in the document
+     * @param cursor cursor positioned on a posting
+     * @return score of the posting
+     */
+    @Override
+    public double postingScore(PostingCursor cursor) {
+        return cursor.termFreq();
     }
 }
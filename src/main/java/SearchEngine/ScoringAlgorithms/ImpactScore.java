@@ -0,0 +1,87 @@
+package SearchEngine.ScoringAlgorithms;
+
+import IndexerEngine.indexer.ImpactOrderedIndex;
+import IndexerEngine.indexer.ImpactOrderedIndex.ImpactPostings;
+import SearchEngine.QueryProcessing.Query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Class that computes an approximation of the cosine score over an impact-ordered index, score-at-a-time. Each
+ * segment of postings with the same impact adds the same contribution, the query weight of the term multiplied by
+ * the impact, to all its documents, so the segments of all the query terms are processed in decreasing order of
+ * contribution and, with a budget, the scoring stops after that number of postings, leaving out the postings
+ * that contribute the least to the scores.
+ */
+public class ImpactScore {
+    private ImpactOrderedIndex index;
+
+    public ImpactScore(ImpactOrderedIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Method that calculates the score of the documents of a query, processing the segments of postings in
+     * decreasing order of contribution until the budget of postings is spent
+     *
+     * @param query an object Query
+     * @param terms list of the query terms
+     * @param budget maximum number of postings processed, 0 processes every posting
+     * @return number of postings processed
+     */
+    public int computeScores(Query query, List<String> terms, int budget) {
+        CosineScore.QueryWeights wtQuery = CosineScore.normalizeQuery(terms, index.getN_docs(), index::getTermID,
+                index::getDocFreq);
+
+        List<Segment> segments = new ArrayList<>();
+        for (int t = 0; t < wtQuery.size(); t++) {
+            if (wtQuery.weights[t] == 0.0)
+                continue;
+
+            ImpactPostings postings = index.getTermPostings(wtQuery.termIDs[t]);
+            double weight = wtQuery.weights[t] * index.getImpactWeight();
+            for (int s = 0; s < postings.segments(); s++)
+                segments.add(new Segment(postings, s, weight * postings.impact(s)));
+        }
+        segments.sort(Segment.BY_CONTRIBUTION);
+
+        ScoreAccumulator accumulator = ScoreAccumulator.forCurrentThread();
+        int remaining = budget > 0 ? budget : Integer.MAX_VALUE;
+
+        for (Segment segment : segments) {
+            ImpactPostings postings = segment.postings;
+            int start = postings.start(segment.segment);
+            int end = start + Math.min(remaining, postings.end(segment.segment) - start);
+            double contribution = segment.contribution;
+
+            for (int i = start; i < end; i++)
+                accumulator.add(postings.getDocID(i), contribution);
+
+            remaining -= end - start;
+            if (remaining == 0)
+                break;
+        }
+
+        accumulator.copyTo(query);
+        return budget > 0 ? budget - remaining : Integer.MAX_VALUE - remaining;
+    }
+
+    /**
+     * Segment of postings of a query term with the contribution of each of its postings to the scores
+     */
+    private static class Segment {
+        static final Comparator<Segment> BY_CONTRIBUTION = Comparator.comparingDouble(s -> -s.contribution);
+
+        final ImpactPostings postings;
+        final int segment;
+        final double contribution;
+
+        Segment(ImpactPostings postings, int segment, double contribution) {
+            this.postings = postings;
+            this.segment = segment;
+            this.contribution = contribution;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package SearchEngine.ScoringAlgorithms;
 
-import IndexerEngine.indexer.Posting;
+import IndexerEngine.indexer.PostingCursor;
+import IndexerEngine.indexer.PostingList;
 import SearchEngine.QueryProcessing.Query;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -14,11 +16,30 @@ public class NumberOfQueryWords implements ScoringAlgorithm {
     /**
      * For a given query calculates the number of query terms for each document with terms present in the query
      * @param query the query being processed
-     * @param postings postings list of the terms that are present in the query
+     * @param postings postings lists of the terms that are present in the query
+     * @param deletedDocs documents deleted from the index, which are not scored
      */
 
     @Override
-    public void computeScores(Query query, List<Posting> postings) {
-        postings.forEach(posting ->  query.increaseDocScore(posting.getDocID(), 1));
+    public void computeScores(Query query, List<PostingList> postings, BitSet deletedDocs) {
+        ScoreAccumulator accumulator = ScoreAccumulator.forCurrentThread();
+        for (PostingList postingList : postings) {
+            PostingCursor cursor = postingList.cursor();
+            for (int docID = cursor.nextDoc(); docID != PostingCursor.NO_MORE_DOCS; docID = cursor.nextDoc()) {
+                if (!deletedDocs.get(docID))
+                    accumulator.add(docID, 1);
+            }
+        }
+        accumulator.copyTo(query);
+    }
+
+    /**
+     * Returns the score of a posting, each query term present in the document counts once
+     * @param cursor cursor positioned on a posting
+     * @return score of the posting
+     */
+    @Override
+    public double postingScore(PostingCursor cursor) {
+        return 1;
     }
 }
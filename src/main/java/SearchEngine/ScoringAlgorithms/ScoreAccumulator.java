@@ -0,0 +1,98 @@
+package SearchEngine.ScoringAlgorithms;
+
+import SearchEngine.QueryProcessing.Query;
+
+import java.util.Arrays;
+
+/**
+ * Dense score accumulator indexed by document id, used to score a query term-at-a-time without creating objects
+ * per posting. The documents that received a score are kept in a list, so resetting the accumulator only clears
+ * those positions. Each thread reuses its own accumulator, obtained with {@link #forCurrentThread()}.
+ */
+public class ScoreAccumulator {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final ThreadLocal<ScoreAccumulator> PER_THREAD = ThreadLocal.withInitial(ScoreAccumulator::new);
+
+    private double[] scores;
+    private boolean[] touched;
+    private int[] touchedDocs;
+    private int nTouched;
+
+    public ScoreAccumulator() {
+        this.scores = new double[INITIAL_CAPACITY];
+        this.touched = new boolean[INITIAL_CAPACITY];
+        this.touchedDocs = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the accumulator of the current thread, empty
+     *
+     * @return accumulator of the current thread
+     */
+    public static ScoreAccumulator forCurrentThread() {
+        ScoreAccumulator accumulator = PER_THREAD.get();
+        accumulator.reset();
+        return accumulator;
+    }
+
+    /**
+     * Increases the score of a document by a numeric value
+     *
+     * @param docID the document id
+     * @param value the value to be added to the score
+     */
+    public void add(int docID, double value) {
+        if (docID >= scores.length)
+            grow(docID + 1);
+
+        if (!touched[docID]) {
+            touched[docID] = true;
+            if (nTouched == touchedDocs.length)
+                touchedDocs = Arrays.copyOf(touchedDocs, nTouched * 2);
+            touchedDocs[nTouched++] = docID;
+        }
+        scores[docID] += value;
+    }
+
+    /**
+     * Returns the number of documents with a score
+     *
+     * @return number of documents with a score
+     */
+    public int size() {
+        return nTouched;
+    }
+
+    /**
+     * Saves the scored documents as the results of the query and resets the accumulator
+     *
+     * @param query the query being processed
+     */
+    public void copyTo(Query query) {
+        int[] docIDs = Arrays.copyOf(touchedDocs, nTouched);
+        double[] docScores = new double[nTouched];
+        for (int i = 0; i < nTouched; i++)
+            docScores[i] = scores[docIDs[i]];
+
+        query.setResults(docIDs, docScores);
+        reset();
+    }
+
+    /**
+     * Clears the scores of the documents scored since the last reset
+     */
+    public void reset() {
+        for (int i = 0; i < nTouched; i++) {
+            int docID = touchedDocs[i];
+            scores[docID] = 0.0;
+            touched[docID] = false;
+        }
+        nTouched = 0;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, scores.length * 2);
+        scores = Arrays.copyOf(scores, capacity);
+        touched = Arrays.copyOf(touched, capacity);
+    }
+}
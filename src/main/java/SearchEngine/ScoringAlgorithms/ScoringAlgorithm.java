@@ -1,8 +1,12 @@
 package SearchEngine.ScoringAlgorithms;
 
-import IndexerEngine.indexer.Posting;
+import IndexerEngine.indexer.PostingCursor;
+import IndexerEngine.indexer.PostingList;
 import SearchEngine.QueryProcessing.Query;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -13,7 +17,57 @@ public interface ScoringAlgorithm {
     /**
      * Method that calculates the scores of documents with terms of a given query
      * @param query the query being processed
-     * @param postings postings list of the terms that are present in the query
+     * @param postings postings lists of the terms that are present in the query, one for each query term
+     * @param deletedDocs documents deleted from the index, which are not scored
      */
-    public void computeScores(Query query, List<Posting> postings);
+    public void computeScores(Query query, List<PostingList> postings, BitSet deletedDocs);
+
+    /**
+     * Returns the contribution of the current posting of a cursor to the score of its document
+     * @param cursor cursor positioned on a posting
+     * @return score of the posting
+     */
+    public double postingScore(PostingCursor cursor);
+
+    /**
+     * Method that calculates the scores of the documents with all the terms of a given query. The postings lists
+     * are intersected starting from the shortest one, the other cursors are moved to its document with
+     * {@link PostingCursor#advance(int)}, skipping whole blocks of postings, and when a cursor passes that
+     * document the shortest one is moved to the new document.
+     * @param query the query being processed
+     * @param postings postings lists of the query terms, one for each query term
+     * @param deletedDocs documents deleted from the index, which are not scored
+     */
+    public default void computeConjunctiveScores(Query query, List<PostingList> postings, BitSet deletedDocs) {
+        ScoreAccumulator accumulator = ScoreAccumulator.forCurrentThread();
+
+        PostingCursor[] cursors = new PostingCursor[postings.size()];
+        for (int i = 0; i < cursors.length; i++)
+            cursors[i] = postings.get(i).cursor();
+        Arrays.sort(cursors, Comparator.comparingInt(PostingCursor::cost));
+
+        int docID = cursors.length == 0 ? PostingCursor.NO_MORE_DOCS : cursors[0].nextDoc();
+        while (docID != PostingCursor.NO_MORE_DOCS) {
+            int i = 1;
+            for (; i < cursors.length; i++) {
+                int other = cursors[i].advance(docID);
+                if (other != docID) {
+                    docID = cursors[0].advance(other);
+                    break;
+                }
+            }
+
+            if (i == cursors.length) {
+                if (!deletedDocs.get(docID)) {
+                    double score = 0.0;
+                    for (PostingCursor cursor : cursors)
+                        score += postingScore(cursor);
+                    accumulator.add(docID, score);
+                }
+                docID = cursors[0].nextDoc();
+            }
+        }
+
+        accumulator.copyTo(query);
+    }
 }
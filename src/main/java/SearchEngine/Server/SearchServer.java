@@ -0,0 +1,187 @@
+package SearchEngine.Server;
+
+import SearchEngine.QueryProcessing.Query;
+import SearchEngine.QueryProcessing.QueryResultCache;
+import SearchEngine.QueryProcessing.Retrieval;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP server that keeps a retrieval model, and so its index and tokenizer, loaded and answers queries
+ * concurrently with a pool of threads.
+ *
+ * <p>{@code GET /search?q=<query text>} answers with the latency of the request in ms in the first line,
+ * followed by one line {@code docID score} for each of the k documents with higher score.</p>
+ * <p>{@code GET /stats} answers with the number of requests served and their mean and maximum latency and, if
+ * the retrieval caches the results of the queries, the counters of the cache.</p>
+ */
+public class SearchServer {
+    static {
+        // the JDK server writes the headers and the body separately, without TCP_NODELAY small responses wait
+        // for the delayed acknowledgement of the client
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final Retrieval retrieval;
+    private final int topK;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger nextQueryId;
+
+    private long requests;
+    private double latencySum;
+    private double maxLatency;
+
+    /**
+     * Creates a server bound to a port of the loopback address, so it only answers local clients, not started
+     *
+     * @param retrieval retrieval model used to answer the queries
+     * @param port port to listen on
+     * @param nThreads number of threads handling requests
+     * @param topK number of documents returned for each query
+     * @throws IOException if the port can not be bound
+     */
+    public SearchServer(Retrieval retrieval, int port, int nThreads, int topK) throws IOException {
+        this.retrieval = retrieval;
+        this.topK = topK;
+        this.nextQueryId = new AtomicInteger(1);
+        this.executor = Executors.newFixedThreadPool(nThreads);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/search", this::handleSearch);
+        this.server.createContext("/stats", this::handleStats);
+    }
+
+    /**
+     * Starts answering requests in the background
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the server, waiting at most one second for the requests being answered
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the port the server is listening on
+     *
+     * @return port number
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Answers a search request. A query string that can not be decoded is answered with 400 and a failure while
+     * searching with 500, so the client always receives a response.
+     */
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+
+        String queryText;
+        try {
+            queryText = parseParameters(exchange.getRequestURI().getRawQuery()).get("q");
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, "invalid query string: " + e.getMessage() + "\n");
+            return;
+        }
+        if (queryText == null) {
+            respond(exchange, 400, "missing query parameter q\n");
+            return;
+        }
+
+        StringBuilder results = new StringBuilder();
+        try {
+            Query query = retrieval.search(nextQueryId.getAndIncrement(), queryText);
+            int n = Math.min(topK, query.size());
+
+            for (int rank = 0; rank < n; rank++)
+                results.append(query.getDocID(rank)).append(' ')
+                        .append(String.format(Locale.ROOT, "%f", query.getScore(rank))).append('\n');
+        } catch (RuntimeException e) {
+            System.err.println("Unable to answer the query " + queryText + ": " + e);
+            respond(exchange, 500, "unable to answer the query\n");
+            return;
+        }
+
+        double latency = (System.nanoTime() - startTime) / 1e6;
+        addLatency(latency);
+
+        respond(exchange, 200, String.format(Locale.ROOT, "latency %.3f\n", latency) + results);
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        String stats;
+        synchronized (this) {
+            stats = String.format(Locale.ROOT, "requests %d\nmean_latency %.3f\nmax_latency %.3f\n", requests,
+                    requests == 0 ? 0.0 : latencySum / requests, maxLatency);
+        }
+
+        QueryResultCache resultCache = retrieval.getResultCache();
+        if (resultCache != null)
+            stats += String.format(Locale.ROOT, "cache_queries %d\ncache_hits %d\ncache_misses %d\n" +
+                    "cache_evictions %d\ncache_invalidations %d\n", resultCache.size(), resultCache.getHits(),
+                    resultCache.getMisses(), resultCache.getEvictions(), resultCache.getInvalidations());
+        respond(exchange, 200, stats);
+    }
+
+    private synchronized void addLatency(double latency) {
+        requests++;
+        latencySum += latency;
+        maxLatency = Math.max(maxLatency, latency);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Decodes the parameters of the query string of a request
+     *
+     * @param rawQuery query string, may be null
+     * @return map from parameter name to value
+     */
+    private static Map<String, String> parseParameters(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null)
+            return parameters;
+
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0)
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), "UTF-8"),
+                        URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+        }
+        return parameters;
+    }
+}
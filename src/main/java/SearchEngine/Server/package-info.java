@@ -0,0 +1,5 @@
+package SearchEngine.Server;
+
+/**
+ * Package that contains the search server that keeps an index loaded and answers queries over HTTP
+ */